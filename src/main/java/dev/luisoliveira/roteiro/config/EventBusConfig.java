@@ -1,18 +1,75 @@
 package dev.luisoliveira.roteiro.config;
 
+import dev.luisoliveira.roteiro.event.ContentEvent;
+import dev.luisoliveira.roteiro.service.PipelineScheduler;
+import dev.luisoliveira.roteiro.service.ProcessCancellationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 public class EventBusConfig {
 
+    /**
+     * Agendador das etapas do pipeline (filas de prioridade com fair queuing por usuário)
+     *
+     * @param workers     Etapas executando ao mesmo tempo
+     * @param userWeights Pesos por usuário no formato "userId=2,outroId=0.5"
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PipelineScheduler pipelineScheduler(
+            @Value("${app.scheduler.workers:8}") int workers,
+            @Value("${app.scheduler.user-weights:}") String userWeights) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : userWeights.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2 && !parts[0].isBlank()) {
+                weights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        PipelineScheduler scheduler = new PipelineScheduler(workers, weights);
+        scheduler.start();
+        return scheduler;
+    }
+
+    /**
+     * Eventos de processo (ContentEvent) são executados pelo PipelineScheduler,
+     * vinculados ao processo para permitir o cancelamento; os demais eventos
+     * continuam assíncronos em threads próprias
+     */
     @Bean
-    public ApplicationEventMulticaster applicationEventMulticaster() {
-        SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster();
+    public ApplicationEventMulticaster applicationEventMulticaster(PipelineScheduler pipelineScheduler,
+            ProcessCancellationService processCancellationService) {
+        SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster() {
+            @Override
+            public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+                if (!(event instanceof PayloadApplicationEvent<?> payloadEvent)
+                        || !(payloadEvent.getPayload() instanceof ContentEvent contentEvent)) {
+                    super.multicastEvent(event, eventType);
+                    return;
+                }
+                String processId = contentEvent.getProcessId();
+                if (processCancellationService.isCancelled(processId)) {
+                    return;
+                }
+                ResolvableType type = eventType != null ? eventType : ResolvableType.forInstance(event);
+                for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
+                    pipelineScheduler.submit(processId,
+                            () -> processCancellationService.runFor(processId, () -> invokeListener(listener, event)));
+                }
+            }
+        };
         eventMulticaster.setTaskExecutor(new SimpleAsyncTaskExecutor());
         return eventMulticaster;
     }
-}
\ No newline at end of file
+}
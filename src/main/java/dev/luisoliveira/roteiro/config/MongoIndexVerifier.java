@@ -0,0 +1,297 @@
+package dev.luisoliveira.roteiro.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cria na inicialização os índices da coleção de orações e confirma, via
+ * explain, que as consultas principais não fazem COLLSCAN.
+ *
+ * Os índices são criados aqui, e não por anotações, para que a aplicação
+ * suba mesmo com o MongoDB indisponível (a criação automática acontece ao
+ * construir o MongoTemplate e derruba a inicialização).
+ *
+ * Bases antigas podem ter mais de uma oração por processId. A inicialização
+ * apenas informa os processIds duplicados e não cria o índice único; a
+ * remoção das duplicatas é explícita (POST /config/indexes/process-id/dedupe
+ * ou app.mongodb.dedupe-process-ids-on-startup) e guarda as removidas em
+ * prayer_duplicates_backup.
+ */
+@Component
+public class MongoIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexVerifier.class);
+
+    public static final String TEXT_INDEX_NAME = "prayer_text";
+    public static final String PROCESS_ID_INDEX_NAME = "processId_unique";
+    public static final String DUPLICATES_BACKUP_COLLECTION = "prayer_duplicates_backup";
+
+    // Quantos processIds duplicados aparecem no log
+    private static final int MAX_LOGGED_DUPLICATES = 20;
+
+    private static final List<String> EXPECTED_INDEXES = List.of(
+            PROCESS_ID_INDEX_NAME, "userId_createdAt_id", "language_theme", TEXT_INDEX_NAME);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean dedupeOnStartup;
+
+    /**
+     * Resultado da remoção de duplicatas por processId
+     *
+     * @param processIds Quantidade de processIds que estavam duplicados
+     * @param removed Orações removidas (copiadas antes para o backup)
+     * @param indexCreated Indica se o índice único existe ao final
+     */
+    public record DedupeResult(int processIds, long removed, String backupCollection, boolean indexCreated) {
+    }
+
+    @Autowired
+    public MongoIndexVerifier(MongoTemplate mongoTemplate,
+            @Value("${app.mongodb.dedupe-process-ids-on-startup:false}") boolean dedupeOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.dedupeOnStartup = dedupeOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarIndices() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(PrayerContent.class);
+            if (dedupeOnStartup) {
+                deduplicarProcessId();
+            } else {
+                garantirIndiceProcessId(indexOps);
+            }
+            garantirIndicesConsulta(indexOps);
+            garantirIndiceTexto(indexOps);
+            garantirIndiceArquivos();
+
+            Set<String> existentes = indexOps.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+            List<String> ausentes = EXPECTED_INDEXES.stream()
+                    .filter(nome -> !existentes.contains(nome))
+                    .toList();
+
+            if (ausentes.isEmpty()) {
+                logger.info("Índices da coleção de orações verificados: {}", EXPECTED_INDEXES);
+            } else {
+                logger.warn("Índices ausentes na coleção de orações: {} (existentes: {})", ausentes, existentes);
+            }
+
+            verificarPlanos();
+        } catch (Exception e) {
+            logger.error("Falha ao verificar índices do MongoDB: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cria o índice único de processId se não houver duplicatas. Com
+     * duplicatas, apenas as informa: a inicialização nunca remove orações.
+     *
+     * @return Indica se o índice existe ao final
+     */
+    boolean garantirIndiceProcessId(IndexOperations indexOps) {
+        boolean existe = indexOps.getIndexInfo().stream()
+                .anyMatch(index -> PROCESS_ID_INDEX_NAME.equals(index.getName()) && index.isUnique());
+        if (existe) {
+            return true;
+        }
+
+        List<Document> duplicatas = encontrarDuplicatasProcessId();
+        if (!duplicatas.isEmpty()) {
+            List<Object> exemplos = duplicatas.stream()
+                    .limit(MAX_LOGGED_DUPLICATES)
+                    .map(grupo -> grupo.get("_id"))
+                    .toList();
+            logger.warn("Índice {} não criado: {} processIds com mais de uma oração (ex.: {}). "
+                    + "Remova as duplicatas com POST /config/indexes/process-id/dedupe", PROCESS_ID_INDEX_NAME,
+                    duplicatas.size(), exemplos);
+            return false;
+        }
+
+        indexOps.ensureIndex(new Index()
+                .on("processId", Sort.Direction.ASC)
+                .unique()
+                .sparse()
+                .named(PROCESS_ID_INDEX_NAME));
+        logger.info("Índice {} criado", PROCESS_ID_INDEX_NAME);
+        return true;
+    }
+
+    /**
+     * Remove as orações duplicadas por processId, mantendo a atualizada por
+     * último, e cria o índice único. As removidas são copiadas antes para
+     * prayer_duplicates_backup.
+     */
+    public DedupeResult deduplicarProcessId() {
+        MongoCollection<Document> collection = prayerCollection();
+        MongoCollection<Document> backup = mongoTemplate.getCollection(DUPLICATES_BACKUP_COLLECTION);
+        List<Document> duplicatas = encontrarDuplicatasProcessId();
+
+        long removidas = 0;
+        for (Document grupo : duplicatas) {
+            List<?> ids = grupo.getList("ids", Object.class);
+            List<?> descartados = ids.subList(1, ids.size());
+            List<Document> copias = new ArrayList<>();
+            for (Document oracao : collection.find(Filters.in("_id", descartados))) {
+                copias.add(new Document("processId", grupo.get("_id"))
+                        .append("keptId", ids.get(0))
+                        .append("backedUpAt", Instant.now())
+                        .append("prayer", oracao));
+            }
+            if (copias.size() != descartados.size()) {
+                logger.warn("processId {}: {} de {} duplicatas encontradas para backup, grupo ignorado",
+                        grupo.get("_id"), copias.size(), descartados.size());
+                continue;
+            }
+            backup.insertMany(copias);
+            removidas += collection.deleteMany(Filters.in("_id", descartados)).getDeletedCount();
+        }
+        if (removidas > 0) {
+            logger.warn("{} orações duplicadas por processId removidas (backup em {})", removidas,
+                    DUPLICATES_BACKUP_COLLECTION);
+        }
+
+        boolean indiceCriado = garantirIndiceProcessId(mongoTemplate.indexOps(PrayerContent.class));
+        return new DedupeResult(duplicatas.size(), removidas, DUPLICATES_BACKUP_COLLECTION, indiceCriado);
+    }
+
+    /**
+     * processIds com mais de uma oração; em cada grupo, ids começa pela
+     * atualizada por último
+     */
+    List<Document> encontrarDuplicatasProcessId() {
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.and(Filters.exists("processId"), Filters.ne("processId", null))),
+                Aggregates.sort(Sorts.orderBy(Sorts.ascending("processId"), Sorts.descending("updatedAt"),
+                        Sorts.descending("createdAt"))),
+                Aggregates.group("$processId", Accumulators.push("ids", "$_id"), Accumulators.sum("count", 1)),
+                Aggregates.match(Filters.gt("count", 1)));
+        return prayerCollection().aggregate(pipeline).allowDiskUse(true).into(new ArrayList<>());
+    }
+
+    /**
+     * Índices das listagens por usuário (paginação por createdAt e _id) e das
+     * consultas por idioma e tema
+     */
+    private void garantirIndicesConsulta(IndexOperations indexOps) {
+        indexOps.ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("userId_createdAt_id"));
+        indexOps.ensureIndex(new Index()
+                .on("language", Sort.Direction.ASC)
+                .on("theme", Sort.Direction.ASC)
+                .named("language_theme"));
+    }
+
+    private MongoCollection<Document> prayerCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(PrayerContent.class));
+    }
+
+    /**
+     * O idioma do documento não é usado como language override (valores como
+     * "es-MX" seriam rejeitados); o índice usa "none" para não aplicar stemming
+     * de um único idioma a um acervo multilíngue.
+     */
+    private void garantirIndiceTexto(IndexOperations indexOps) {
+        indexOps.ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .named(TEXT_INDEX_NAME)
+                .onField("title", 2F)
+                .onField("texto")
+                .withDefaultLanguage("none")
+                .withLanguageOverride("textLanguage")
+                .build());
+    }
+
+    /**
+     * Arquivos do GridFS são localizados por processo na importação e na limpeza
+     */
+    private void garantirIndiceArquivos() {
+        mongoTemplate.indexOps("fs.files").ensureIndex(new Index()
+                .on("metadata.processId", Sort.Direction.ASC)
+                .named("metadata_processId"));
+    }
+
+    /**
+     * Executa explain nas consultas usadas pelos repositórios e alerta se
+     * alguma delas cair em varredura completa da coleção
+     *
+     * @return Nomes das consultas que usam COLLSCAN
+     */
+    List<String> verificarPlanos() {
+        MongoCollection<Document> collection = prayerCollection();
+
+        Map<String, Bson[]> consultas = new LinkedHashMap<>();
+        consultas.put("processId", new Bson[] { Filters.eq("processId", "explain"), null });
+        consultas.put("userId+createdAt", new Bson[] { Filters.eq("userId", "explain"), Sorts.descending("createdAt") });
+        consultas.put("language+theme", new Bson[] { Filters.and(Filters.eq("language", "es"),
+                Filters.eq("theme", "explain")), null });
+        consultas.put("text", new Bson[] { Filters.text("explain"), null });
+
+        List<String> comCollscan = new ArrayList<>();
+        for (Map.Entry<String, Bson[]> consulta : consultas.entrySet()) {
+            var find = collection.find(consulta.getValue()[0]);
+            if (consulta.getValue()[1] != null) {
+                find = find.sort(consulta.getValue()[1]);
+            }
+            Document queryPlanner = find.explain().get("queryPlanner", Document.class);
+            Object winningPlan = queryPlanner != null ? queryPlanner.get("winningPlan") : null;
+            if (contemEstagio(winningPlan, "COLLSCAN")) {
+                logger.warn("Consulta por {} está usando COLLSCAN: {}", consulta.getKey(), winningPlan);
+                comCollscan.add(consulta.getKey());
+            } else {
+                logger.debug("Consulta por {} usa índice", consulta.getKey());
+            }
+        }
+        return comCollscan;
+    }
+
+    private boolean contemEstagio(Object node, String estagio) {
+        if (node instanceof Document document) {
+            if (estagio.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (contemEstagio(value, estagio)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                if (contemEstagio(value, estagio)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,11 @@
 package dev.luisoliveira.roteiro.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties(OpenAIRoutingProperties.class)
 public class OpenAIConfig {
 }
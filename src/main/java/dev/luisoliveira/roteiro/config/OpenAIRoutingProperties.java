@@ -0,0 +1,28 @@
+package dev.luisoliveira.roteiro.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabela de roteamento de modelos do OpenAI (openai.routing): modelo,
+ * temperatura e max_tokens por estágio (titles, oracao, short, correction,
+ * description), com exceções opcionais por idioma. Campos ausentes herdam do
+ * estágio e, por fim, de openai.model.
+ */
+@Data
+@ConfigurationProperties(prefix = "openai")
+public class OpenAIRoutingProperties {
+
+    private Map<String, StageRoute> routing = new HashMap<>();
+
+    @Data
+    public static class StageRoute {
+        private String model;
+        private Double temperature;
+        private Integer maxTokens;
+        private Map<String, StageRoute> languages = new HashMap<>(); // Exceções por idioma (ex.: pt, es-MX)
+    }
+}
@@ -1,9 +1,14 @@
 package dev.luisoliveira.roteiro.config;
 
+import dev.luisoliveira.roteiro.service.ProcessCancellationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
 /**
  * Configuração do RestTemplate para chamadas HTTP
  */
@@ -11,12 +16,22 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
     /**
-     * Cria e configura um bean RestTemplate para uso na aplicação
+     * Cria e configura um bean RestTemplate para uso na aplicação. Cada
+     * requisição recebe os timeouts do ProcessCancellationService (limitados
+     * ao prazo do processo, se houver) e a conexão é fechada se o processo
+     * for cancelado.
      * 
      * @return RestTemplate configurado
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ProcessCancellationService processCancellationService) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                processCancellationService.attach(connection);
+            }
+        };
+        return new RestTemplate(requestFactory);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package dev.luisoliveira.roteiro.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Habilita a execução de tarefas agendadas (limpeza de conteúdo expirado, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Scheduler da aplicação. Declarado explicitamente porque o broker do
+     * WebSocket registra o seu próprio TaskScheduler, o que desativa o da
+     * autoconfiguração (e spring.task.scheduling.pool.size).
+     */
+    @Bean(name = "taskScheduler")
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
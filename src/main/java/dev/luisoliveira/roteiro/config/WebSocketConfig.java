@@ -1,6 +1,9 @@
 package dev.luisoliveira.roteiro.config;
 
+import dev.luisoliveira.roteiro.config.security.WebSocketAuthInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,16 +11,27 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
- * Configuração do WebSocket para notificações em tempo real
+ * Configuração do WebSocket para notificações em tempo real.
+ *
+ * Destinos: /topic/notifications/{processId} (progresso e resultado de um
+ * processo), /user/queue/notifications (conclusões e erros dos processos do
+ * usuário autenticado no CONNECT) e /topic/admin/notifications (todas as
+ * conclusões e erros, apenas se app.notifications.admin-firehose estiver ativo).
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // Define os prefixos para os tópicos de destino
-        registry.enableSimpleBroker("/topic");
+        registry.enableSimpleBroker("/topic", "/queue");
+
+        // Prefixo dos destinos por usuário (convertAndSendToUser)
+        registry.setUserDestinationPrefix("/user");
 
         // Define o prefixo para endpoints que lidam com mensagens do cliente
         registry.setApplicationDestinationPrefixes("/app");
@@ -32,6 +46,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Resolve o usuário pelo JWT no CONNECT
+        registration.interceptors(webSocketAuthInterceptor);
+    }
+
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
         registration.setMessageSizeLimit(65536) // 64KB
@@ -0,0 +1,51 @@
+package dev.luisoliveira.roteiro.config.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Usuário autenticado da requisição atual e quem é administrador (e-mails
+ * listados em app.admin.emails)
+ */
+@Component
+public class AdminAccess {
+
+    private final Set<String> adminEmails;
+
+    public AdminAccess(@Value("${app.admin.emails:}") String adminEmails) {
+        this.adminEmails = Arrays.stream(adminEmails.split(","))
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+    }
+
+    public boolean isAdminEmail(String email) {
+        return email != null && adminEmails.contains(email.toLowerCase());
+    }
+
+    /**
+     * Usuário autenticado da requisição atual, se houver
+     */
+    public Optional<UserPrincipal> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return Optional.of(userPrincipal);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Indica se o usuário da requisição atual é administrador
+     */
+    public boolean isCurrentUserAdmin() {
+        return currentUser().map(user -> isAdminEmail(user.getEmail())).orElse(false);
+    }
+}
@@ -1,8 +1,7 @@
 package dev.luisoliveira.roteiro.config.security;
 
 
-import dev.luisoliveira.roteiro.model.User;
-import dev.luisoliveira.roteiro.repository.UserRepository;
+import dev.luisoliveira.roteiro.service.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,23 +9,27 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.Optional;
 
+/**
+ * Autentica a requisição pelo JWT do cabeçalho Authorization. O token é
+ * verificado uma única vez (com cache dos já verificados no JwtTokenUtil) e o
+ * usuário vem do cache de curta duração do CustomUserDetailsService, de modo
+ * que requisições com um token já visto não consultam o MongoDB.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserRepository userRepository;
+    private final CustomUserDetailsService customUserDetailsService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -34,36 +37,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwt = null;
+        // Verificar token apenas se o usuário ainda não está autenticado
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String email = jwtTokenUtil.verifyAndGetSubject(authorizationHeader.substring(7));
 
-        // Extrair token do cabeçalho
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                email = jwtTokenUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                log.error("Erro ao extrair usuário do token", e);
-            }
-        }
-
-        // Verificar se o usuário ainda não está autenticado
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            Optional<User> userOptional = userRepository.findByEmail(email);
-
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
+            if (email != null) {
+                Optional<UserPrincipal> principal = customUserDetailsService.findCachedByEmail(email);
 
-                // Validar token
-                if (jwtTokenUtil.validateToken(jwt, user.getEmail())) {
+                if (principal.isPresent()) {
+                    // O principal é o UserPrincipal, como esperado pelos controllers
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            user, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+                            principal.get(), null, principal.get().getAuthorities());
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("Usuário autenticado: {}", user.getEmail());
+                    log.debug("Usuário autenticado: {}", email);
                 }
+            } else {
+                log.debug("Token JWT inválido ou expirado");
             }
         }
 
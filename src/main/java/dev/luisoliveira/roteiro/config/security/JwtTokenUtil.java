@@ -2,19 +2,35 @@ package dev.luisoliveira.roteiro.config.security;
 
 import dev.luisoliveira.roteiro.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Geração e verificação de JWT.
+ *
+ * A chave e o parser são criados uma única vez. Tokens já verificados ficam em
+ * um cache limitado (app.security.token-cache-size), indexado pelo hash
+ * SHA-256 do token e válido até a expiração do token: requisições seguintes
+ * com o mesmo token não refazem o parse nem a verificação da assinatura.
+ */
 @Component
 public class JwtTokenUtil {
 
@@ -24,9 +40,61 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${app.security.token-cache-size:10000}")
+    private int tokenCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    // Token já verificado: subject e expiração (epoch em ms)
+    private record VerifiedToken(String subject, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    /**
+     * Verifica o token (assinatura e expiração) com um único parse e retorna o
+     * subject (e-mail do usuário)
+     *
+     * @return E-mail do usuário, ou null se o token for inválido ou estiver expirado
+     */
+    public String verifyAndGetSubject(String token) {
+        long now = System.currentTimeMillis();
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.subject();
+            }
+            verifiedTokens.remove(key, cached);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiresAt = claims.getExpiration();
+        if (claims.getSubject() == null || expiresAt == null || !expiresAt.after(new Date(now))) {
+            return null;
+        }
+
+        if (verifiedTokens.size() >= tokenCacheSize) {
+            evictTokens(now);
+        }
+        verifiedTokens.put(key, new VerifiedToken(claims.getSubject(), expiresAt.getTime()));
+        return claims.getSubject();
     }
 
     public String generateToken(User user) {
@@ -53,8 +121,8 @@ public class JwtTokenUtil {
     }
 
     public Boolean validateToken(String token, String email) {
-        final String username = extractUsername(token);
-        return (username.equals(email) && !isTokenExpired(token));
+        final String username = verifyAndGetSubject(token);
+        return username != null && username.equals(email);
     }
 
     public String extractUsername(String token) {
@@ -71,14 +139,32 @@ public class JwtTokenUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Remove os tokens expirados e, se o cache continuar cheio, descarta uma
+     * parte das entradas (elas são apenas verificadas de novo no próximo uso)
+     */
+    private synchronized void evictTokens(long now) {
+        if (verifiedTokens.size() < tokenCacheSize) {
+            return;
+        }
+        verifiedTokens.values().removeIf(token -> token.expiresAt() <= now);
+        int target = (int) (tokenCacheSize * 0.9);
+        Iterator<String> iterator = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
-}
\ No newline at end of file
+}
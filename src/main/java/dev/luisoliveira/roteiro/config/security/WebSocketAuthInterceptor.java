@@ -0,0 +1,97 @@
+package dev.luisoliveira.roteiro.config.security;
+
+import dev.luisoliveira.roteiro.service.CustomUserDetailsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Autentica as sessões STOMP pelo JWT enviado no cabeçalho Authorization do
+ * CONNECT. O nome do principal da sessão é o ID do usuário (o mesmo de
+ * UserPrincipal.getName() e do userId dos processos), o que permite entregar
+ * notificações com convertAndSendToUser.
+ *
+ * Conexões sem token continuam aceitas, mas só recebem os tópicos de processo.
+ * O tópico administrativo (/topic/admin/**) só aceita os e-mails listados
+ * em app.admin.emails. Assinaturas com curingas são recusadas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final String ADMIN_DESTINATION_PREFIX = "/topic/admin/";
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final AdminAccess adminAccess;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor.getFirstNativeHeader("Authorization")).ifPresent(accessor::setUser);
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && !canSubscribe(accessor.getDestination(), accessor.getUser())) {
+            log.warn("[WS] Assinatura de {} recusada para {}", accessor.getDestination(),
+                    accessor.getUser() != null ? accessor.getUser().getName() : "sessão anônima");
+            throw new MessageDeliveryException("Acesso negado a " + accessor.getDestination());
+        }
+        return message;
+    }
+
+    /**
+     * O broker simples aceita padrões Ant na assinatura (/topic/**), que
+     * receberiam o tópico administrativo e os tópicos de todos os processos:
+     * só destinos literais são aceitos
+     */
+    static boolean canSubscribe(String destination, Principal user) {
+        if (destination == null || destination.isBlank()) {
+            return false;
+        }
+        if (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0) {
+            return false;
+        }
+        return !destination.startsWith(ADMIN_DESTINATION_PREFIX) || isAdmin(user);
+    }
+
+    private Optional<Principal> authenticate(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+        String email = jwtTokenUtil.verifyAndGetSubject(authorizationHeader.substring(7));
+        if (email == null) {
+            log.warn("[WS] Token inválido ou expirado no CONNECT");
+            return Optional.empty();
+        }
+        Optional<UserPrincipal> principal = customUserDetailsService.findCachedByEmail(email);
+        principal.ifPresent(user -> log.debug("[WS] Sessão STOMP autenticada: {}", email));
+        return principal.map(user -> new StompUser(user.getName(), adminAccess.isAdminEmail(email)));
+    }
+
+    private static boolean isAdmin(Principal principal) {
+        return principal instanceof StompUser user && user.admin();
+    }
+
+    // Principal das sessões STOMP autenticadas
+    private record StompUser(String userId, boolean admin) implements Principal {
+        @Override
+        public String getName() {
+            return userId;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.luisoliveira.roteiro.controller;
 
+import dev.luisoliveira.roteiro.config.security.AdminAccess;
 import dev.luisoliveira.roteiro.config.security.UserPrincipal;
 import dev.luisoliveira.roteiro.dto.GenerationRequest;
 import dev.luisoliveira.roteiro.dto.GenerationResponse;
@@ -7,32 +8,39 @@ import dev.luisoliveira.roteiro.dto.ProcessStatus;
 import dev.luisoliveira.roteiro.dto.TitleSelectionRequest;
 import dev.luisoliveira.roteiro.event.ContentInitiatedEvent;
 import dev.luisoliveira.roteiro.event.TitleSelectedEvent;
-import dev.luisoliveira.roteiro.model.PrayerContent;
-import dev.luisoliveira.roteiro.repository.PrayerContentRepository;
 import dev.luisoliveira.roteiro.service.ContentCompilationService;
+import dev.luisoliveira.roteiro.service.BlobStore;
+import dev.luisoliveira.roteiro.service.ContentExportService;
 import dev.luisoliveira.roteiro.service.EventBusService;
+import dev.luisoliveira.roteiro.service.GenerationAdmissionService;
+import dev.luisoliveira.roteiro.service.PipelineScheduler;
+import dev.luisoliveira.roteiro.service.ProcessCancellationService;
 import dev.luisoliveira.roteiro.service.ProcessTrackingService;
+import dev.luisoliveira.roteiro.service.StatusStreamService;
 import dev.luisoliveira.roteiro.dto.ProcessStatusResponse;
 import dev.luisoliveira.roteiro.dto.TitleCompletionRequest;
 import dev.luisoliveira.roteiro.service.FileStorageService;
 
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.format.annotation.DateTimeFormat;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
 import java.util.UUID;
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -50,11 +58,16 @@ public class ContentGenerationController {
     private final ProcessTrackingService processTrackingService;
     private final ContentCompilationService contentCompilationService;
     private final MongoTemplate mongoTemplate;
-    private final PrayerContentRepository prayerContentRepository;
     private final FileStorageService fileStorageService;
+    private final ContentExportService contentExportService;
+    private final StatusStreamService statusStreamService;
+    private final GenerationAdmissionService generationAdmissionService;
+    private final PipelineScheduler pipelineScheduler;
+    private final AdminAccess adminAccess;
 
     @PostMapping("/generate")
-    public ResponseEntity<GenerationResponse> startGeneration(@RequestBody GenerationRequest request) {
+    public ResponseEntity<GenerationResponse> startGeneration(@RequestBody GenerationRequest request,
+            HttpServletRequest httpRequest) {
         String processId = UUID.randomUUID().toString();
 
         // Obter o usuário autenticado
@@ -69,31 +82,41 @@ public class ContentGenerationController {
             log.info("Processo iniciado sem usuário autenticado");
         }
 
+        // Controle de admissão por usuário (ou por IP, sem usuário)
+        String admissionKey = userId != null ? userId : "ip:" + httpRequest.getRemoteAddr();
+        GenerationAdmissionService.Admission admission = generationAdmissionService.tryAdmit(admissionKey, processId);
+        if (!admission.allowed()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()))
+                    .body(new GenerationResponse(null, admission.reason()));
+        }
+
+        // Fila de prioridade das etapas do processo, com fair queuing pelo mesmo usuário da admissão
+        PipelineScheduler.Lane lane = PipelineScheduler.Lane.from(request.getPrioridade());
+        pipelineScheduler.register(processId, admissionKey, lane);
+
         log.info(
-                "[PROCESSO] Iniciando processo de geração com ID: {} (idioma: {}, título: {}, gerarVersaoShort: {}, gerarAudio: {})",
+                "[PROCESSO] Iniciando processo de geração com ID: {} (idioma: {}, título: {}, gerarVersaoShort: {}, gerarAudio: {}, fila: {})",
                 processId,
                 request.getIdioma() != null ? request.getIdioma() : "es (padrão)",
                 request.getTitulo() != null ? "fornecido" : "não fornecido",
                 request.getGerarVersaoShort(),
-                request.getGerarAudio());
-
-        // Inicializar status
-        processTrackingService.initializeProcess(processId);
+                request.getGerarAudio(),
+                lane);
+
+        // Inicializar status; com o registro cheio de processos em andamento, o processo é recusado
+        if (!processTrackingService.initializeProcess(processId)) {
+            generationAdmissionService.release(processId);
+            pipelineScheduler.forget(processId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(new GenerationResponse(null, "Servidor no limite de processos em andamento"));
+        }
 
         // Armazenar o userId no processo
         if (userId != null) {
             processTrackingService.setUserId(processId, userId);
         }
-        log.info(
-                "[PROCESSO] Iniciando processo de geração com ID: {} (idioma: {}, título: {}, gerarVersaoShort: {}, gerarAudio: {})",
-                processId,
-                request.getIdioma() != null ? request.getIdioma() : "es (padrão)",
-                request.getTitulo() != null ? "fornecido" : "não fornecido",
-                request.getGerarVersaoShort(),
-                request.getGerarAudio());
-
-        // Inicializar status
-        processTrackingService.initializeProcess(processId);
         log.debug("[PROCESSO] Status inicializado para processo: {}", processId);
 
         // Verificar e configurar idioma padrão se necessário
@@ -367,33 +390,34 @@ public class ContentGenerationController {
 
 
     @GetMapping("/download/{processId}/{filename}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String processId, @PathVariable String filename) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(@PathVariable String processId,
+            @PathVariable String filename) {
         log.info("Iniciando download do arquivo {} do processo {}", filename, processId);
 
         try {
-            // Buscar o arquivo no MongoDB
-            byte[] fileData = fileStorageService.getBinaryFile(filename);
+            // Aceita o ID do arquivo ou o nome com que foi gravado para o processo
+            Optional<BlobStore.BlobInfo> file = fileStorageService.findProcessFile(processId, filename);
 
-            if (fileData == null) {
+            if (file.isEmpty()) {
                 log.error("Arquivo não encontrado: {}", filename);
                 return ResponseEntity.notFound().build();
             }
 
-            // Criar o recurso para download
-            ByteArrayResource resource = new ByteArrayResource(fileData);
-
-            // Determinar o tipo de conteúdo baseado na extensão do arquivo
-            String contentType = determineContentType(filename);
+            BlobStore.BlobInfo info = file.get();
+            String downloadName = info.filename() != null ? info.filename() : filename;
+            String contentType = info.contentType() != null ? info.contentType() : determineContentType(downloadName);
 
             // Configurar os headers para download
             HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + downloadName + "\"");
             headers.setContentType(MediaType.parseMediaType(contentType));
-            headers.setContentLength(fileData.length);
+            headers.setContentLength(info.length());
 
+            // O conteúdo é copiado direto do armazenamento para a resposta
+            StreamingResponseBody body = out -> fileStorageService.transferTo(info.id(), out);
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(resource);
+                    .body(body);
 
         } catch (Exception e) {
             log.error("Erro ao baixar arquivo {}: {}", filename, e.getMessage(), e);
@@ -401,6 +425,78 @@ public class ContentGenerationController {
         }
     }
 
+    /**
+     * Exporta todos os artefatos de um processo (texto, SRTs, áudios) em um ZIP
+     * gerado sob demanda, sem carregar os arquivos em memória. Somente o dono
+     * do processo ou administradores (app.admin.emails).
+     */
+    @GetMapping("/export/{processId}.zip")
+    public ResponseEntity<StreamingResponseBody> exportProcess(@PathVariable String processId) {
+        Optional<UserPrincipal> currentUser = adminAccess.currentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("[EXPORT] Iniciando export do processo {}", processId);
+
+        if (!contentExportService.exists(processId)) {
+            log.warn("[EXPORT] Processo não encontrado para export: {}", processId);
+            return ResponseEntity.notFound().build();
+        }
+
+        // Dono pela oração gravada ou, antes dela, pelo processo em andamento
+        String ownerId = contentExportService.findOwnerId(processId);
+        if (ownerId == null) {
+            ownerId = processTrackingService.getUserId(processId);
+        }
+        String currentUserId = String.valueOf(currentUser.get().getId());
+        if (!currentUserId.equals(ownerId) && !adminAccess.isAdminEmail(currentUser.get().getEmail())) {
+            log.warn("[EXPORT] Export do processo {} recusado para o usuário {}", processId, currentUserId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        StreamingResponseBody body = out -> contentExportService.exportProcess(processId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + processId + ".zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Exporta em um único ZIP as orações do usuário autenticado, opcionalmente
+     * limitadas a um intervalo de datas (createdAt em [from, to)).
+     * Administradores (app.admin.emails) podem exportar as de outro usuário
+     * ou, sem userId, as de todos os usuários no intervalo.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBulk(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Optional<UserPrincipal> currentUser = adminAccess.currentUser();
+        if (currentUser.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String currentUserId = String.valueOf(currentUser.get().getId());
+        boolean admin = adminAccess.isAdminEmail(currentUser.get().getEmail());
+
+        String exportUserId = userId != null ? userId : (admin ? null : currentUserId);
+        if (!admin && !currentUserId.equals(exportUserId)) {
+            log.warn("[EXPORT] Export das orações de {} recusado para o usuário {}", userId, currentUserId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (exportUserId == null && from == null && to == null) {
+            log.warn("[EXPORT] Export em lote sem filtros recusado");
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("[EXPORT] Iniciando export em lote (usuário: {}, de: {}, até: {})", exportUserId, from, to);
+
+        StreamingResponseBody body = out -> contentExportService.exportBulk(exportUserId, from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"oracoes.zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
     private String determineContentType(String filename) {
         String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
         switch (extension) {
@@ -426,65 +522,116 @@ public class ContentGenerationController {
         log.debug("Verificando status do processo: {}", processId);
 
         try {
-            // Primeiro, tentar obter o status do ProcessTrackingService
-            ProcessStatus processStatus = processTrackingService.getStatus(processId);
-
-            if (processStatus != null) {
-                // Criar resposta com o status do processo
-                ProcessStatusResponse response = new ProcessStatusResponse();
-                response.setProcessId(processId);
-                response.setStatus(processStatus.getCurrentStage());
-                response.setProgress(processStatus.getProgressPercentage());
-                response.setMessage("Processo em andamento: " + processStatus.getCurrentStage());
-                response.setTimestamp(processStatus.getLastUpdated());
-
-                // Se o processo estiver concluído, adicionar os IDs de conteúdo e áudio
-                if (processStatus.isCompleted()) {
-                    response.setContentId(processStatus.getResultPath());
-                    response.setAudioId(processTrackingService.getFullAudioId(processId));
-                    response.setMessage("Processo concluído");
-                }
-
-                // Log apenas para mudanças significativas de status
-                if (processStatus.getProgressPercentage() % 10 == 0) {
-                    log.info("Status do processo {}: {}, progresso: {}",
-                            processId,
-                            response.getStatus(),
-                            response.getProgress());
-                }
-
-                return ResponseEntity.ok(response);
+            ProcessStatusResponse response = buildStatusResponse(processId);
+            if (response == null) {
+                // Se não encontrou em nenhum lugar, retornar 404
+                log.warn("Processo não encontrado: {}", processId);
+                return ResponseEntity.notFound().build();
             }
 
-            // Se não encontrou no ProcessTrackingService, tentar buscar no MongoDB
-            List<PrayerContent> documents = prayerContentRepository.findByProcessId(processId);
-
-            if (!documents.isEmpty()) {
-                PrayerContent document = documents.get(0);
+            // Log apenas para mudanças significativas de status
+            if (response.getProgress() % 10 == 0) {
+                log.info("Status do processo {}: {}, progresso: {}",
+                        processId,
+                        response.getStatus(),
+                        response.getProgress());
+            }
 
-                // Criar resposta com o status do processo
-                ProcessStatusResponse response = new ProcessStatusResponse();
-                response.setProcessId(processId);
-                response.setStatus("COMPLETED"); // Valor padrão para documentos no MongoDB
-                response.setProgress(100); // Valor padrão para documentos no MongoDB
-                response.setMessage("Processo concluído");
-                response.setTimestamp(document.getCreatedAt());
-                response.setContentId(String.valueOf(document.getId()));
-                response.setAudioId(document.getAudioUrl());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Erro ao verificar status do processo: {}", processId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 
-                // Log apenas uma vez por sessão para cada processo
-                log.debug("Status do processo {} (via MongoDB): COMPLETED, progresso: 100", processId);
+    /**
+     * Stream SSE do status do processo, para clientes que não usam WebSocket.
+     * Envia o estado atual ("status"), as atualizações de progresso
+     * ("progress") e o resultado final ("result"), e então encerra.
+     */
+    @GetMapping(value = "/status/{processId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable String processId) {
+        log.debug("Nova assinatura SSE do processo: {}", processId);
+
+        // Assina antes de consultar o status, para não perder eventos entre as duas etapas
+        SseEmitter emitter = statusStreamService.subscribe(processId);
+        ProcessStatusResponse response = buildStatusResponse(processId);
+        if (response == null) {
+            emitter.complete();
+            log.warn("Processo não encontrado para stream: {}", processId);
+            return ResponseEntity.notFound().build();
+        }
 
-                return ResponseEntity.ok(response);
-            }
+        boolean finished = response.getContentId() != null
+                || (response.getStatus() != null
+                        && (response.getStatus().startsWith("Erro") || response.getStatus().equals("Cancelado")));
+        statusStreamService.sendSnapshot(emitter, response, finished);
+        return ResponseEntity.ok(emitter);
+    }
 
-            // Se não encontrou em nenhum lugar, retornar 404
-            log.warn("Processo não encontrado: {}", processId);
+    /**
+     * Cancela um processo em andamento: as próximas etapas não são executadas
+     * e as chamadas aos provedores em andamento são abortadas. Responde com o
+     * gasto desperdiçado (chamadas, unidades e tempo por provedor).
+     */
+    @DeleteMapping("/{processId}")
+    public ResponseEntity<Map<String, Object>> cancelProcess(@PathVariable String processId) {
+        ProcessStatus processStatus = processTrackingService.getStatus(processId);
+        if (processStatus == null) {
+            log.warn("[PROCESSO] Processo não encontrado para cancelamento: {}", processId);
             return ResponseEntity.notFound().build();
+        }
 
-        } catch (Exception e) {
-            log.error("Erro ao verificar status do processo: {}", processId, e);
-            return ResponseEntity.internalServerError().build();
+        // Processos de um usuário só podem ser cancelados por ele
+        String ownerId = processTrackingService.getUserId(processId);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (ownerId != null && (authentication == null
+                || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)
+                || !ownerId.equals(String.valueOf(userPrincipal.getId())))) {
+            log.warn("[PROCESSO] Cancelamento do processo {} recusado: usuário não é o dono", processId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        ProcessCancellationService.CancellationReport report = processTrackingService.cancel(processId);
+        Map<String, Object> body = new HashMap<>();
+        body.put("processId", processId);
+        if (report == null) {
+            body.put("message", "Processo já finalizado ou em execução em outra instância: "
+                    + processStatus.getCurrentStage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+
+        body.put("message", "Processo cancelado");
+        body.put("threadTimeMs", report.threadTimeMs());
+        body.put("wastedSpend", report.providers());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Monta o status do processo a partir do ProcessTrackingService, que
+     * também reconstrói processos que já saíram do registro em memória
+     *
+     * @return Status do processo, ou null se não encontrado
+     */
+    private ProcessStatusResponse buildStatusResponse(String processId) {
+        ProcessStatus processStatus = processTrackingService.getStatus(processId);
+        if (processStatus == null) {
+            return null;
+        }
+
+        ProcessStatusResponse response = new ProcessStatusResponse();
+        response.setProcessId(processId);
+        response.setStatus(processStatus.getCurrentStage());
+        response.setProgress(processStatus.getProgressPercentage());
+        response.setMessage("Processo em andamento: " + processStatus.getCurrentStage());
+        response.setTimestamp(processStatus.getLastUpdated());
+
+        // Se o processo estiver concluído, adicionar os IDs de conteúdo e áudio
+        if (processStatus.isCompleted()) {
+            response.setContentId(processStatus.getResultPath());
+            response.setAudioId(processTrackingService.getFullAudioId(processId));
+            response.setMessage("Processo concluído");
         }
+        return response;
     }
-}
\ No newline at end of file
+}
@@ -346,6 +346,25 @@ public class DocumentationController {
                                             </div>
                                         </div>
 
+                                        <div class="endpoint">
+                                            <span class="method delete">DELETE</span>
+                                            <span class="path">/content/{processId}</span>
+                                            <div class="description">
+                                                Cancela um processo em andamento. As próximas etapas não são executadas e as chamadas aos provedores em andamento são abortadas.
+                                            </div>
+                                            <div class="response">
+                                                <h4>Resposta:</h4>
+                                                <pre>{
+                  "processId": "550e8400-e29b-41d4-a716-446655440000",
+                  "message": "Processo cancelado",
+                  "threadTimeMs": 18250,
+                  "wastedSpend": {
+                    "openai": {"unit": "tokens", "calls": 2, "abortedCalls": 1, "elapsedMs": 17900, "units": 1840}
+                  }
+                }</pre>
+                                            </div>
+                                        </div>
+
                                         <div class="endpoint">
                                             <span class="method post">POST</span>
                                             <span class="path">/content/select-title</span>
@@ -514,7 +533,8 @@ public class DocumentationController {
                                                 </p>
                                                 <ul>
                                                     <li><code>/topic/process/{processId}</code> - Atualizações específicas de um processo</li>
-                                                    <li><code>/topic/notifications</code> - Notificações gerais do sistema</li>
+                                                    <li><code>/user/queue/notifications</code> - Conclusões e erros dos processos do usuário (requer o JWT no cabeçalho <code>Authorization</code> do CONNECT)</li>
+                                                    <li><code>/topic/admin/notifications</code> - Todas as conclusões e erros (somente administradores, se habilitado)</li>
                                                 </ul>
                                             </div>
                                         </div>
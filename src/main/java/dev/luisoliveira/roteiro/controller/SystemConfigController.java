@@ -1,16 +1,31 @@
 package dev.luisoliveira.roteiro.controller;
 
+import dev.luisoliveira.roteiro.config.MongoIndexVerifier;
+import dev.luisoliveira.roteiro.config.security.AdminAccess;
 import dev.luisoliveira.roteiro.dto.SystemConfigDto;
+import dev.luisoliveira.roteiro.service.ContentAnalyticsService;
+import dev.luisoliveira.roteiro.service.GenerationAdmissionService;
+import dev.luisoliveira.roteiro.service.GeradosImportService;
+import dev.luisoliveira.roteiro.service.LanguageDetector;
+import dev.luisoliveira.roteiro.service.ModelRouter;
+import dev.luisoliveira.roteiro.service.OpenAIService;
+import dev.luisoliveira.roteiro.service.PipelineScheduler;
+import dev.luisoliveira.roteiro.service.ProcessCancellationService;
+import dev.luisoliveira.roteiro.service.ProcessTrackingService;
+import dev.luisoliveira.roteiro.service.PromptTemplateService;
 import dev.luisoliveira.roteiro.service.SystemConfigService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.File;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +39,18 @@ import java.util.Map;
 public class SystemConfigController {
 
     private final SystemConfigService systemConfigService;
+    private final GeradosImportService geradosImportService;
+    private final ProcessTrackingService processTrackingService;
+    private final ContentAnalyticsService contentAnalyticsService;
+    private final GenerationAdmissionService generationAdmissionService;
+    private final PipelineScheduler pipelineScheduler;
+    private final ProcessCancellationService processCancellationService;
+    private final ModelRouter modelRouter;
+    private final OpenAIService openAIService;
+    private final PromptTemplateService promptTemplateService;
+    private final LanguageDetector languageDetector;
+    private final AdminAccess adminAccess;
+    private final MongoIndexVerifier mongoIndexVerifier;
 
     /**
      * Obtém as configurações atuais do sistema
@@ -87,6 +114,10 @@ public class SystemConfigController {
         try {
             Map<String, Object> result = systemConfigService.listDirectories(path);
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.warn("Listagem de diretórios recusada: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Erro ao listar diretórios: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -147,4 +178,179 @@ public class SystemConfigController {
     public ResponseEntity<Map<String, Object>> createDirectoryAlternative(@RequestBody Map<String, String> request) {
         return createDirectory(request); // Redireciona para o método principal
     }
-}
\ No newline at end of file
+
+    /**
+     * Inicia a importação do acervo em disco (gerados/) para o MongoDB.
+     * A importação roda em segundo plano e pode ser repetida: itens já importados são ignorados.
+     *
+     * Somente administradores.
+     *
+     * @return 202 se iniciada, 409 se já houver uma importação em andamento ou
+     *         403 se o usuário não for administrador
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> startImport() {
+        if (!adminAccess.isCurrentUserAdmin()) {
+            log.warn("[IMPORTAÇÃO] Importação recusada: usuário não é administrador");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Collections.singletonMap("error", "Apenas administradores podem iniciar a importação"));
+        }
+        log.info("Solicitação de importação do acervo gerados/");
+        Map<String, Object> result = new HashMap<>();
+        if (!geradosImportService.startImport()) {
+            result.put("running", true);
+            result.put("error", "Já existe uma importação em andamento");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        result.put("running", true);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    /**
+     * Retorna o estado e o relatório da última importação
+     */
+    @GetMapping("/import")
+    public ResponseEntity<Map<String, Object>> getImportStatus() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("running", geradosImportService.isRunning());
+        result.put("lastReport", geradosImportService.getLastReport());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Estatísticas dos processos desta instância (por estágio, concluídos,
+     * ativos e contagens da última hora e das últimas 24 horas)
+     */
+    @GetMapping("/events/stats")
+    public ResponseEntity<Map<String, Object>> getEventStatistics() {
+        return ResponseEntity.ok(processTrackingService.getEventStatistics());
+    }
+
+    /**
+     * Percentis (p50/p95/p99) da duração de cada estágio do pipeline por
+     * idioma, modelo e duração, calculados pelo MongoDB
+     */
+    @GetMapping("/analytics/stages")
+    public ResponseEntity<List<Map<String, Object>>> getStageLatency(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String language) {
+        return ResponseEntity.ok(contentAnalyticsService.getStageLatency(from, to, language));
+    }
+
+    /**
+     * Limites atuais de admissão de gerações por usuário
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<GenerationAdmissionService.Limits> getAdmissionLimits() {
+        return ResponseEntity.ok(generationAdmissionService.getLimits());
+    }
+
+    /**
+     * Altera os limites de admissão em tempo de execução (somente
+     * administradores, app.admin.emails)
+     *
+     * @return Limites aplicados, 400 se algum valor for inválido ou 403 se o
+     *         usuário não for administrador
+     */
+    @PutMapping("/admission")
+    public ResponseEntity<?> updateAdmissionLimits(@RequestBody GenerationAdmissionService.Limits limits) {
+        if (!adminAccess.isCurrentUserAdmin()) {
+            log.warn("[ADMISSÃO] Alteração de limites recusada: usuário não é administrador");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Collections.singletonMap("error", "Apenas administradores podem alterar os limites"));
+        }
+        try {
+            return ResponseEntity.ok(generationAdmissionService.setLimits(limits));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Filas do agendador do pipeline: jobs pendentes, usuários ativos e espera
+     * média por prioridade
+     */
+    @GetMapping("/scheduler")
+    public ResponseEntity<Map<String, Object>> getSchedulerStats() {
+        return ResponseEntity.ok(pipelineScheduler.getStats());
+    }
+
+    /**
+     * Gasto desperdiçado pelos processos cancelados (chamadas, unidades e
+     * tempo por provedor, e tempo de thread)
+     */
+    @GetMapping("/cancellations")
+    public ResponseEntity<Map<String, Object>> getCancellationStats() {
+        return ResponseEntity.ok(processCancellationService.getStats());
+    }
+
+    /**
+     * Tabela de roteamento de modelos do OpenAI por estágio
+     */
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> getModelRouting() {
+        return ResponseEntity.ok(modelRouter.describe());
+    }
+
+    /**
+     * Estado dos provedores do OpenAI: circuit breakers, limiares de hedge
+     * por estágio, contadores de hedge/failover e tokens do prompt em cache
+     */
+    @GetMapping("/openai")
+    public ResponseEntity<Map<String, Object>> getOpenAIProviders() {
+        return ResponseEntity.ok(openAIService.getProviderStats());
+    }
+
+    /**
+     * Templates de prompt em uso (origem, slots) e erros do último carregamento
+     */
+    @GetMapping("/prompts")
+    public ResponseEntity<Map<String, Object>> getPromptTemplates() {
+        return ResponseEntity.ok(promptTemplateService.describe());
+    }
+
+    /**
+     * Recarrega os templates de prompt do classpath e da coleção prompt_templates.
+     * Somente administradores.
+     *
+     * @return Templates carregados ou 403 se o usuário não for administrador
+     */
+    @PostMapping("/prompts/reload")
+    public ResponseEntity<?> reloadPromptTemplates() {
+        if (!adminAccess.isCurrentUserAdmin()) {
+            log.warn("[PROMPTS] Recarga de templates recusada: usuário não é administrador");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Collections.singletonMap("error", "Apenas administradores podem recarregar os templates"));
+        }
+        log.info("Recarregando templates de prompt");
+        return ResponseEntity.ok(promptTemplateService.reload());
+    }
+
+    /**
+     * Verificações de idioma do texto gerado e quantas ficaram abaixo do limiar
+     * (e foram geradas de novo), por estágio
+     */
+    @GetMapping("/language-detection")
+    public ResponseEntity<Map<String, Object>> getLanguageDetectionStats() {
+        return ResponseEntity.ok(languageDetector.getStats());
+    }
+
+    /**
+     * Remove as orações duplicadas por processId (fica a atualizada por
+     * último; as demais são copiadas para prayer_duplicates_backup) e cria o
+     * índice único processId_unique. Somente administradores.
+     *
+     * @return Resultado da remoção ou 403 se o usuário não for administrador
+     */
+    @PostMapping("/indexes/process-id/dedupe")
+    public ResponseEntity<?> dedupeProcessIds() {
+        if (!adminAccess.isCurrentUserAdmin()) {
+            log.warn("[ÍNDICES] Remoção de duplicatas recusada: usuário não é administrador");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Collections.singletonMap("error", "Apenas administradores podem remover duplicatas"));
+        }
+        log.info("[ÍNDICES] Removendo orações duplicadas por processId");
+        return ResponseEntity.ok(mongoIndexVerifier.deduplicarProcessId());
+    }
+}
@@ -1,15 +1,16 @@
 package dev.luisoliveira.roteiro.controller;
 
 import dev.luisoliveira.roteiro.config.security.UserPrincipal;
+import dev.luisoliveira.roteiro.dto.PrayerPage;
 import dev.luisoliveira.roteiro.model.PrayerContent;
-import dev.luisoliveira.roteiro.repository.PrayerContentRepository;
+import dev.luisoliveira.roteiro.service.UserPrayerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/user")
@@ -17,22 +18,51 @@ import java.util.List;
 public class UserContentController {
 
     @Autowired
-    private PrayerContentRepository prayerContentRepository;
+    private UserPrayerService userPrayerService;
 
+    /**
+     * Lista as orações do usuário em páginas de resumos (sem texto completo).
+     * Para a próxima página, envie o nextCursor recebido em "cursor".
+     */
     @GetMapping("/prayers")
-    public ResponseEntity<List<PrayerContent>> getUserPrayers() {
+    public ResponseEntity<PrayerPage> getUserPrayers(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        String userId = getAuthenticatedUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        try {
+            return ResponseEntity.ok(userPrayerService.listPrayers(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Retorna a oração completa (texto, short e descrição)
+     */
+    @GetMapping("/prayers/{id}")
+    public ResponseEntity<PrayerContent> getUserPrayer(@PathVariable UUID id) {
+        String userId = getAuthenticatedUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return userPrayerService.getPrayer(userId, id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private String getAuthenticatedUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated() ||
                 authentication.getPrincipal().equals("anonymousUser")) {
-            return ResponseEntity.status(401).build();
+            return null;
         }
 
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        String userId = String.valueOf(userPrincipal.getId());
-
-        List<PrayerContent> userPrayers = prayerContentRepository.findByUserIdOrderByCreatedAtDesc(userId);
-
-        return ResponseEntity.ok(userPrayers);
+        return String.valueOf(userPrincipal.getId());
     }
-}
\ No newline at end of file
+}
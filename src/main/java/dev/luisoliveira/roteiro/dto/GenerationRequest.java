@@ -13,4 +13,5 @@ public class GenerationRequest {
     private String observacoes;
     private Boolean gerarVersaoShort = null;
     private Boolean gerarAudio = null;
+    private String prioridade; // interactive (padrão), bulk ou backfill
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ public class NotificationMessage {
     private String message;
     private Object data; // Dados adicionais (pode ser o caminho do resultado, porcentagem de progresso, etc.)
     private LocalDateTime timestamp;
+    private Long sequence; // Sequência no tópico do processo (para reenvio após reconexão)
 
     public NotificationMessage(String processId, String type, String message, Object data) {
         this.processId = processId;
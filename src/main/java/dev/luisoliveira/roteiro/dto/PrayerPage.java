@@ -0,0 +1,18 @@
+package dev.luisoliveira.roteiro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de orações paginada por cursor (keyset em createdAt + id)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrayerPage {
+    private List<PrayerSummary> items;
+    private String nextCursor; // null quando não há mais páginas
+}
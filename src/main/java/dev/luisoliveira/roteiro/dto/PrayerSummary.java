@@ -0,0 +1,23 @@
+package dev.luisoliveira.roteiro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resumo de uma oração para listagens (sem texto completo, short ou descrição)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrayerSummary {
+    private UUID id;
+    private String title;
+    private String theme;
+    private String language;
+    private LocalDateTime createdAt;
+    private boolean hasAudio;
+}
@@ -6,10 +6,16 @@ import lombok.Getter;
 public class ContentCompletedEvent extends ContentEvent {
     private final String title;
     private final String resultPath;
+    private final String userId; // Dono do processo (null se anônimo)
 
     public ContentCompletedEvent(String processId, String title, String resultPath) {
+        this(processId, title, resultPath, null);
+    }
+
+    public ContentCompletedEvent(String processId, String title, String resultPath, String userId) {
         super(processId);
         this.title = title;
         this.resultPath = resultPath;
+        this.userId = userId;
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -16,6 +17,11 @@ import java.util.UUID;
 @Document(collection = "prayer")
 public class PrayerContent {
 
+    // Os índices (userId_createdAt_id, language_theme, prayer_text e
+    // processId_unique) são criados pelo MongoIndexVerifier, não por anotações:
+    // o campo "language" usa códigos como "es-MX" que o MongoDB não aceita como
+    // language override, e o índice único só é criado sem duplicatas antigas.
+
     @Id
     private UUID id;
 
@@ -25,6 +31,7 @@ public class PrayerContent {
 
     // Campos adicionais para metadados
     private String title; // Título da oração
+    private List<String> alternateTitles; // Outros títulos sugeridos (acervo importado)
     private String theme; // Tema da oração
     private String style; // Estilo da oração
     private String duration; // Duração da oração
@@ -33,12 +40,20 @@ public class PrayerContent {
     private String language; // Idioma da oração
     private String processId;
     private String userId;// ID do processo que gerou a oração
+    private String source; // Origem: "pipeline" (gerada) ou "import" (acervo gerados/)
+    private String model; // Modelo de texto usado na geração
+
+    // Duração de cada estágio do pipeline, usada nas análises de latência
+    private List<StageTiming> timeline;
 
     // Campos para controle de datas
     private LocalDateTime createdAt; // Data de criação
     private LocalDateTime updatedAt; // Data de atualização
 
 
+    public static final String SOURCE_PIPELINE = "pipeline";
+    public static final String SOURCE_IMPORT = "import";
+
     public PrayerContent(String oracaoContent) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package dev.luisoliveira.roteiro.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Último status conhecido de um processo, gravado em segundo plano para que
+ * qualquer instância responda consultas de status
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "process_status")
+public class ProcessStatusDocument {
+
+    @Id
+    private String processId;
+
+    private String currentStage;
+    private int progressPercentage;
+    private boolean completed;
+    private String resultPath; // ID do conteúdo gerado
+    private String fullAudioId; // ID do áudio da oração completa
+    private String userId;
+    private LocalDateTime startTime;
+
+    // Documentos sem atualização há 7 dias são removidos pelo MongoDB (índice TTL
+    // criado pelo ProcessStatusWriter na inicialização)
+    private LocalDateTime lastUpdated;
+}
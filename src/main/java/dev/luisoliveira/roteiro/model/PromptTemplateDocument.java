@@ -0,0 +1,28 @@
+package dev.luisoliveira.roteiro.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versão de um template de prompt gravada no MongoDB. Substitui o template
+ * de mesmo estágio e idioma empacotado em resources/prompts.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "prompt_templates")
+public class PromptTemplateDocument {
+
+    @Id
+    private String id; // <estágio>:<idioma>, ex.: titles:es-MX
+
+    private String stage;
+    private String language;
+    private String content; // Mesmo formato dos arquivos em resources/prompts
+    private LocalDateTime updatedAt; // Atualize ao editar: é o que dispara o recarregamento
+}
@@ -0,0 +1,28 @@
+package dev.luisoliveira.roteiro.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada da linha do tempo de um processo: quando um estágio do pipeline
+ * começou e quanto durou. Gravada no documento da oração (campo timeline).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class StageTiming {
+
+    private String stage; // titles, oracao, short, description, compilation, audio
+    private LocalDateTime startedAt;
+    private Long durationMs; // Nulo enquanto o estágio está em andamento
+    private Boolean failed; // Preenchido apenas quando o estágio terminou com erro
+    private String model; // Modelo que respondeu à chamada principal do estágio (estágios com OpenAI)
+
+    public StageTiming(String stage, LocalDateTime startedAt) {
+        this.stage = stage;
+        this.startedAt = startedAt;
+    }
+}
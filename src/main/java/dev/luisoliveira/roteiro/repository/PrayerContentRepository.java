@@ -1,6 +1,8 @@
 package dev.luisoliveira.roteiro.repository;
 
 import dev.luisoliveira.roteiro.model.PrayerContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,17 +11,18 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface PrayerContentRepository extends MongoRepository<PrayerContent, UUID> {
+public interface PrayerContentRepository extends MongoRepository<PrayerContent, UUID>, PrayerContentRepositoryCustom {
 
-
-    List<PrayerContent> findByTitleContaining(String title);
+    /**
+     * Busca textual em title/texto usando o índice de texto (prayer_text),
+     * em vez de regex sem âncora que percorre a coleção inteira
+     */
+    List<PrayerContent> findAllBy(TextCriteria criteria, Pageable pageable);
 
     List<PrayerContent> findByTheme(String theme);
 
     List<PrayerContent> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
-    List<PrayerContent> findByTextoContaining(String texto);
-
     List<PrayerContent> findByProcessId(String processId);
 
     List<PrayerContent> findByLanguage(String language);
@@ -29,6 +32,4 @@ public interface PrayerContentRepository extends MongoRepository<PrayerContent,
     List<PrayerContent> findByUserId(String userId);
 
     List<PrayerContent> findByUserIdOrderByCreatedAtDesc(String userId);
-
-
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package dev.luisoliveira.roteiro.repository;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.UUID;
+
+/**
+ * Operações de escrita parcial sobre orações, usadas pelas etapas do pipeline
+ * para gravar apenas os próprios campos sem ler o documento antes
+ */
+public interface PrayerContentRepositoryCustom {
+
+    /**
+     * Aplica a atualização à oração do processo, criando-a se ainda não existir.
+     * A operação é atômica: id e createdAt só são definidos na inserção e
+     * updatedAt é sempre atualizado.
+     *
+     * @param processId ID do processo
+     * @param update    Campos a gravar ($set / $setOnInsert)
+     * @return ID da oração criada ou atualizada
+     */
+    UUID upsertByProcessId(String processId, Update update);
+}
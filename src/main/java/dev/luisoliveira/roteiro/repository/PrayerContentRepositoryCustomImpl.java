@@ -0,0 +1,43 @@
+package dev.luisoliveira.roteiro.repository;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Slf4j
+public class PrayerContentRepositoryCustomImpl implements PrayerContentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public UUID upsertByProcessId(String processId, Update update) {
+        LocalDateTime now = LocalDateTime.now();
+        update.set("updatedAt", now)
+                .setOnInsert("_id", UUID.randomUUID())
+                .setOnInsert("createdAt", now)
+                .setOnInsert("source", PrayerContent.SOURCE_PIPELINE);
+
+        Query query = new Query(Criteria.where("processId").is(processId));
+        query.fields().include("_id");
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+        try {
+            return mongoTemplate.findAndModify(query, update, options, PrayerContent.class).getId();
+        } catch (DuplicateKeyException e) {
+            // Duas etapas inseriram ao mesmo tempo: o índice único em processId
+            // rejeitou uma delas, que agora encontra o documento e só atualiza
+            log.debug("Upsert concorrente para o processo {}, repetindo como atualização", processId);
+            return mongoTemplate.findAndModify(query, update, options, PrayerContent.class).getId();
+        }
+    }
+}
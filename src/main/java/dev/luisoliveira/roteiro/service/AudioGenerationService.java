@@ -2,16 +2,15 @@ package dev.luisoliveira.roteiro.service;
 
 import dev.luisoliveira.roteiro.event.AudioGenerationEvent;
 import dev.luisoliveira.roteiro.event.ContentCompletedEvent;
-import dev.luisoliveira.roteiro.model.PrayerContent;
 import dev.luisoliveira.roteiro.repository.PrayerContentRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -60,28 +59,16 @@ public class AudioGenerationService {
 
             // Gerar áudio
             log.info("Iniciando geração de áudio para oração (tamanho: {} caracteres)", oracaoContent.length());
-            String audioFilePath = elevenLabsService.generateSpeech(oracaoContent, processId);
-            log.info("Áudio gerado com sucesso: {}", audioFilePath);
+            String audioId = elevenLabsService.generateSpeech(oracaoContent, processId);
+            log.info("Áudio gerado com sucesso: {}", audioId);
 
             // Armazenar ID do áudio
-            processTrackingService.storeAudioIds(processId, audioFilePath, null);
+            processTrackingService.storeAudioIds(processId, audioId, null);
 
-            // Atualizar a oração no MongoDB com a URL do áudio
-            UUID oracaoId = UUID.fromString(processTrackingService.getOracaoId(processId));
-            if (oracaoId != null) {
-                log.info("Atualizando oração no MongoDB com URL do áudio. ID da oração: {}", oracaoId);
-                Optional<PrayerContent> oracaoOpt = prayerContentRepository.findById(oracaoId);
-                if (oracaoOpt.isPresent()) {
-                    PrayerContent oracao = oracaoOpt.get();
-                    oracao.setAudioUrl(audioFilePath);
-                    prayerContentRepository.save(oracao);
-                    log.info("Oração atualizada com URL do áudio: {}", audioFilePath);
-                } else {
-                    log.warn("Oração não encontrada no MongoDB com ID: {}", oracaoId);
-                }
-            } else {
-                log.warn("ID da oração não encontrado para o processo: {}", processId);
-            }
+            // Atualizar a oração no MongoDB com o ID do áudio (somente este campo)
+            UUID oracaoId = prayerContentRepository.upsertByProcessId(processId,
+                    new Update().set("audioUrl", audioId));
+            log.info("Oração {} atualizada com ID do áudio: {}", oracaoId, audioId);
 
             // Atualizar status
             processTrackingService.updateStatus(processId, "Áudio gerado com sucesso", 100);
@@ -89,7 +76,8 @@ public class AudioGenerationService {
 
             // Publicar evento de conclusão para notificação via WebSocket
             String title = processTrackingService.getTitulo(processId);
-            eventPublisher.publishEvent(new ContentCompletedEvent(processId, title, audioFilePath));
+            eventPublisher.publishEvent(new ContentCompletedEvent(processId, title, audioId,
+                    processTrackingService.getUserId(processId)));
 
         } catch (Exception e) {
             log.error("Erro ao gerar áudio: {}", e.getMessage(), e);
@@ -0,0 +1,99 @@
+package dev.luisoliveira.roteiro.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento dos arquivos gerados (textos, SRTs, áudios).
+ *
+ * A implementação é escolhida por app.storage.type: "gridfs" (padrão, MongoDB
+ * GridFS) ou "filesystem" (disco local, para instalações de um único nó). Os
+ * IDs são strings de 24 caracteres hexadecimais nas duas implementações, de
+ * forma que os IDs gravados nas orações valem para qualquer backend.
+ */
+public interface BlobStore {
+
+    /**
+     * Dados de um arquivo armazenado
+     */
+    record BlobInfo(String id, String filename, String contentType, long length,
+            String processId, Instant uploadDate) {
+    }
+
+    /**
+     * Grava o conteúdo lido do stream, sem carregá-lo inteiro em memória
+     *
+     * @param filename    Nome do arquivo
+     * @param content     Conteúdo (não é fechado por este método)
+     * @param contentType Tipo de conteúdo (MIME type)
+     * @param processId   ID do processo dono do arquivo (pode ser null)
+     * @return ID do arquivo salvo
+     */
+    String store(String filename, InputStream content, String contentType, String processId);
+
+    /**
+     * Busca os dados de um arquivo
+     */
+    Optional<BlobInfo> find(String id);
+
+    /**
+     * Abre o conteúdo de um arquivo para leitura
+     *
+     * @return Stream do conteúdo ou vazio se o arquivo não existir
+     */
+    Optional<InputStream> open(String id) throws IOException;
+
+    /**
+     * Copia o conteúdo de um arquivo para o stream de saída
+     *
+     * @return Bytes copiados ou -1 se o arquivo não existir
+     */
+    long transferTo(String id, OutputStream out) throws IOException;
+
+    /**
+     * Lista os arquivos de um processo, em ordem de gravação
+     */
+    List<BlobInfo> listByProcess(String processId);
+
+    /**
+     * Percorre os arquivos gravados antes do instante informado. O stream deve
+     * ser fechado pelo chamador.
+     */
+    Stream<BlobInfo> scan(Instant uploadedBefore);
+
+    void delete(String id);
+
+    void delete(Collection<String> ids);
+
+    void deleteByProcess(String processId);
+
+    /**
+     * Remove restos de gravações interrompidas (chunks sem arquivo, temporários)
+     *
+     * @param startedBefore Só remove gravações iniciadas antes deste instante; as
+     *        mais novas podem ainda estar em andamento
+     * @param batchSize Itens removidos por lote
+     * @param batchPauseMs Pausa entre lotes
+     * @return Quantidade de itens removidos
+     */
+    long purgeIncomplete(Instant startedBefore, int batchSize, long batchPauseMs) throws InterruptedException;
+
+    /**
+     * Descrição do local de armazenamento (ex.: gridfs://roteiro/fs ou o caminho em disco)
+     */
+    String getLocation();
+
+    /**
+     * Diretório raiz, quando o armazenamento é em disco local
+     */
+    default Optional<Path> getLocalRoot() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.luisoliveira.roteiro.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker de um provedor de LLM.
+ *
+ * Após failureThreshold falhas seguidas o circuito abre e o provedor é
+ * pulado por openMillis. Depois disso uma única chamada de teste é liberada
+ * (meio aberto): sucesso fecha o circuito, falha o abre de novo.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long rejected;
+    private long opened;
+
+    CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Indica se uma chamada pode ser feita agora. No estado meio aberto, só a
+     * primeira chamada é liberada até o seu resultado ser registrado.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                opened++;
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Libera a vaga de teste de uma chamada sem resultado (ex.: cancelada por
+     * ter perdido para a outra)
+     */
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("timesOpened", opened);
+        stats.put("rejectedCalls", rejected);
+        if (state == State.OPEN) {
+            stats.put("retryInSeconds",
+                    TimeUnit.MILLISECONDS.toSeconds(Math.max(0, openMillis - (System.currentTimeMillis() - openedAt))));
+        }
+        return stats;
+    }
+}
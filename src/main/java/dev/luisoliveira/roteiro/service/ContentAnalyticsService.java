@@ -0,0 +1,109 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Análises de latência do pipeline a partir da linha do tempo gravada nas
+ * orações (PrayerContent.timeline).
+ *
+ * Os percentis são calculados pelo MongoDB ($percentile), de modo que apenas
+ * o resultado agregado chega à aplicação.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentAnalyticsService {
+
+    private static final List<Double> PERCENTILES = List.of(0.5, 0.95, 0.99);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Calcula p50/p95/p99 da duração de cada estágio, agrupados por idioma,
+     * modelo e duração da oração. O modelo é o que respondeu ao estágio
+     * (timeline.model) ou, em registros antigos, o modelo da oração. Estágios
+     * que terminaram com erro não entram no cálculo.
+     *
+     * @param from     Início do intervalo de createdAt (opcional)
+     * @param to       Fim do intervalo de createdAt (opcional)
+     * @param language Filtra por idioma (opcional)
+     * @return Uma linha por combinação, do estágio mais lento (p95) para o mais rápido
+     */
+    public List<Map<String, Object>> getStageLatency(LocalDateTime from, LocalDateTime to, String language) {
+        Document match = new Document("timeline.0", new Document("$exists", true));
+        if (language != null) {
+            match.append("language", language);
+        }
+        if (from != null || to != null) {
+            Document createdAt = new Document();
+            if (from != null) {
+                createdAt.append("$gte", from);
+            }
+            if (to != null) {
+                createdAt.append("$lt", to);
+            }
+            match.append("createdAt", createdAt);
+        }
+
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$project", new Document("language", 1)
+                        .append("model", 1)
+                        .append("duration", 1)
+                        .append("timeline", 1)),
+                new Document("$unwind", "$timeline"),
+                new Document("$match", new Document("timeline.durationMs", new Document("$ne", null))
+                        .append("timeline.failed", new Document("$ne", true))),
+                new Document("$group", new Document("_id", new Document("stage", "$timeline.stage")
+                        .append("language", "$language")
+                        .append("model", new Document("$ifNull", List.of("$timeline.model", "$model")))
+                        .append("duration", "$duration"))
+                        .append("count", new Document("$sum", 1))
+                        .append("avgMs", new Document("$avg", "$timeline.durationMs"))
+                        .append("maxMs", new Document("$max", "$timeline.durationMs"))
+                        .append("percentiles", new Document("$percentile", new Document("input", "$timeline.durationMs")
+                                .append("p", PERCENTILES)
+                                .append("method", "approximate")))),
+                new Document("$addFields", new Document("p50Ms", percentile(0))
+                        .append("p95Ms", percentile(1))
+                        .append("p99Ms", percentile(2))),
+                new Document("$sort", new Document("p95Ms", -1)));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        String collection = mongoTemplate.getCollectionName(PrayerContent.class);
+        for (Document row : mongoTemplate.getCollection(collection).aggregate(pipeline)) {
+            Document id = row.get("_id", Document.class);
+
+            Map<String, Object> line = new HashMap<>();
+            line.put("stage", id.get("stage"));
+            line.put("language", id.get("language"));
+            line.put("model", id.get("model"));
+            line.put("duration", id.get("duration"));
+            line.put("count", row.get("count"));
+            line.put("avgMs", row.get("avgMs"));
+            line.put("maxMs", row.get("maxMs"));
+            line.put("p50Ms", row.get("p50Ms"));
+            line.put("p95Ms", row.get("p95Ms"));
+            line.put("p99Ms", row.get("p99Ms"));
+            result.add(line);
+        }
+        log.debug("[ANALYTICS] Latência por estágio: {} grupos (de: {}, até: {}, idioma: {})",
+                result.size(), from, to, language);
+        return result;
+    }
+
+    private Document percentile(int index) {
+        return new Document("$arrayElemAt", List.of("$percentiles", index));
+    }
+}
@@ -0,0 +1,250 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import dev.luisoliveira.roteiro.service.BlobStore.BlobInfo;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Serviço de limpeza de conteúdo expirado.
+ *
+ * Expira as orações geradas pelo pipeline conforme app.mongodb.content-expiry-days
+ * (índice TTL em createdAt + remoção em lotes como garantia) e remove do BlobStore os arquivos
+ * que nenhuma oração referencia mais, além de restos de gravações interrompidas. Todo o
+ * trabalho é feito em lotes com pausa entre eles para não saturar o MongoDB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentCleanupService {
+
+    private static final String TTL_INDEX_NAME = "createdAt_ttl_pipeline";
+    private static final String LEGACY_TTL_INDEX_NAME = "createdAt_ttl";
+
+    // Arquivos antigos (sem metadata.processId) carregam o processId no nome
+    private static final Pattern PROCESS_ID_PATTERN = Pattern.compile(
+            "([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12})");
+
+    private final MongoTemplate mongoTemplate;
+    private final BlobStore blobStore;
+
+    @Value("${app.mongodb.content-expiry-days:7}")
+    private int contentExpiryDays;
+
+    @Value("${app.mongodb.cleanup-batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.mongodb.cleanup-batch-pause-ms:250}")
+    private long batchPauseMs;
+
+    @Value("${app.mongodb.orphan-grace-hours:24}")
+    private int orphanGraceHours;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Garante o índice TTL em createdAt com o prazo configurado. O índice é
+     * parcial: só expira orações geradas pelo pipeline, nunca o acervo importado.
+     */
+    @PostConstruct
+    public void ensureTtlIndex() {
+        long expireSeconds = Duration.ofDays(contentExpiryDays).getSeconds();
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(PrayerContent.class);
+            boolean legacyIndex = indexOps.getIndexInfo().stream()
+                    .anyMatch(index -> LEGACY_TTL_INDEX_NAME.equals(index.getName()));
+            if (legacyIndex) {
+                indexOps.dropIndex(LEGACY_TTL_INDEX_NAME);
+                log.info("Índice TTL antigo {} removido", LEGACY_TTL_INDEX_NAME);
+            }
+
+            indexOps.ensureIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .named(TTL_INDEX_NAME)
+                    .expire(expireSeconds)
+                    .partial(PartialIndexFilter.of(Criteria.where("source").is(PrayerContent.SOURCE_PIPELINE))));
+            log.info("Índice TTL {} garantido: expiração em {} dias", TTL_INDEX_NAME, contentExpiryDays);
+        } catch (Exception e) {
+            // O índice já existe com outro prazo: ajusta via collMod em vez de recriar
+            try {
+                mongoTemplate.getDb().runCommand(new Document("collMod", mongoTemplate.getCollectionName(PrayerContent.class))
+                        .append("index", new Document("name", TTL_INDEX_NAME)
+                                .append("expireAfterSeconds", expireSeconds)));
+                log.info("Prazo do índice TTL {} atualizado para {} dias", TTL_INDEX_NAME, contentExpiryDays);
+            } catch (Exception collModError) {
+                log.error("Não foi possível garantir o índice TTL {}: {}", TTL_INDEX_NAME, collModError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Executa a limpeza completa no horário configurado
+     */
+    @Scheduled(cron = "${app.mongodb.cleanup-schedule:0 0 2 * * ?}")
+    public void scheduledCleanup() {
+        runCleanup();
+    }
+
+    /**
+     * Executa uma passada de limpeza. Passadas concorrentes são ignoradas.
+     *
+     * @return Contadores da passada (orações expiradas, arquivos órfãos e gravações incompletas removidos)
+     */
+    public Map<String, Long> runCleanup() {
+        Map<String, Long> result = new HashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            log.warn("[LIMPEZA] Já existe uma limpeza em andamento, ignorando");
+            return result;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            log.info("[LIMPEZA] Iniciando limpeza de conteúdo expirado ({} dias)", contentExpiryDays);
+            result.put("expiredPrayers", expirePrayers());
+            result.put("orphanFiles", deleteOrphanFiles());
+            result.put("incompleteUploads", blobStore.purgeIncomplete(graceCutoff(), batchSize, batchPauseMs));
+            log.info("[LIMPEZA] Limpeza concluída em {} ms: {}", System.currentTimeMillis() - start, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[LIMPEZA] Limpeza interrompida: {}", result);
+        } catch (Exception e) {
+            log.error("[LIMPEZA] Erro durante a limpeza: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+        return result;
+    }
+
+    /**
+     * Remove em lotes as orações com createdAt anterior ao prazo. O índice TTL
+     * faz o mesmo em segundo plano; esta etapa cobre ambientes sem o índice.
+     */
+    private long expirePrayers() throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(contentExpiryDays);
+        long removed = 0;
+
+        while (true) {
+            Query query = new Query(Criteria.where("createdAt").lt(cutoff)
+                    .and("source").is(PrayerContent.SOURCE_PIPELINE)).limit(batchSize);
+            query.fields().include("_id");
+            List<UUID> ids = mongoTemplate.find(query, PrayerContent.class).stream()
+                    .map(PrayerContent::getId)
+                    .toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            removed += mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), PrayerContent.class)
+                    .getDeletedCount();
+            log.debug("[LIMPEZA] Lote de {} orações expiradas removido", ids.size());
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return removed;
+    }
+
+    /**
+     * Remove arquivos do BlobStore cujo processo não possui mais oração. Arquivos
+     * mais novos que o período de carência são ignorados para não atingir
+     * processos ainda em andamento.
+     */
+    private long deleteOrphanFiles() throws InterruptedException {
+        long removed = 0;
+
+        Map<String, String> batch = new HashMap<>();
+        try (Stream<BlobInfo> files = blobStore.scan(graceCutoff())) {
+            for (BlobInfo file : (Iterable<BlobInfo>) files::iterator) {
+                String processId = resolveProcessId(file);
+                if (processId == null) {
+                    // Sem como saber o dono: nunca remover
+                    continue;
+                }
+                batch.put(file.id(), processId);
+
+                if (batch.size() >= batchSize) {
+                    removed += deleteOrphansInBatch(batch);
+                    batch.clear();
+                    pause();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            removed += deleteOrphansInBatch(batch);
+        }
+        return removed;
+    }
+
+    private long deleteOrphansInBatch(Map<String, String> batch) {
+        Set<String> processIds = new HashSet<>(batch.values());
+        Set<String> referenced = new HashSet<>(mongoTemplate.findDistinct(
+                new Query(Criteria.where("processId").in(processIds)),
+                "processId", PrayerContent.class, String.class));
+
+        List<String> orphans = new ArrayList<>();
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            if (!referenced.contains(entry.getValue())) {
+                orphans.add(entry.getKey());
+            }
+        }
+
+        if (!orphans.isEmpty()) {
+            blobStore.delete(orphans);
+            log.debug("[LIMPEZA] Lote de {} arquivos órfãos removido", orphans.size());
+        }
+        return orphans.size();
+    }
+
+    // Arquivos e gravações mais novos que isso podem pertencer a processos em andamento
+    private Instant graceCutoff() {
+        return LocalDateTime.now().minusHours(orphanGraceHours).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private String resolveProcessId(BlobInfo file) {
+        if (file.processId() != null) {
+            return file.processId();
+        }
+        String filename = file.filename();
+        if (filename == null) {
+            return null;
+        }
+        Matcher matcher = PROCESS_ID_PATTERN.matcher(filename);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private void pause() throws InterruptedException {
+        if (batchPauseMs > 0) {
+            Thread.sleep(batchPauseMs);
+        }
+    }
+}
@@ -3,13 +3,13 @@ package dev.luisoliveira.roteiro.service;
 import dev.luisoliveira.roteiro.event.DescriptionGeneratedEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import dev.luisoliveira.roteiro.dto.TitleCompletionRequest;
 import dev.luisoliveira.roteiro.event.AudioGenerationEvent;
 import dev.luisoliveira.roteiro.event.ContentCompilationCompletedEvent;
 import dev.luisoliveira.roteiro.event.ContentCompletedEvent;
-import dev.luisoliveira.roteiro.model.PrayerContent;
 import dev.luisoliveira.roteiro.repository.PrayerContentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +29,7 @@ public class ContentCompilationService {
         private final ProcessTrackingService processTrackingService;
         private final FileStorageService fileStorageService;
         private final PrayerContentRepository prayerContentRepository;
+        private final OpenAIService openAIService;
 
         /**
          * Compila o conteúdo da oração completa, versão curta e descrição
@@ -53,68 +54,27 @@ public class ContentCompilationService {
                 String contentId = fileStorageService.saveOracaoFile(processId, formattedContent);
                 log.info("Conteúdo compilado e salvo com ID: {}", contentId);
 
-                // Verifica se já existe uma oração salva no MongoDB para este processo
-                UUID oracaoId = UUID.fromString(processTrackingService.getOracaoId(processId));
-
-                // Ao criar ou atualizar a oração no MongoDB, incluir o userId
-                if (oracaoId == null) {
-                        // Se não existir, cria uma nova oração no MongoDB
-                        log.info("Criando nova oração no MongoDB para o processo: {}", processId);
-                        PrayerContent oracao = new PrayerContent(oracaoContent);
-                        oracao.setTitle(title);
-                        oracao.setProcessId(processId);
-                        oracao.setShortContent(shortContent);
-                        oracao.setDescription(descriptionContent);
-
-                        // Adicionar userId se disponível
-                        if (userId != null) {
-                                oracao.setUserId(userId);
-                                log.info("Relacionando oração ao usuário: {}", userId);
-                        }
-
-                        // Adicionar outros metadados disponíveis
-                        oracao.setTheme(processTrackingService.getTema(processId));
-                        oracao.setStyle(processTrackingService.getEstiloOracao(processId));
-                        oracao.setDuration(processTrackingService.getDuracao(processId));
-                        oracao.setLanguage(processTrackingService.getIdioma(processId));
-
-                        oracao = prayerContentRepository.save(oracao);
-                        oracaoId = oracao.getId();
-                        processTrackingService.storeOracaoId(processId, String.valueOf(oracaoId));
-                        log.info("Oração salva no MongoDB com ID: {}", oracaoId);
-                } else {
-                        // Se existir, atualiza a oração existente
-                        log.info("Atualizando oração existente no MongoDB. ID: {}", oracaoId);
-                        prayerContentRepository.findById(oracaoId).ifPresent(oracao -> {
-                                oracao.setTexto(oracaoContent);
-                                oracao.setTitle(title);
-                                oracao.setShortContent(shortContent);
-                                oracao.setDescription(descriptionContent);
-
-                                // Verificar e atualizar userId se necessário
-                                if (oracao.getUserId() == null && userId != null) {
-                                        oracao.setUserId(userId);
-                                        log.info("Adicionando userId à oração existente: {}", userId);
-                                }
-
-                                // Atualizar outros metadados se necessário
-                                if (oracao.getTheme() == null) {
-                                        oracao.setTheme(processTrackingService.getTema(processId));
-                                }
-                                if (oracao.getStyle() == null) {
-                                        oracao.setStyle(processTrackingService.getEstiloOracao(processId));
-                                }
-                                if (oracao.getDuration() == null) {
-                                        oracao.setDuration(processTrackingService.getDuracao(processId));
-                                }
-                                if (oracao.getLanguage() == null) {
-                                        oracao.setLanguage(processTrackingService.getIdioma(processId));
-                                }
-
-                                prayerContentRepository.save(oracao);
-                                log.info("Oração atualizada no MongoDB");
-                        });
+                // Grava apenas os campos desta etapa; metadados só entram se a
+                // oração ainda não existir (normalmente já gravados na etapa da oração)
+                Update update = new Update()
+                                .set("texto", oracaoContent)
+                                .set("title", title);
+                setIfPresent(update, "shortContent", shortContent);
+                setIfPresent(update, "description", descriptionContent);
+                String oracaoModel = processTrackingService.getStageModel(processId, ModelRouter.ORACAO);
+                setIfPresent(update, "model", oracaoModel != null ? oracaoModel : openAIService.getModel());
+                if (userId != null) {
+                        update.set("userId", userId);
+                        log.info("Relacionando oração ao usuário: {}", userId);
                 }
+                setOnInsertIfPresent(update, "theme", processTrackingService.getTema(processId));
+                setOnInsertIfPresent(update, "style", processTrackingService.getEstiloOracao(processId));
+                setOnInsertIfPresent(update, "duration", processTrackingService.getDuracao(processId));
+                setOnInsertIfPresent(update, "language", processTrackingService.getIdioma(processId));
+
+                UUID oracaoId = prayerContentRepository.upsertByProcessId(processId, update);
+                processTrackingService.storeOracaoId(processId, String.valueOf(oracaoId));
+                log.info("Oração atualizada no MongoDB com ID: {}", oracaoId);
 
                 // Armazena o resultado (ID do conteúdo)
                 processTrackingService.storeResult(processId, contentId);
@@ -124,7 +84,7 @@ public class ContentCompilationService {
                 eventPublisher.publishEvent(new ContentCompilationCompletedEvent(this, processId, contentId));
 
                 // Publicar também um ContentCompletedEvent para notificação via WebSocket
-                eventPublisher.publishEvent(new ContentCompletedEvent(processId, title, contentId));
+                eventPublisher.publishEvent(new ContentCompletedEvent(processId, title, contentId, userId));
 
                 // Se o áudio deve ser gerado, publica o evento para iniciar a geração
                 if (processTrackingService.deveGerarAudio(processId)) {
@@ -135,6 +95,19 @@ public class ContentCompilationService {
                         processTrackingService.updateStatus(processId, "Concluído", 100);
                 }
         }
+
+        private void setIfPresent(Update update, String field, Object value) {
+                if (value != null) {
+                        update.set(field, value);
+                }
+        }
+
+        private void setOnInsertIfPresent(Update update, String field, Object value) {
+                if (value != null) {
+                        update.setOnInsert(field, value);
+                }
+        }
+
         /**
          * Completa o título com base na primeira geração de conteúdo
          * 
@@ -0,0 +1,223 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import dev.luisoliveira.roteiro.service.BlobStore.BlobInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exporta os artefatos de um ou mais processos como ZIP gerado sob demanda.
+ *
+ * O ZIP é escrito direto no OutputStream da resposta, arquivo a arquivo,
+ * copiando cada um do BlobStore sem carregá-lo inteiro: a memória usada não
+ * depende do tamanho do export e nenhum arquivo temporário é criado. A estrutura segue a de gerados/:
+ * &lt;titulo&gt;/texto (meta, SRTs e textos) e &lt;titulo&gt;/audio (MP3s).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BlobStore blobStore;
+
+    /**
+     * Verifica se existe algo a exportar para o processo
+     */
+    public boolean exists(String processId) {
+        return findPrayer(processId) != null || !blobStore.listByProcess(processId).isEmpty();
+    }
+
+    /**
+     * ID do usuário dono da oração do processo
+     *
+     * @return userId da oração, ou null se não há oração ou ela não tem dono
+     */
+    public String findOwnerId(String processId) {
+        Query query = new Query(Criteria.where("processId").is(processId));
+        query.fields().include("userId");
+        PrayerContent prayer = mongoTemplate.findOne(query, PrayerContent.class);
+        return prayer != null ? prayer.getUserId() : null;
+    }
+
+    /**
+     * Escreve o ZIP de um processo no stream informado
+     *
+     * @param processId ID do processo
+     * @param out       Stream de saída (não é fechado por este método)
+     */
+    public void exportProcess(String processId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        writeProcess(zip, processId, findPrayer(processId), new HashSet<>());
+        zip.finish();
+        log.info("[EXPORT] Export do processo {} concluído", processId);
+    }
+
+    /**
+     * Escreve o ZIP com todas as orações de um usuário e/ou intervalo de datas.
+     * As orações são lidas por cursor, sem carregar a lista inteira.
+     *
+     * @param userId ID do usuário (opcional)
+     * @param from   Início do intervalo de createdAt (opcional)
+     * @param to     Fim do intervalo de createdAt (opcional)
+     * @param out    Stream de saída (não é fechado por este método)
+     * @return Quantidade de orações exportadas
+     */
+    public int exportBulk(String userId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Criteria criteria = new Criteria();
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (from != null || to != null) {
+            Criteria createdAt = criteria.and("createdAt");
+            if (from != null) {
+                createdAt.gte(from);
+            }
+            if (to != null) {
+                createdAt.lt(to);
+            }
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        query.cursorBatchSize(50);
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Set<String> usedFolders = new HashSet<>();
+        int count = 0;
+        try (Stream<PrayerContent> prayers = mongoTemplate.stream(query, PrayerContent.class)) {
+            // Iterator em vez de forEach: writeProcess lança IOException
+            Iterator<PrayerContent> iterator = prayers.iterator();
+            while (iterator.hasNext()) {
+                PrayerContent prayer = iterator.next();
+                writeProcess(zip, prayer.getProcessId(), prayer, usedFolders);
+                count++;
+            }
+        }
+        zip.finish();
+        log.info("[EXPORT] Export em lote concluído: {} orações (usuário: {}, de: {}, até: {})", count, userId, from, to);
+        return count;
+    }
+
+    private void writeProcess(ZipOutputStream zip, String processId,
+            PrayerContent prayer, Set<String> usedFolders) throws IOException {
+        String title = prayer != null && prayer.getTitle() != null ? prayer.getTitle() : processId;
+        String folder = uniqueFolder(safeName(title != null ? title : "sem_titulo"), processId, usedFolders);
+
+        if (prayer != null) {
+            zip.putNextEntry(new ZipEntry(folder + "/texto/" + folder + "_meta.txt"));
+            zip.write(buildMeta(prayer).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        Set<String> usedNames = new HashSet<>();
+        for (BlobInfo file : findFiles(processId, prayer)) {
+            String subfolder = isAudio(file) ? "/audio/" : "/texto/";
+            String name = uniqueName(safeName(file.filename() != null ? file.filename() : file.id()), usedNames);
+            zip.putNextEntry(new ZipEntry(folder + subfolder + name));
+            blobStore.transferTo(file.id(), zip);
+            zip.closeEntry();
+        }
+        zip.flush();
+    }
+
+    /**
+     * Arquivos do processo: os gravados com o processId e, para
+     * orações antigas, o áudio referenciado em audioUrl
+     */
+    private List<BlobInfo> findFiles(String processId, PrayerContent prayer) {
+        List<BlobInfo> files = new ArrayList<>();
+        if (processId != null) {
+            files.addAll(blobStore.listByProcess(processId));
+        }
+        String audioId = prayer != null ? prayer.getAudioUrl() : null;
+        if (audioId != null && files.stream().noneMatch(file -> file.id().equals(audioId))) {
+            blobStore.find(audioId).ifPresent(files::add);
+        }
+        return files;
+    }
+
+    private PrayerContent findPrayer(String processId) {
+        return mongoTemplate.findOne(new Query(Criteria.where("processId").is(processId)), PrayerContent.class);
+    }
+
+    /**
+     * Monta o _meta.txt no mesmo formato do acervo em disco (lido pelo GeradosImportService)
+     */
+    private String buildMeta(PrayerContent prayer) {
+        StringBuilder meta = new StringBuilder();
+        meta.append("**Título: ").append(prayer.getTitle() != null ? prayer.getTitle() : "").append("**\n\n");
+        if (prayer.getAlternateTitles() != null && !prayer.getAlternateTitles().isEmpty()) {
+            meta.append("**Outros títulos:**\n\n");
+            prayer.getAlternateTitles().forEach(title -> meta.append("- ").append(title).append('\n'));
+            meta.append('\n');
+        }
+        meta.append("**Oração Completa:**\n\n").append(nullToEmpty(prayer.getTexto())).append("\n\n");
+        if (prayer.getShortContent() != null && !prayer.getShortContent().isEmpty()) {
+            meta.append("**Short:**\n\n").append(prayer.getShortContent()).append("\n\n");
+        }
+        if (prayer.getDescription() != null && !prayer.getDescription().isEmpty()) {
+            meta.append("**Descrição:**\n\n").append(prayer.getDescription()).append("\n");
+        }
+        return meta.toString();
+    }
+
+    private boolean isAudio(BlobInfo file) {
+        if (file.contentType() != null) {
+            return file.contentType().startsWith("audio/");
+        }
+        return file.filename() != null && file.filename().toLowerCase().endsWith(".mp3");
+    }
+
+    private String uniqueFolder(String folder, String processId, Set<String> usedFolders) {
+        if (usedFolders.add(folder)) {
+            return folder;
+        }
+        String suffix = processId != null ? processId.substring(0, Math.min(8, processId.length())) : "";
+        return uniqueName(folder + "_" + suffix, usedFolders);
+    }
+
+    private String uniqueName(String name, Set<String> used) {
+        String candidate = name;
+        int counter = 2;
+        while (!used.add(candidate)) {
+            int dot = name.lastIndexOf('.');
+            candidate = dot > 0
+                    ? name.substring(0, dot) + "_" + counter + name.substring(dot)
+                    : name + "_" + counter;
+            counter++;
+        }
+        return candidate;
+    }
+
+    /**
+     * Remove apenas os caracteres inválidos em nomes de arquivo, preservando acentos
+     */
+    private String safeName(String name) {
+        String safe = name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        if (safe.length() > 120) {
+            safe = safe.substring(0, 120).trim();
+        }
+        return safe.isEmpty() ? "sem_titulo" : safe;
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -4,13 +4,19 @@ import dev.luisoliveira.roteiro.config.security.UserPrincipal;
 import dev.luisoliveira.roteiro.model.User;
 import dev.luisoliveira.roteiro.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +24,17 @@ public class CustomUserDetailsService implements UserDetailsService {
 
 
     private final UserRepository userRepository;
+    private final Map<String, CachedUser> usersByEmail = new ConcurrentHashMap<>();
+
+    @Value("${app.security.user-cache-ttl-seconds:60}")
+    private long userCacheTtlSeconds;
+
+    @Value("${app.security.user-cache-size:10000}")
+    private int userCacheSize;
+
+    // Usuário em cache e quando expira (System.nanoTime)
+    private record CachedUser(UserPrincipal principal, long expiresAtNanos) {
+    }
 
     @Override
     @Transactional
@@ -35,4 +52,44 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return UserPrincipal.create(user);
     }
+
+    /**
+     * Busca o usuário pelo e-mail usando um cache de curta duração
+     * (app.security.user-cache-ttl-seconds), para que requisições autenticadas
+     * não consultem o MongoDB a cada chamada
+     *
+     * @return Principal do usuário, ou vazio se não existir
+     */
+    public Optional<UserPrincipal> findCachedByEmail(String email) {
+        long now = System.nanoTime();
+        CachedUser cached = usersByEmail.get(email);
+        if (cached != null && cached.expiresAtNanos() - now > 0) {
+            return Optional.of(cached.principal());
+        }
+
+        Optional<UserPrincipal> principal = userRepository.findByEmail(email).map(UserPrincipal::create);
+        if (principal.isPresent()) {
+            if (usersByEmail.size() >= userCacheSize) {
+                evictUsers(now);
+            }
+            usersByEmail.put(email, new CachedUser(principal.get(),
+                    now + TimeUnit.SECONDS.toNanos(userCacheTtlSeconds)));
+        } else {
+            usersByEmail.remove(email);
+        }
+        return principal;
+    }
+
+    private synchronized void evictUsers(long now) {
+        if (usersByEmail.size() < userCacheSize) {
+            return;
+        }
+        usersByEmail.values().removeIf(user -> user.expiresAtNanos() - now <= 0);
+        int target = (int) (userCacheSize * 0.9);
+        Iterator<String> iterator = usersByEmail.keySet().iterator();
+        while (usersByEmail.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
 }
@@ -14,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 public class DescriptionGenerationService {
 
         private final OpenAIService openAIService;
+        private final PromptBuilder promptBuilder;
+        private final LanguageDetector languageDetector;
         private final EventBusService eventBusService;
         private final ProcessTrackingService processTrackingService;
 
@@ -33,14 +35,28 @@ public class DescriptionGenerationService {
                         log.info("Gerando descrição para YouTube e TikTok no idioma: {}", idioma);
 
                         // Construir prompt otimizado para descrição
-                        String prompt = PromptBuilder.buildDescriptionPrompt(
+                        PromptBuilder.Prompt prompt = promptBuilder.buildDescriptionPrompt(
                                         event.getTitle(),
                                         event.getOracaoContent(),
                                         idioma);
 
                         // Chamar OpenAI API
                         log.info("Iniciando geração da descrição no idioma: {}", idioma);
-                        String descriptionContent = openAIService.generateDescription(prompt);
+                        String descriptionContent = openAIService.generateDescription(prompt, idioma);
+
+                        // Verificar o idioma; gera de novo uma vez se a confiança ficar abaixo do limiar
+                        LanguageDetector.Detection detection = languageDetector.check(
+                                        ModelRouter.DESCRIPTION, descriptionContent, idioma);
+                        if (!languageDetector.isAccepted(detection)) {
+                                log.warn("Descrição não parece estar em {} (detectado: {}, confiança: {}), gerando novamente...",
+                                                idioma, detection.detected(), String.format("%.2f", detection.confidence()));
+                                String retry = openAIService.generateDescription(prompt, idioma);
+                                LanguageDetector.Detection retryDetection = languageDetector.check(
+                                                ModelRouter.DESCRIPTION, retry, idioma);
+                                if (retryDetection.confidence() > detection.confidence()) {
+                                        descriptionContent = retry;
+                                }
+                        }
                         processTrackingService.setDescriptionContent(processId, descriptionContent);
 
                         log.info("Descrição gerada com sucesso: {} caracteres", descriptionContent.length());
@@ -5,17 +5,8 @@ import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Base64;
 
 import org.json.JSONObject;
 import org.springframework.http.HttpEntity;
@@ -37,6 +28,8 @@ import java.util.Map;
 public class ElevenLabsService {
 
     private final RestTemplate restTemplate;
+    private final BlobStore blobStore;
+    private final ProcessCancellationService processCancellationService;
 
     @Value("${elevenlabs.api.key}")
     private String apiKey;
@@ -47,11 +40,11 @@ public class ElevenLabsService {
     @Value("${elevenlabs.api.url:https://api.elevenlabs.io/v1}")
     private String apiUrl;
 
-    @Value("${file.output.path:./gerados}")
-    private String outputPath;
-
-    public ElevenLabsService(RestTemplate restTemplate) {
+    public ElevenLabsService(RestTemplate restTemplate, BlobStore blobStore,
+            ProcessCancellationService processCancellationService) {
         this.restTemplate = restTemplate;
+        this.blobStore = blobStore;
+        this.processCancellationService = processCancellationService;
         log.info("ElevenLabsService inicializado");
     }
 
@@ -62,7 +55,9 @@ public class ElevenLabsService {
      * @return Array de bytes contendo o áudio gerado
      */
     public byte[] generateSpeech(String text) {
-        try {
+        // A conexão do RestTemplate é associada à chamada e fechada se o processo for cancelado
+        try (ProcessCancellationService.InFlightCall call = processCancellationService.track("elevenlabs",
+                "characters")) {
             log.info("Gerando áudio para texto (tamanho: {} caracteres)", text.length());
 
             // URL para a API ElevenLabs
@@ -88,6 +83,7 @@ public class ElevenLabsService {
 
             // Fazer a requisição POST e retornar o áudio como bytes
             byte[] audioData = restTemplate.postForObject(url, requestEntity, byte[].class);
+            call.addUsage(text.length());
             log.info("Áudio gerado com sucesso: {} bytes", audioData != null ? audioData.length : 0);
 
             return audioData;
@@ -98,11 +94,11 @@ public class ElevenLabsService {
     }
 
     /**
-     * Gera áudio a partir de texto e salva em arquivo
+     * Gera áudio a partir de texto e salva no BlobStore
      * 
      * @param text      Texto para gerar áudio
      * @param processId ID do processo para nomear o arquivo
-     * @return Caminho do arquivo de áudio gerado
+     * @return ID do arquivo de áudio gerado
      * @throws IOException Se ocorrer erro ao salvar o arquivo
      */
     public String generateSpeech(String text, String processId) throws IOException {
@@ -111,18 +107,15 @@ public class ElevenLabsService {
         // Gerar o áudio usando o método existente
         byte[] audioData = generateSpeech(text);
 
-        // Criar diretório de saída se não existir
-        Path outputDir = Paths.get(outputPath);
-        if (!Files.exists(outputDir)) {
-            Files.createDirectories(outputDir);
+        if (audioData == null || audioData.length == 0) {
+            throw new IOException("ElevenLabs não retornou áudio para o processo " + processId);
         }
 
-        // Salvar o áudio em arquivo
+        // Salvar o áudio no armazenamento configurado
         String fileName = "audio_" + processId + ".mp3";
-        Path audioFile = outputDir.resolve(fileName);
-        Files.write(audioFile, audioData);
+        String audioId = blobStore.store(fileName, new ByteArrayInputStream(audioData), "audio/mpeg", processId);
 
-        log.info("Áudio salvo em: {}", audioFile.toString());
-        return audioFile.toString();
+        log.info("Áudio salvo com ID: {}", audioId);
+        return audioId;
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 public class EventBusService {
 
     private final ApplicationEventPublisher eventPublisher;
+    private final ProcessCancellationService processCancellationService;
 
     public void publish(ContentEvent event) {
         if (event == null) {
@@ -22,6 +23,11 @@ public class EventBusService {
         String eventClassName = event.getClass().getSimpleName();
         String processId = event.getProcessId();
 
+        if (processCancellationService.isCancelled(processId)) {
+            log.info("Evento {} não publicado: processo {} cancelado", eventClassName, processId);
+            return;
+        }
+
         log.info("Publicando evento: {} para o processId: {}", eventClassName, processId);
 
         try {
@@ -4,19 +4,26 @@ import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.annotation.PostConstruct;
 
 /**
- * Serviço para armazenamento de conteúdo (versão com MongoDB)
+ * Serviço para armazenamento de conteúdo. Os arquivos vão para o BlobStore
+ * configurado (GridFS ou disco local).
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class FileStorageService {
 
-    private final MongoStorageService mongoStorageService;
+    private final BlobStore blobStore;
     private final SrtConverterService srtConverterService;
 
     /**
@@ -25,7 +32,7 @@ public class FileStorageService {
      */
     @PostConstruct
     public void initialize() {
-        log.info("Inicializando FileStorageService com MongoDB");
+        log.info("Inicializando FileStorageService com armazenamento em {}", blobStore.getLocation());
     }
 
     /**
@@ -38,7 +45,7 @@ public class FileStorageService {
     public String saveOracaoFile(String processId, String formattedContent) {
         log.info("Salvando conteúdo da oração para processo: {}", processId);
         String filename = "oracao_" + processId + ".txt";
-        return mongoStorageService.saveTextFile(filename, formattedContent);
+        return saveText(filename, formattedContent, processId);
     }
 
     /**
@@ -70,7 +77,7 @@ public class FileStorageService {
         }
 
         String filename = "oracao_completa_" + processId + ".txt";
-        return mongoStorageService.saveTextFile(filename, content.toString());
+        return saveText(filename, content.toString(), processId);
     }
 
     /**
@@ -115,7 +122,7 @@ public class FileStorageService {
         }
 
         String filename = "oracao_completa_" + processId + ".txt";
-        return mongoStorageService.saveTextFile(filename, content.toString());
+        return saveText(filename, content.toString(), processId);
     }
 
     /**
@@ -127,7 +134,7 @@ public class FileStorageService {
     public String saveAudio(byte[] audioData) {
         log.info("Salvando áudio (tamanho: {} bytes)", audioData.length);
         String filename = "audio_" + System.currentTimeMillis() + ".mp3";
-        return mongoStorageService.saveBinaryFile(filename, audioData, "audio/mpeg");
+        return blobStore.store(filename, new ByteArrayInputStream(audioData), "audio/mpeg", null);
     }
 
     /**
@@ -141,7 +148,7 @@ public class FileStorageService {
     public String saveAudio(String processId, String audioName, byte[] audioData) {
         log.info("Salvando áudio {} para processo {} (tamanho: {} bytes)", audioName, processId, audioData.length);
         String filename = audioName + "_" + processId + ".mp3";
-        return mongoStorageService.saveBinaryFile(filename, audioData, "audio/mpeg");
+        return blobStore.store(filename, new ByteArrayInputStream(audioData), "audio/mpeg", processId);
     }
 
     /**
@@ -153,7 +160,7 @@ public class FileStorageService {
     public String getContent(String contentId) {
         log.info("Obtendo conteúdo com ID: {}", contentId);
         try {
-            return mongoStorageService.getTextFile(contentId);
+            return readText(contentId);
         } catch (Exception e) {
             log.error("Erro ao obter conteúdo: {}", e.getMessage(), e);
             return null;
@@ -169,7 +176,7 @@ public class FileStorageService {
     public byte[] getAudio(String audioId) {
         log.info("Obtendo áudio com ID: {}", audioId);
         try {
-            return mongoStorageService.getBinaryFile(audioId);
+            return readBytes(audioId);
         } catch (Exception e) {
             log.error("Erro ao obter áudio: {}", e.getMessage(), e);
             return null;
@@ -195,7 +202,7 @@ public class FileStorageService {
      * @param newOutputPath Novo caminho de saída
      */
     public void updateOutputPath(String newOutputPath) {
-        log.info("Método updateOutputPath chamado, mas não tem efeito na versão MongoDB");
+        log.info("Método updateOutputPath chamado, mas o armazenamento é definido por app.storage");
     }
 
     /**
@@ -207,7 +214,7 @@ public class FileStorageService {
     public boolean contentExists(String contentId) {
         log.info("Verificando se conteúdo existe: {}", contentId);
         try {
-            return mongoStorageService.getTextFile(contentId) != null;
+            return blobStore.find(contentId).isPresent();
         } catch (Exception e) {
             log.error("Erro ao verificar existência de conteúdo: {}", e.getMessage(), e);
             return false;
@@ -223,7 +230,7 @@ public class FileStorageService {
     public boolean audioExists(String audioId) {
         log.info("Verificando se áudio existe: {}", audioId);
         try {
-            return mongoStorageService.getBinaryFile(audioId) != null;
+            return blobStore.find(audioId).isPresent();
         } catch (Exception e) {
             log.error("Erro ao verificar existência de áudio: {}", e.getMessage(), e);
             return false;
@@ -238,7 +245,7 @@ public class FileStorageService {
     public void removeContent(String contentId) {
         log.info("Removendo conteúdo: {}", contentId);
         try {
-            mongoStorageService.deleteFile(contentId);
+            blobStore.delete(contentId);
         } catch (Exception e) {
             log.error("Erro ao remover conteúdo: {}", e.getMessage(), e);
         }
@@ -252,7 +259,7 @@ public class FileStorageService {
     public void removeAudio(String audioId) {
         log.info("Removendo áudio: {}", audioId);
         try {
-            mongoStorageService.deleteFile(audioId);
+            blobStore.delete(audioId);
         } catch (Exception e) {
             log.error("Erro ao remover áudio: {}", e.getMessage(), e);
         }
@@ -267,10 +274,62 @@ public class FileStorageService {
     public byte[] getBinaryFile(String fileId) {
         log.info("Obtendo arquivo binário com ID: {}", fileId);
         try {
-            return mongoStorageService.getBinaryFile(fileId);
+            return readBytes(fileId);
         } catch (Exception e) {
             log.error("Erro ao obter arquivo binário: {}", e.getMessage(), e);
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Localiza um arquivo de um processo pelo ID ou, se não for um ID, pelo nome
+     *
+     * @param processId    ID do processo
+     * @param idOrFilename ID do arquivo ou nome com que foi gravado
+     * @return Dados do arquivo, se existir
+     */
+    public Optional<BlobStore.BlobInfo> findProcessFile(String processId, String idOrFilename) {
+        Optional<BlobStore.BlobInfo> byId = blobStore.find(idOrFilename);
+        if (byId.isPresent()) {
+            return byId;
+        }
+        return blobStore.listByProcess(processId).stream()
+                .filter(info -> idOrFilename.equals(info.filename()))
+                .findFirst();
+    }
+
+    /**
+     * Copia um arquivo para o stream de saída sem carregá-lo em memória
+     *
+     * @param fileId ID do arquivo
+     * @param out    Stream de saída
+     */
+    public void transferTo(String fileId, OutputStream out) throws IOException {
+        blobStore.transferTo(fileId, out);
+    }
+
+    private String saveText(String filename, String content, String processId) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return blobStore.store(filename, new ByteArrayInputStream(bytes), "text/plain", processId);
+    }
+
+    private String readText(String fileId) {
+        byte[] content = readBytes(fileId);
+        return content != null ? new String(content, StandardCharsets.UTF_8) : null;
+    }
+
+    private byte[] readBytes(String fileId) {
+        try {
+            Optional<InputStream> content = blobStore.open(fileId);
+            if (content.isEmpty()) {
+                log.warn("Arquivo não encontrado. ID: {}", fileId);
+                return null;
+            }
+            try (InputStream in = content.get()) {
+                return in.readAllBytes();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler arquivo " + fileId, e);
+        }
+    }
+}
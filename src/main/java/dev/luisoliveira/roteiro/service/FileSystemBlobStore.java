@@ -0,0 +1,307 @@
+package dev.luisoliveira.roteiro.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento de arquivos em disco local, para instalações de um único nó.
+ *
+ * Layout sob app.storage.filesystem.path:
+ * objects/&lt;xx&gt;/&lt;yy&gt;/&lt;id&gt; (conteúdo) e &lt;id&gt;.meta (metadados),
+ * com os diretórios particionados pelos últimos bytes do ID;
+ * by-process/&lt;processId&gt;/&lt;id&gt; (marcadores vazios para listar por processo);
+ * tmp/ (gravações em andamento).
+ *
+ * O conteúdo é gravado em tmp/ e movido atomicamente para o destino; o .meta é
+ * gravado por último e marca o arquivo como completo.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "filesystem")
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{24}");
+    private static final Pattern PROCESS_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+    private static final String META_SUFFIX = ".meta";
+
+    @Value("${app.storage.filesystem.path:./blobs}")
+    private String rootPath;
+
+    private Path root;
+    private Path objects;
+    private Path byProcess;
+    private Path tmp;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootPath).toAbsolutePath().normalize();
+        objects = Files.createDirectories(root.resolve("objects"));
+        byProcess = Files.createDirectories(root.resolve("by-process"));
+        tmp = Files.createDirectories(root.resolve("tmp"));
+        log.info("FileSystemBlobStore inicializado em {}", root);
+    }
+
+    @Override
+    public String store(String filename, InputStream content, String contentType, String processId) {
+        String id = new ObjectId().toHexString();
+        Path dataTmp = tmp.resolve(id);
+        try {
+            log.info("Salvando arquivo em disco: {}", filename);
+            long length = 0;
+            try (FileChannel channel = FileChannel.open(dataTmp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+                    ReadableByteChannel source = Channels.newChannel(content)) {
+                long transferred;
+                while ((transferred = channel.transferFrom(source, length, 1 << 20)) > 0) {
+                    length += transferred;
+                }
+            }
+
+            Path dir = Files.createDirectories(shardDir(id));
+            moveAtomically(dataTmp, dir.resolve(id));
+
+            if (processId != null && PROCESS_ID_PATTERN.matcher(processId).matches()) {
+                Path processDir = Files.createDirectories(byProcess.resolve(processId));
+                Files.write(processDir.resolve(id), new byte[0]);
+            }
+
+            Properties meta = new Properties();
+            meta.setProperty("filename", filename != null ? filename : id);
+            meta.setProperty("contentType", contentType != null ? contentType : "application/octet-stream");
+            meta.setProperty("length", String.valueOf(length));
+            meta.setProperty("uploadDate", Instant.now().toString());
+            if (processId != null) {
+                meta.setProperty("processId", processId);
+            }
+            Path metaTmp = tmp.resolve(id + META_SUFFIX);
+            try (Writer writer = Files.newBufferedWriter(metaTmp, StandardCharsets.UTF_8)) {
+                meta.store(writer, null);
+            }
+            moveAtomically(metaTmp, dir.resolve(id + META_SUFFIX));
+
+            log.info("Arquivo salvo com sucesso. ID: {} ({} bytes)", id, length);
+            return id;
+        } catch (IOException e) {
+            log.error("Erro ao salvar arquivo em disco: {}", e.getMessage(), e);
+            try {
+                Files.deleteIfExists(dataTmp);
+            } catch (IOException ignored) {
+                // removido depois por purgeIncomplete
+            }
+            throw new RuntimeException("Erro ao salvar arquivo em disco", e);
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> find(String id) {
+        if (!isValidId(id)) {
+            return Optional.empty();
+        }
+        return readMeta(shardDir(id).resolve(id + META_SUFFIX));
+    }
+
+    @Override
+    public Optional<InputStream> open(String id) throws IOException {
+        if (find(id).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.newInputStream(shardDir(id).resolve(id)));
+    }
+
+    /**
+     * Copia via FileChannel.transferTo, que usa cópia sem buffer intermediário
+     * quando o destino permite
+     */
+    @Override
+    public long transferTo(String id, OutputStream out) throws IOException {
+        if (find(id).isEmpty()) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(shardDir(id).resolve(id), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public List<BlobInfo> listByProcess(String processId) {
+        List<BlobInfo> files = new ArrayList<>();
+        if (processId == null || !PROCESS_ID_PATTERN.matcher(processId).matches()) {
+            return files;
+        }
+        Path processDir = byProcess.resolve(processId);
+        if (!Files.isDirectory(processDir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(processDir)) {
+            for (Path marker : markers) {
+                find(marker.getFileName().toString()).ifPresent(files::add);
+            }
+        } catch (IOException e) {
+            log.error("Erro ao listar arquivos do processo {}: {}", processId, e.getMessage());
+        }
+        files.sort(Comparator.comparing(BlobInfo::uploadDate));
+        return files;
+    }
+
+    @Override
+    public Stream<BlobInfo> scan(Instant uploadedBefore) {
+        try {
+            return Files.walk(objects, 3)
+                    .filter(path -> path.getFileName().toString().endsWith(META_SUFFIX))
+                    .map(this::readMeta)
+                    .flatMap(Optional::stream)
+                    .filter(info -> info.uploadDate().isBefore(uploadedBefore));
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao percorrer arquivos em disco", e);
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        if (!isValidId(id)) {
+            return;
+        }
+        try {
+            Path dir = shardDir(id);
+            Optional<BlobInfo> info = readMeta(dir.resolve(id + META_SUFFIX));
+            // O .meta sai primeiro: sem ele o arquivo deixa de existir para os leitores
+            Files.deleteIfExists(dir.resolve(id + META_SUFFIX));
+            Files.deleteIfExists(dir.resolve(id));
+            if (info.isPresent() && info.get().processId() != null
+                    && PROCESS_ID_PATTERN.matcher(info.get().processId()).matches()) {
+                Files.deleteIfExists(byProcess.resolve(info.get().processId()).resolve(id));
+            }
+        } catch (IOException e) {
+            log.error("Erro ao excluir arquivo em disco: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao excluir arquivo em disco", e);
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        ids.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteByProcess(String processId) {
+        listByProcess(processId).forEach(info -> delete(info.id()));
+    }
+
+    /**
+     * Remove temporários antigos e conteúdos sem .meta (gravações interrompidas)
+     */
+    @Override
+    public long purgeIncomplete(Instant startedBefore, int batchSize, long batchPauseMs)
+            throws InterruptedException {
+        long removed = 0;
+        try (Stream<Path> files = Stream.concat(Files.list(tmp), Files.walk(objects, 3))) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (!Files.isRegularFile(path) || path.getFileName().toString().endsWith(META_SUFFIX)) {
+                    continue;
+                }
+                boolean incomplete = path.startsWith(tmp)
+                        || !Files.exists(path.resolveSibling(path.getFileName() + META_SUFFIX));
+                if (incomplete && Files.getLastModifiedTime(path).toInstant().isBefore(startedBefore)) {
+                    Files.deleteIfExists(path);
+                    removed++;
+                    if (removed % batchSize == 0 && batchPauseMs > 0) {
+                        Thread.sleep(batchPauseMs);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Erro ao remover gravações incompletas: {}", e.getMessage(), e);
+        }
+        return removed;
+    }
+
+    @Override
+    public String getLocation() {
+        return root.toString();
+    }
+
+    @Override
+    public Optional<Path> getLocalRoot() {
+        return Optional.of(root);
+    }
+
+    private Optional<BlobInfo> readMeta(Path metaFile) {
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Metadados ilegíveis em {}: {}", metaFile, e.getMessage());
+            return Optional.empty();
+        }
+        String name = metaFile.getFileName().toString();
+        String id = name.substring(0, name.length() - META_SUFFIX.length());
+        return Optional.of(new BlobInfo(
+                id,
+                meta.getProperty("filename"),
+                meta.getProperty("contentType"),
+                Long.parseLong(Objects.requireNonNullElse(meta.getProperty("length"), "0")),
+                meta.getProperty("processId"),
+                Instant.parse(meta.getProperty("uploadDate"))));
+    }
+
+    /**
+     * Os primeiros bytes do ObjectId são o timestamp; os últimos (contador)
+     * distribuem melhor os arquivos entre os diretórios
+     */
+    private Path shardDir(String id) {
+        return objects.resolve(id.substring(20, 22)).resolve(id.substring(22, 24));
+    }
+
+    private boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
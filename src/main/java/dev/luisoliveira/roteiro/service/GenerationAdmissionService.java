@@ -0,0 +1,174 @@
+package dev.luisoliveira.roteiro.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Controle de admissão de novas gerações por usuário.
+ *
+ * Cada usuário tem um token bucket de submissões (submitsPerMinute, com
+ * rajada de até burst) e um limite de processos em andamento (maxInFlight).
+ * Ambos são atualizados com compare-and-set, sem locks. Os limites podem ser
+ * alterados em tempo de execução e valem para as próximas requisições.
+ *
+ * Uma vaga de processo em andamento é devolvida quando o processo termina
+ * (100% ou erro) ou sai do registro em memória.
+ */
+@Service
+@Slf4j
+public class GenerationAdmissionService {
+
+    private final Map<String, UserQuota> quotas = new ConcurrentHashMap<>();
+    private final Map<String, UserQuota> admittedProcesses = new ConcurrentHashMap<>();
+    private volatile Limits limits;
+
+    public GenerationAdmissionService(
+            @Value("${app.admission.submits-per-minute:6}") int submitsPerMinute,
+            @Value("${app.admission.burst:3}") int burst,
+            @Value("${app.admission.max-in-flight:2}") int maxInFlight) {
+        this.limits = new Limits(submitsPerMinute, burst, maxInFlight);
+        this.limits.validate();
+    }
+
+    /**
+     * Limites de admissão por usuário
+     */
+    public record Limits(int submitsPerMinute, int burst, int maxInFlight) {
+        void validate() {
+            if (submitsPerMinute <= 0 || burst <= 0 || maxInFlight <= 0) {
+                throw new IllegalArgumentException("Os limites de admissão devem ser maiores que zero");
+            }
+        }
+    }
+
+    /**
+     * Resultado da admissão
+     *
+     * @param retryAfterSeconds Segundos até uma nova tentativa poder ser aceita (0 se admitido)
+     */
+    public record Admission(boolean allowed, long retryAfterSeconds, String reason) {
+    }
+
+    // Estado imutável do bucket, trocado por compare-and-set
+    private record BucketState(double tokens, long refilledAtNanos) {
+    }
+
+    // Cota de um usuário
+    private static class UserQuota {
+        private final AtomicReference<BucketState> bucket;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastUsedNanos;
+
+        private UserQuota(int burst, long now) {
+            this.bucket = new AtomicReference<>(new BucketState(burst, now));
+            this.lastUsedNanos = now;
+        }
+    }
+
+    /**
+     * Tenta admitir um novo processo do usuário
+     *
+     * @param userKey   ID do usuário (ou outra chave do cliente)
+     * @param processId ID do processo que será criado se admitido
+     */
+    public Admission tryAdmit(String userKey, String processId) {
+        Limits current = limits;
+        long now = System.nanoTime();
+        UserQuota quota = quotas.computeIfAbsent(userKey, key -> new UserQuota(current.burst(), now));
+        quota.lastUsedNanos = now;
+
+        if (!tryAcquireSlot(quota, current.maxInFlight())) {
+            log.warn("[ADMISSÃO] Usuário {} atingiu o limite de {} processos em andamento", userKey,
+                    current.maxInFlight());
+            // Sem previsão exata de término: sugere nova tentativa em alguns segundos
+            return new Admission(false, 30, "Limite de " + current.maxInFlight() + " processos em andamento atingido");
+        }
+
+        long waitNanos = tryTakeToken(quota, current, now);
+        if (waitNanos > 0) {
+            quota.inFlight.decrementAndGet();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.warn("[ADMISSÃO] Usuário {} excedeu {} gerações por minuto (nova tentativa em {}s)", userKey,
+                    current.submitsPerMinute(), retryAfter);
+            return new Admission(false, retryAfter,
+                    "Limite de " + current.submitsPerMinute() + " gerações por minuto atingido");
+        }
+
+        admittedProcesses.put(processId, quota);
+        return new Admission(true, 0, null);
+    }
+
+    /**
+     * Devolve a vaga do processo (chamadas repetidas são ignoradas)
+     */
+    public void release(String processId) {
+        UserQuota quota = admittedProcesses.remove(processId);
+        if (quota != null) {
+            quota.inFlight.decrementAndGet();
+        }
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Altera os limites em tempo de execução
+     */
+    public Limits setLimits(Limits newLimits) {
+        newLimits.validate();
+        limits = newLimits;
+        log.info("[ADMISSÃO] Limites alterados: {} gerações/min, rajada {}, {} em andamento",
+                newLimits.submitsPerMinute(), newLimits.burst(), newLimits.maxInFlight());
+        return newLimits;
+    }
+
+    /**
+     * Remove as cotas de usuários inativos sem processos em andamento
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(30);
+        quotas.values().removeIf(quota -> quota.inFlight.get() == 0 && quota.lastUsedNanos - cutoff < 0);
+    }
+
+    private boolean tryAcquireSlot(UserQuota quota, int maxInFlight) {
+        while (true) {
+            int current = quota.inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (quota.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Consome um token do bucket
+     *
+     * @return 0 se consumido, ou os nanossegundos até haver um token
+     */
+    private long tryTakeToken(UserQuota quota, Limits current, long now) {
+        double tokensPerNano = current.submitsPerMinute() / (double) TimeUnit.MINUTES.toNanos(1);
+        while (true) {
+            BucketState state = quota.bucket.get();
+            double elapsed = Math.max(0, now - state.refilledAtNanos());
+            double tokens = Math.min(current.burst(), state.tokens() + elapsed * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (quota.bucket.compareAndSet(state, new BucketState(tokens - 1, Math.max(now, state.refilledAtNanos())))) {
+                return 0;
+            }
+        }
+    }
+}
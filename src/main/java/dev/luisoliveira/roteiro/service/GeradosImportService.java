@@ -0,0 +1,342 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Importa para o MongoDB o acervo histórico gravado em disco
+ * (gerados/&lt;titulo&gt;/texto/*_meta.txt, *.srt, *_short.srt e os MP3 em audio/ ou
+ * em subpastas UUID).
+ *
+ * Cada item recebe um processId determinístico derivado do caminho relativo, de
+ * forma que reexecuções pulam o que já foi importado. A oração só é gravada
+ * depois dos arquivos; se a importação for interrompida no meio de um item, os
+ * arquivos parciais são descartados na próxima execução (ou pela limpeza de
+ * órfãos).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeradosImportService {
+
+    private static final String META_SUFFIX = "_meta.txt";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BlobStore blobStore;
+
+    @Value("${file.output.path:./gerados}")
+    private String outputPath;
+
+    @Value("${app.import.threads:4}")
+    private int threads;
+
+    @Value("${app.import.batch-size:50}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Map<String, Object> lastReport = new HashMap<>();
+
+    /**
+     * Inicia a importação em segundo plano
+     *
+     * @return false se já houver uma importação em andamento
+     */
+    public boolean startImport() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                lastReport = importAll();
+            } catch (Exception e) {
+                log.error("[IMPORTAÇÃO] Erro na importação do acervo: {}", e.getMessage(), e);
+                Map<String, Object> report = new HashMap<>();
+                report.put("error", e.getMessage());
+                lastReport = report;
+            } finally {
+                running.set(false);
+            }
+        }, "gerados-import");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Percorre o acervo, importa em paralelo os itens ainda não importados e
+     * grava as orações com inserções em lote
+     *
+     * @return Relatório com os contadores da execução
+     */
+    public Map<String, Object> importAll() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Path root = Paths.get(outputPath).toAbsolutePath().normalize();
+        log.info("[IMPORTAÇÃO] Iniciando importação do acervo em {}", root);
+
+        List<Path> metaFiles;
+        try (Stream<Path> walk = Files.walk(root)) {
+            metaFiles = walk.filter(path -> path.getFileName().toString().endsWith(META_SUFFIX))
+                    .filter(path -> path.getParent() != null
+                            && "texto".equals(path.getParent().getFileName().toString()))
+                    .toList();
+        }
+
+        Map<String, Path> pending = new HashMap<>();
+        for (Path meta : metaFiles) {
+            pending.put(processIdFor(root, meta), meta);
+        }
+        Set<String> imported = findImported(pending.keySet());
+        imported.forEach(pending::remove);
+        log.info("[IMPORTAÇÃO] {} itens encontrados, {} já importados, {} pendentes",
+                metaFiles.size(), imported.size(), pending.size());
+
+        // Itens enviados ao pool um lote de cada vez: só um lote de orações fica em memória
+        int inserted = 0;
+        int duplicates = 0;
+        int failed = 0;
+        List<Map.Entry<String, Path>> items = new ArrayList<>(pending.entrySet());
+        int chunkSize = Math.max(1, batchSize);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (int from = 0; from < items.size(); from += chunkSize) {
+                List<Future<PrayerContent>> futures = new ArrayList<>();
+                for (Map.Entry<String, Path> entry : items.subList(from, Math.min(from + chunkSize, items.size()))) {
+                    futures.add(executor.submit(() -> importItem(root, entry.getKey(), entry.getValue())));
+                }
+
+                List<PrayerContent> batch = new ArrayList<>();
+                for (Future<PrayerContent> future : futures) {
+                    try {
+                        batch.add(future.get());
+                    } catch (ExecutionException e) {
+                        failed++;
+                        log.error("[IMPORTAÇÃO] Falha ao importar item: {}", e.getCause().getMessage());
+                    }
+                }
+                BatchResult result = insertBatch(batch);
+                inserted += result.inserted();
+                duplicates += result.duplicates();
+                failed += result.failed();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("found", metaFiles.size());
+        report.put("skipped", imported.size() + duplicates);
+        report.put("imported", inserted);
+        report.put("failed", failed);
+        report.put("durationMs", System.currentTimeMillis() - start);
+        log.info("[IMPORTAÇÃO] Importação concluída: {}", report);
+        return report;
+    }
+
+    /**
+     * Importa um item: envia SRTs e MP3s ao BlobStore e monta a oração (ainda não gravada)
+     */
+    private PrayerContent importItem(Path root, String processId, Path metaFile) throws IOException {
+        Path textoDir = metaFile.getParent();
+        Path itemDir = textoDir.getParent();
+        String baseName = metaFile.getFileName().toString();
+        baseName = baseName.substring(0, baseName.length() - META_SUFFIX.length());
+
+        // Descarta arquivos de uma tentativa anterior interrompida deste item
+        blobStore.deleteByProcess(processId);
+
+        MetaContent meta = parseMeta(Files.readString(metaFile, StandardCharsets.UTF_8));
+
+        storeIfExists(textoDir.resolve(baseName + ".srt"), "text/plain", processId);
+        storeIfExists(textoDir.resolve(baseName + "_short.srt"), "text/plain", processId);
+
+        String fullAudioId = null;
+        List<Path> audios;
+        try (Stream<Path> walk = Files.walk(itemDir, 2)) {
+            audios = walk.filter(path -> path.getFileName().toString().toLowerCase().endsWith(".mp3")).toList();
+        }
+        for (Path audio : audios) {
+            String fileId = storeIfExists(audio, "audio/mpeg", processId);
+            if (fullAudioId == null && !audio.getFileName().toString().toLowerCase().endsWith("_short.mp3")) {
+                fullAudioId = fileId;
+            }
+        }
+
+        PrayerContent prayer = new PrayerContent();
+        prayer.setId(UUID.nameUUIDFromBytes(("prayer:" + root.relativize(metaFile)).getBytes(StandardCharsets.UTF_8)));
+        prayer.setProcessId(processId);
+        prayer.setSource(PrayerContent.SOURCE_IMPORT);
+        prayer.setTitle(meta.title != null ? meta.title : itemDir.getFileName().toString());
+        prayer.setAlternateTitles(meta.alternateTitles.isEmpty() ? null : List.copyOf(meta.alternateTitles));
+        prayer.setTexto(meta.oracao);
+        prayer.setShortContent(meta.shortContent);
+        prayer.setDescription(meta.description);
+        prayer.setAudioUrl(fullAudioId);
+
+        LocalDateTime modified = LocalDateTime.ofInstant(Files.getLastModifiedTime(metaFile).toInstant(),
+                ZoneId.systemDefault());
+        prayer.setCreatedAt(modified);
+        prayer.setUpdatedAt(LocalDateTime.now());
+
+        log.debug("[IMPORTAÇÃO] Item preparado: {} ({} títulos alternativos, {} áudios)",
+                prayer.getTitle(), meta.alternateTitles.size(), audios.size());
+        return prayer;
+    }
+
+    private String storeIfExists(Path file, String contentType, String processId) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return blobStore.store(file.getFileName().toString(), in, contentType, processId);
+        }
+    }
+
+    /**
+     * Resultado da gravação de um lote
+     *
+     * @param duplicates Itens já importados por uma execução concorrente (_id/processId repetido)
+     */
+    private record BatchResult(int inserted, int duplicates, int failed) {
+    }
+
+    private BatchResult insertBatch(List<PrayerContent> batch) {
+        if (batch.isEmpty()) {
+            return new BatchResult(0, 0, 0);
+        }
+        try {
+            int inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PrayerContent.class)
+                    .insert(batch)
+                    .execute()
+                    .getInsertedCount();
+            return new BatchResult(inserted, 0, batch.size() - inserted);
+        } catch (BulkOperationException e) {
+            // Modo não ordenado: os demais itens do lote foram gravados
+            int inserted = e.getResult().getInsertedCount();
+            int duplicates = (int) e.getErrors().stream().filter(error -> error.getCode() == DUPLICATE_KEY).count();
+            int failed = batch.size() - inserted - duplicates;
+            if (failed > 0) {
+                log.error("[IMPORTAÇÃO] {} orações do lote não foram gravadas: {}", failed, e.getMessage());
+            }
+            return new BatchResult(inserted, duplicates, failed);
+        } catch (Exception e) {
+            log.error("[IMPORTAÇÃO] Falha ao gravar lote de {} orações: {}", batch.size(), e.getMessage());
+            return new BatchResult(0, 0, batch.size());
+        }
+    }
+
+    private Set<String> findImported(Set<String> processIds) {
+        Set<String> imported = new HashSet<>();
+        List<String> ids = new ArrayList<>(processIds);
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<String> slice = ids.subList(from, Math.min(from + 500, ids.size()));
+            imported.addAll(mongoTemplate.findDistinct(new Query(Criteria.where("processId").in(slice)),
+                    "processId", PrayerContent.class, String.class));
+        }
+        return imported;
+    }
+
+    private String processIdFor(Path root, Path metaFile) {
+        return UUID.nameUUIDFromBytes(("gerados:" + root.relativize(metaFile)).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
+
+    /**
+     * Interpreta o arquivo _meta.txt gerado pela versão em disco do sistema
+     */
+    static MetaContent parseMeta(String content) {
+        MetaContent meta = new MetaContent();
+        StringBuilder oracao = new StringBuilder();
+        StringBuilder shortContent = new StringBuilder();
+        StringBuilder description = new StringBuilder();
+        StringBuilder current = null;
+        boolean alternateTitles = false;
+
+        for (String line : content.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("**Título:")) {
+                meta.title = trimmed.replaceFirst("^\\*\\*Título:\\s*", "").replaceFirst("\\*\\*$", "").trim();
+                current = null;
+                alternateTitles = false;
+            } else if (trimmed.startsWith("**Outros títulos")) {
+                current = null;
+                alternateTitles = true;
+            } else if (trimmed.startsWith("**Oração Completa")) {
+                current = oracao;
+                alternateTitles = false;
+            } else if (trimmed.startsWith("**Short")) {
+                current = shortContent;
+                alternateTitles = false;
+            } else if (trimmed.startsWith("**Nota:")) {
+                // Orações curtas não têm versão short
+                current = null;
+                alternateTitles = false;
+            } else if (trimmed.startsWith("**Descrição")) {
+                current = description;
+                alternateTitles = false;
+            } else if (alternateTitles) {
+                if (trimmed.startsWith("- ")) {
+                    meta.alternateTitles.add(trimmed.substring(2).trim());
+                }
+            } else if (current != null) {
+                current.append(line).append('\n');
+            }
+        }
+
+        meta.oracao = emptyToNull(oracao);
+        meta.shortContent = emptyToNull(shortContent);
+        meta.description = emptyToNull(description);
+        return meta;
+    }
+
+    private static String emptyToNull(StringBuilder builder) {
+        String value = builder.toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static class MetaContent {
+        String title;
+        List<String> alternateTitles = new ArrayList<>();
+        String oracao;
+        String shortContent;
+        String description;
+    }
+}
@@ -0,0 +1,252 @@
+package dev.luisoliveira.roteiro.service;
+
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Armazenamento de arquivos no MongoDB usando GridFS (padrão)
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "gridfs", matchIfMissing = true)
+@Slf4j
+@RequiredArgsConstructor
+public class GridFsBlobStore implements BlobStore {
+
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String CHUNKS_COLLECTION = "fs.chunks";
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    @Override
+    public String store(String filename, InputStream content, String contentType, String processId) {
+        try {
+            log.info("Salvando arquivo no MongoDB GridFS: {}", filename);
+            ObjectId fileId = gridFsTemplate.store(content, filename, contentType, buildMetadata(processId));
+            log.info("Arquivo salvo com sucesso. ID: {}", fileId.toString());
+            return fileId.toString();
+        } catch (Exception e) {
+            log.error("Erro ao salvar arquivo no MongoDB GridFS: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao salvar arquivo no MongoDB GridFS", e);
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> find(String id) {
+        if (!ObjectId.isValid(id)) {
+            return Optional.empty();
+        }
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(new ObjectId(id))));
+        return Optional.ofNullable(file).map(this::toInfo);
+    }
+
+    @Override
+    public Optional<InputStream> open(String id) {
+        if (!ObjectId.isValid(id)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(bucket().openDownloadStream(new ObjectId(id)));
+        } catch (MongoGridFSException e) {
+            log.warn("Arquivo não encontrado no MongoDB GridFS. ID: {}", id);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public long transferTo(String id, OutputStream out) throws IOException {
+        Optional<InputStream> content = open(id);
+        if (content.isEmpty()) {
+            return -1;
+        }
+        try (GridFSDownloadStream in = (GridFSDownloadStream) content.get()) {
+            return in.transferTo(out);
+        }
+    }
+
+    @Override
+    public List<BlobInfo> listByProcess(String processId) {
+        List<BlobInfo> files = new ArrayList<>();
+        gridFsTemplate.find(new Query(Criteria.where("metadata.processId").is(processId))
+                .with(Sort.by("uploadDate")))
+                .forEach(file -> files.add(toInfo(file)));
+        return files;
+    }
+
+    @Override
+    public Stream<BlobInfo> scan(Instant uploadedBefore) {
+        MongoCursor<GridFSFile> cursor = bucket().find(Filters.lt("uploadDate", Date.from(uploadedBefore)))
+                .batchSize(500)
+                .iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .map(this::toInfo)
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public void delete(String id) {
+        if (!ObjectId.isValid(id)) {
+            return;
+        }
+        try {
+            log.info("Excluindo arquivo do MongoDB GridFS. ID: {}", id);
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(id))));
+        } catch (Exception e) {
+            log.error("Erro ao excluir arquivo do MongoDB GridFS: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao excluir arquivo do MongoDB GridFS", e);
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        List<ObjectId> objectIds = ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (!objectIds.isEmpty()) {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").in(objectIds)));
+        }
+    }
+
+    @Override
+    public void deleteByProcess(String processId) {
+        gridFsTemplate.delete(new Query(Criteria.where("metadata.processId").is(processId)));
+    }
+
+    /**
+     * Remove chunks cujo arquivo não existe mais em fs.files (uploads interrompidos).
+     *
+     * Percorre os files_id de fs.chunks em ordem, uma página de cada vez a
+     * partir do último ID visto (índice files_id_1_n_1), sem carregar todos em
+     * memória. Só entram IDs cujo timestamp é anterior a startedBefore: um
+     * upload recente ainda pode estar gravando chunks antes do fs.files.
+     *
+     * @return Quantidade de arquivos inexistentes cujos chunks foram removidos
+     */
+    @Override
+    public long purgeIncomplete(Instant startedBefore, int batchSize, long batchPauseMs)
+            throws InterruptedException {
+        MongoCollection<Document> files = mongoTemplate.getCollection(FILES_COLLECTION);
+        MongoCollection<Document> chunks = mongoTemplate.getCollection(CHUNKS_COLLECTION);
+        ObjectId cutoff = firstIdAt(startedBefore);
+
+        long removed = 0;
+        ObjectId last = null;
+        while (true) {
+            List<ObjectId> page = nextFileIds(chunks, last, cutoff, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            last = page.get(page.size() - 1);
+
+            Set<ObjectId> existing = new HashSet<>();
+            files.distinct("_id", Filters.in("_id", page), ObjectId.class).into(existing);
+
+            List<ObjectId> missing = page.stream().filter(id -> !existing.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                chunks.deleteMany(Filters.in("files_id", missing));
+                removed += missing.size();
+                log.debug("Chunks de {} arquivos inexistentes removidos", missing.size());
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+            if (batchPauseMs > 0) {
+                Thread.sleep(batchPauseMs);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Próximos files_id distintos de fs.chunks depois de after e antes de cutoff
+     */
+    private List<ObjectId> nextFileIds(MongoCollection<Document> chunks, ObjectId after, ObjectId cutoff,
+            int limit) {
+        Bson range = after != null
+                ? Filters.and(Filters.gt("files_id", after), Filters.lt("files_id", cutoff))
+                : Filters.lt("files_id", cutoff);
+        List<ObjectId> ids = new ArrayList<>();
+        try (MongoCursor<Document> cursor = chunks.find(range)
+                .projection(Projections.fields(Projections.include("files_id"), Projections.excludeId()))
+                .sort(Sorts.ascending("files_id"))
+                .batchSize(limit)
+                .iterator()) {
+            // Arquivos com vários chunks aparecem em sequência: basta comparar com o anterior
+            while (cursor.hasNext() && ids.size() < limit) {
+                ObjectId id = cursor.next().getObjectId("files_id");
+                if (ids.isEmpty() || !ids.get(ids.size() - 1).equals(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Menor ObjectId com o timestamp do instante (segundos)
+    private static ObjectId firstIdAt(Instant instant) {
+        return new ObjectId(String.format("%08x%016x", instant.getEpochSecond(), 0));
+    }
+
+    @Override
+    public String getLocation() {
+        return "gridfs://" + mongoTemplate.getDb().getName() + "/fs";
+    }
+
+    private GridFSBucket bucket() {
+        return GridFSBuckets.create(mongoTemplate.getDb());
+    }
+
+    private BlobInfo toInfo(GridFSFile file) {
+        Document metadata = file.getMetadata();
+        String contentType = metadata != null ? metadata.getString("_contentType") : null;
+        String processId = metadata != null ? metadata.getString("processId") : null;
+        return new BlobInfo(file.getObjectId().toHexString(), file.getFilename(), contentType,
+                file.getLength(), processId, file.getUploadDate().toInstant());
+    }
+
+    /**
+     * Monta os metadados do arquivo. O processId permite que a limpeza
+     * identifique arquivos cuja oração já não existe mais.
+     */
+    private Document buildMetadata(String processId) {
+        Document metadata = new Document();
+        if (processId != null) {
+            metadata.append("processId", processId);
+        }
+        return metadata;
+    }
+}
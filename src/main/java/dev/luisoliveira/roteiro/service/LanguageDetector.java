@@ -0,0 +1,293 @@
+package dev.luisoliveira.roteiro.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Identificação do idioma de um texto gerado (es, pt, en) por trigramas de
+ * caracteres.
+ *
+ * Os perfis são calculados uma vez na inicialização a partir dos textos de
+ * resources/language-profiles e guardados em uma tabela única (trigrama ->
+ * log-probabilidade por idioma). A detecção percorre o texto uma vez, sem
+ * criar strings, e devolve a probabilidade de cada idioma; a confiança é a
+ * probabilidade do idioma esperado.
+ *
+ * es-MX é verificado como es: a diferença entre as variantes está no
+ * vocabulário, não nos trigramas.
+ */
+@Service
+@Slf4j
+public class LanguageDetector {
+
+    private static final String[] LANGUAGES = { "es", "pt", "en" };
+    private static final String PROFILE_PATH = "language-profiles/%s.txt";
+
+    // Atenua as log-verossimilhanças (trigramas vizinhos não são independentes) para
+    // que a confiança não sature em textos curtos
+    private static final double SCORE_SCALE = 0.5;
+
+    @Value("${app.language-detection.min-confidence:0.5}")
+    private double minConfidence;
+
+    @Value("${app.language-detection.min-trigrams:20}")
+    private int minTrigrams;
+
+    private final TrigramTable table;
+    private final Map<String, StageStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Resultado de uma verificação
+     *
+     * @param detected Idioma mais provável
+     * @param confidence Probabilidade do idioma esperado (1.0 quando o texto é curto demais para julgar)
+     */
+    public record Detection(String expected, String detected, double confidence, int trigrams) {
+    }
+
+    private static class StageStats {
+        private final LongAdder checks = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    public LanguageDetector() {
+        this.table = buildTable();
+    }
+
+    /**
+     * Verifica se o texto está no idioma do processo
+     *
+     * @param stage Estágio que gerou o texto (estatísticas)
+     * @param text Texto gerado
+     * @param idioma Idioma do processo (es, es-MX, pt, pt-BR, en)
+     */
+    public Detection check(String stage, String text, String idioma) {
+        int expected = languageIndex(idioma);
+        double[] scores = new double[LANGUAGES.length];
+        int trigrams = score(text, scores);
+
+        Detection detection;
+        if (trigrams < minTrigrams) {
+            detection = new Detection(LANGUAGES[expected], LANGUAGES[expected], 1.0, trigrams);
+        } else {
+            // Probabilidades a partir das log-verossimilhanças (softmax)
+            int best = 0;
+            double max = scores[0];
+            for (int i = 1; i < scores.length; i++) {
+                if (scores[i] > max) {
+                    max = scores[i];
+                    best = i;
+                }
+            }
+            double sum = 0;
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = Math.exp((scores[i] - max) * SCORE_SCALE);
+                sum += scores[i];
+            }
+            detection = new Detection(LANGUAGES[expected], LANGUAGES[best], scores[expected] / sum, trigrams);
+        }
+
+        StageStats stageStats = stats.computeIfAbsent(stage, key -> new StageStats());
+        stageStats.checks.increment();
+        if (!isAccepted(detection)) {
+            stageStats.rejected.increment();
+        }
+        return detection;
+    }
+
+    /**
+     * Indica se o texto pode ser usado como está; abaixo do limiar o estágio
+     * gera o texto de novo
+     */
+    public boolean isAccepted(Detection detection) {
+        return detection.confidence() >= minConfidence;
+    }
+
+    /**
+     * Verificações e regenerações por estágio, exposto em /config/language-detection
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stages = new HashMap<>();
+        stats.forEach((stage, stageStats) -> {
+            Map<String, Object> line = new HashMap<>();
+            line.put("checks", stageStats.checks.sum());
+            line.put("belowThreshold", stageStats.rejected.sum());
+            stages.put(stage, line);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("stages", stages);
+        result.put("minConfidence", minConfidence);
+        result.put("minTrigrams", minTrigrams);
+        result.put("profileTrigrams", table.size);
+        return result;
+    }
+
+    /**
+     * Soma em scores a log-verossimilhança do texto em cada idioma
+     *
+     * @return Quantidade de trigramas avaliados
+     */
+    private int score(String text, double[] scores) {
+        if (text == null) {
+            return 0;
+        }
+        int trigrams = 0;
+        char first = ' ';
+        char second = ' ';
+        for (int i = 0; i <= text.length(); i++) {
+            char current;
+            if (i < text.length() && text.charAt(i) == '#') {
+                // Hashtags seguem o padrão do canal, não o idioma do texto: a hashtag
+                // inteira (inclusive o último caractere) conta como um separador
+                while (i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+                    i++;
+                }
+                current = ' ';
+            } else {
+                current = i < text.length() ? normalize(text.charAt(i)) : ' ';
+            }
+            if (current == ' ' && second == ' ') {
+                continue; // Espaços e pontuação seguidos contam como um único separador
+            }
+            if (!(first == ' ' && second == ' ')) {
+                int slot = table.find(key(first, second, current));
+                for (int language = 0; language < scores.length; language++) {
+                    scores[language] += slot >= 0
+                            ? table.logProbabilities[slot * LANGUAGES.length + language]
+                            : table.unseen[language];
+                }
+                trigrams++;
+            }
+            first = second;
+            second = current;
+        }
+        return trigrams;
+    }
+
+    private static char normalize(char c) {
+        return Character.isLetter(c) ? Character.toLowerCase(c) : ' ';
+    }
+
+    private static long key(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static int languageIndex(String idioma) {
+        String language = idioma != null ? idioma.toLowerCase(Locale.ROOT) : "es";
+        if (language.startsWith("pt")) {
+            return 1;
+        } else if (language.startsWith("en")) {
+            return 2;
+        }
+        return 0;
+    }
+
+    private static TrigramTable buildTable() {
+        Map<Long, int[]> counts = new HashMap<>();
+        int[] totals = new int[LANGUAGES.length];
+        for (int language = 0; language < LANGUAGES.length; language++) {
+            String text = readProfile(LANGUAGES[language]);
+            final int index = language;
+            char first = ' ';
+            char second = ' ';
+            for (int i = 0; i <= text.length(); i++) {
+                char current = i < text.length() ? normalize(text.charAt(i)) : ' ';
+                if (current == ' ' && second == ' ') {
+                    continue;
+                }
+                if (!(first == ' ' && second == ' ')) {
+                    counts.computeIfAbsent(key(first, second, current), k -> new int[LANGUAGES.length])[index]++;
+                    totals[index]++;
+                }
+                first = second;
+                second = current;
+            }
+        }
+
+        // Suavização de Laplace sobre o vocabulário de trigramas de todos os perfis
+        int vocabulary = counts.size();
+        TrigramTable table = new TrigramTable(vocabulary);
+        for (int language = 0; language < LANGUAGES.length; language++) {
+            table.unseen[language] = (float) Math.log(1.0 / (totals[language] + vocabulary));
+        }
+        counts.forEach((key, languageCounts) -> {
+            int slot = table.insert(key);
+            for (int language = 0; language < LANGUAGES.length; language++) {
+                table.logProbabilities[slot * LANGUAGES.length + language] =
+                        (float) Math.log((languageCounts[language] + 1.0) / (totals[language] + vocabulary));
+            }
+        });
+        log.info("[IDIOMA] Perfis de trigramas carregados: {} trigramas ({})", vocabulary,
+                Arrays.toString(LANGUAGES));
+        return table;
+    }
+
+    private static String readProfile(String language) {
+        try (InputStream in = new ClassPathResource(String.format(PROFILE_PATH, language)).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Perfil de idioma não encontrado: " + language, e);
+        }
+    }
+
+    // Tabela de endereçamento aberto trigrama -> posição, sem boxing na consulta
+    private static final class TrigramTable {
+        private final long[] keys;
+        private final boolean[] used;
+        private final float[] logProbabilities;
+        private final float[] unseen = new float[LANGUAGES.length];
+        private final int mask;
+        private int size;
+
+        private TrigramTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            logProbabilities = new float[capacity * LANGUAGES.length];
+            mask = capacity - 1;
+        }
+
+        private int insert(long key) {
+            int slot = hash(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            return slot;
+        }
+
+        private int find(long key) {
+            int slot = hash(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
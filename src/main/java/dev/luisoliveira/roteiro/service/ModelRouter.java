@@ -0,0 +1,98 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.config.OpenAIRoutingProperties;
+import dev.luisoliveira.roteiro.config.OpenAIRoutingProperties.StageRoute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escolhe o modelo, a temperatura e o max_tokens de cada chamada ao OpenAI
+ * a partir do estágio e do idioma do processo (openai.routing).
+ *
+ * A busca vai do mais específico ao mais geral: idioma exato do estágio
+ * (ex.: es-MX), idioma base (es), estágio e, por fim, openai.model com
+ * temperatura 0.7 e sem max_tokens.
+ */
+@Service
+@RequiredArgsConstructor
+public class ModelRouter {
+
+    public static final String TITLES = "titles";
+    public static final String ORACAO = "oracao";
+    public static final String SHORT = "short";
+    public static final String CORRECTION = "correction";
+    public static final String DESCRIPTION = "description";
+
+    private static final double DEFAULT_TEMPERATURE = 0.7;
+
+    private final OpenAIRoutingProperties routingProperties;
+
+    @Value("${openai.model:gpt-4}")
+    private String defaultModel;
+
+    /**
+     * Parâmetros de uma chamada
+     *
+     * @param maxTokens Limite de tokens da resposta (null = padrão da API)
+     */
+    public record Route(String stage, String language, String model, double temperature, Integer maxTokens) {
+
+        public Route withMaxTokens(Integer maxTokens) {
+            return new Route(stage, language, model, temperature, maxTokens);
+        }
+    }
+
+    public Route route(String stage, String language) {
+        StageRoute stageRoute = routingProperties.getRouting().get(stage);
+        StageRoute languageRoute = null;
+        if (stageRoute != null && language != null) {
+            languageRoute = stageRoute.getLanguages().get(language);
+            if (languageRoute == null && language.contains("-")) {
+                languageRoute = stageRoute.getLanguages().get(language.substring(0, language.indexOf('-')));
+            }
+        }
+
+        String model = first(languageRoute != null ? languageRoute.getModel() : null,
+                stageRoute != null ? stageRoute.getModel() : null, defaultModel);
+        Double temperature = first(languageRoute != null ? languageRoute.getTemperature() : null,
+                stageRoute != null ? stageRoute.getTemperature() : null, DEFAULT_TEMPERATURE);
+        Integer maxTokens = first(languageRoute != null ? languageRoute.getMaxTokens() : null,
+                stageRoute != null ? stageRoute.getMaxTokens() : null, null);
+        return new Route(stage, language, model, temperature, maxTokens);
+    }
+
+    /**
+     * Tabela efetiva por estágio (sem as exceções por idioma), exposta em
+     * /config/models
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> table = new HashMap<>();
+        for (String stage : new String[] { TITLES, ORACAO, SHORT, CORRECTION, DESCRIPTION }) {
+            Route route = route(stage, null);
+            Map<String, Object> line = new HashMap<>();
+            line.put("model", route.model());
+            line.put("temperature", route.temperature());
+            line.put("maxTokens", route.maxTokens());
+            StageRoute configured = routingProperties.getRouting().get(stage);
+            line.put("languageOverrides", configured != null ? configured.getLanguages().keySet() : Set.of());
+            table.put(stage, line);
+        }
+        table.put("defaultModel", defaultModel);
+        return table;
+    }
+
+    @SafeVarargs
+    private static <T> T first(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
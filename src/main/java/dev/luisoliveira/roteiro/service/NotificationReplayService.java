@@ -0,0 +1,169 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.NotificationMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guarda as últimas mensagens enviadas ao tópico de cada processo, numeradas
+ * em sequência, para que clientes que reconectam recuperem o que perderam (o
+ * broker simples não mantém histórico).
+ *
+ * Ao assinar /topic/notifications/{processId} com o cabeçalho last-seq, o
+ * cliente recebe na hora, na mesma assinatura, as mensagens com sequência
+ * maior que a informada. Mensagens ao vivo podem chegar intercaladas com as
+ * reenviadas: o cliente deve ordenar e descartar repetidas pela sequência.
+ *
+ * Cada processo guarda até app.notifications.replay-size mensagens; o buffer é
+ * removido junto com o processo do registro em memória.
+ */
+@Service
+@Slf4j
+public class NotificationReplayService {
+
+    private static final String PROCESS_TOPIC = "/topic/notifications/";
+    private static final String LAST_SEQUENCE_HEADER = "last-seq";
+
+    private final MessageConverter messageConverter;
+    private final MessageChannel clientOutboundChannel;
+    private final Map<String, ReplayBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Value("${app.notifications.replay-size:32}")
+    private int replaySize;
+
+    @Value("${app.process.stale-ttl-hours:6}")
+    private long staleTtlHours;
+
+    public NotificationReplayService(SimpMessagingTemplate messagingTemplate,
+            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.messageConverter = messagingTemplate.getMessageConverter();
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    // Últimas mensagens de um processo
+    private static class ReplayBuffer {
+        private final Deque<NotificationMessage> messages = new ArrayDeque<>();
+        private long lastSequence;
+        private long lastTouchedNanos = System.nanoTime();
+    }
+
+    /**
+     * Numera a mensagem e a guarda no buffer do processo. Deve ser chamado
+     * antes do envio, para que a mensagem já saia com a sequência.
+     */
+    public void record(String processId, NotificationMessage message) {
+        ReplayBuffer buffer = buffers.computeIfAbsent(processId, id -> new ReplayBuffer());
+        synchronized (buffer) {
+            message.setSequence(++buffer.lastSequence);
+            buffer.messages.addLast(message);
+            while (buffer.messages.size() > Math.max(1, replaySize)) {
+                buffer.messages.removeFirst();
+            }
+            buffer.lastTouchedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Mensagens do processo com sequência maior que lastSequence
+     */
+    public List<NotificationMessage> since(String processId, long lastSequence) {
+        ReplayBuffer buffer = buffers.get(processId);
+        if (buffer == null) {
+            return List.of();
+        }
+        List<NotificationMessage> missed = new ArrayList<>();
+        synchronized (buffer) {
+            for (NotificationMessage message : buffer.messages) {
+                if (message.getSequence() > lastSequence) {
+                    missed.add(message);
+                }
+            }
+        }
+        return missed;
+    }
+
+    public void evict(String processId) {
+        buffers.remove(processId);
+    }
+
+    /**
+     * Reenvia as mensagens perdidas quando a assinatura informa last-seq
+     */
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        String lastSequenceHeader = accessor.getFirstNativeHeader(LAST_SEQUENCE_HEADER);
+        if (destination == null || lastSequenceHeader == null || !destination.startsWith(PROCESS_TOPIC)) {
+            return;
+        }
+
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastSequenceHeader.trim());
+        } catch (NumberFormatException e) {
+            log.debug("[WS] Cabeçalho last-seq inválido: {}", lastSequenceHeader);
+            return;
+        }
+
+        String processId = destination.substring(PROCESS_TOPIC.length());
+        List<NotificationMessage> missed = since(processId, lastSequence);
+        for (NotificationMessage message : missed) {
+            sendToSubscription(accessor.getSessionId(), accessor.getSubscriptionId(), destination, message);
+        }
+        if (!missed.isEmpty()) {
+            log.debug("[WS] {} mensagens reenviadas para a sessão {} (processo {}, após {})",
+                    missed.size(), accessor.getSessionId(), processId, lastSequence);
+        }
+    }
+
+    /**
+     * Remove buffers de processos sem mensagens há mais de stale-ttl-hours
+     * (ex.: processos que nunca passaram pelo registro desta instância)
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.HOURS.toNanos(staleTtlHours);
+        buffers.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return entry.getValue().lastTouchedNanos - cutoff < 0;
+            }
+        });
+    }
+
+    /**
+     * Envia direto para a assinatura da sessão, sem passar pelo broker
+     */
+    private void sendToSubscription(String sessionId, String subscriptionId, String destination,
+            NotificationMessage message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        headers.setLeaveMutable(true);
+        Message<?> converted = messageConverter.toMessage(message, headers.getMessageHeaders());
+        if (converted != null) {
+            clientOutboundChannel.send(converted);
+        }
+    }
+}
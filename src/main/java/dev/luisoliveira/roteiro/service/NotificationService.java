@@ -2,27 +2,77 @@ package dev.luisoliveira.roteiro.service;
 
 import dev.luisoliveira.roteiro.dto.NotificationMessage;
 import dev.luisoliveira.roteiro.event.ContentCompletedEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Serviço responsável por enviar notificações para o frontend através de
- * WebSockets
+ * WebSockets.
+ *
+ * O progresso de cada processo é enviado para /topic/notifications/{processId}
+ * com no máximo app.notifications.progress-max-per-second mensagens por
+ * segundo: atualizações dentro do intervalo são agrupadas na próxima mensagem,
+ * que leva o estado mais recente e a lista dos estágios percorridos desde a
+ * anterior, de forma que nenhuma transição de estágio se perde.
+ *
+ * As mesmas mensagens são repassadas aos assinantes do stream SSE
+ * (StatusStreamService), para clientes que não usam STOMP.
+ *
+ * Conclusões e erros vão para o tópico do processo e para a fila do dono do
+ * processo (/user/queue/notifications), e não mais para um tópico global: cada
+ * evento chega apenas às sessões interessadas. O tópico administrativo com
+ * todos os eventos só é alimentado com app.notifications.admin-firehose=true.
+ *
+ * Toda mensagem do tópico do processo é numerada e guardada pelo
+ * NotificationReplayService, que a reenvia a clientes que reconectam.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    private static final String PROCESS_TOPIC = "/topic/notifications/";
+    private static final String USER_QUEUE = "/queue/notifications";
+    private static final String ADMIN_TOPIC = "/topic/admin/notifications";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final TaskScheduler taskScheduler;
+    private final StatusStreamService statusStreamService;
+    private final NotificationReplayService notificationReplayService;
+    private final Map<String, ProgressState> progressStates = new ConcurrentHashMap<>();
+
+    @Value("${app.notifications.progress-max-per-second:4}")
+    private int progressMaxPerSecond;
+
+    @Value("${app.notifications.admin-firehose:false}")
+    private boolean adminFirehose;
+
+    // Progresso pendente de envio de um processo
+    private static class ProgressState {
+        private final List<String> stages = new ArrayList<>(); // Estágios desde a última mensagem
+        private String stage;
+        private int progress;
+        private long lastSentNanos;
+        private boolean scheduled;
+    }
 
     /**
-     * Envia uma notificação apenas para eventos de conclusão final.
-     * As notificações de progresso não serão mais enviadas.
+     * Envia a notificação de conclusão final do processo
      */
     @EventListener
     public void handleContentCompletedEvent(ContentCompletedEvent event) {
@@ -37,21 +87,21 @@ public class NotificationService {
 
         try {
             // Enviar para o tópico específico do processo
-            String destination = "/topic/notifications/" + processId;
+            String destination = PROCESS_TOPIC + processId;
             log.info("Enviando notificação para {}: {}", destination, notification);
+            notificationReplayService.record(processId, notification);
 
             messagingTemplate.convertAndSend(destination, notification);
             log.debug("Notificação enviada com sucesso para {}", destination);
 
-            // Também enviar para o tópico geral de notificações
-            log.info("Enviando notificação para o tópico geral: /topic/notifications");
-            messagingTemplate.convertAndSend("/topic/notifications", notification);
-            log.debug("Notificação enviada com sucesso para o tópico geral");
+            // Também enviar para o dono do processo e, se ativo, para o tópico administrativo
+            sendToOwnerAndAdmins(event.getUserId(), notification);
         } catch (MessagingException e) {
             log.error("Erro ao enviar notificação para o processo {}: {}", processId, e.getMessage(), e);
         } catch (Exception e) {
             log.error("Erro inesperado ao enviar notificação para o processo {}: {}", processId, e.getMessage(), e);
         }
+        statusStreamService.publishResult(processId, notification);
     }
 
     /**
@@ -59,6 +109,15 @@ public class NotificationService {
      * Mantemos este método pois erros são importantes de serem notificados.
      */
     public void sendErrorNotification(String processId, String errorMessage) {
+        sendErrorNotification(processId, null, errorMessage);
+    }
+
+    /**
+     * Envia a notificação de erro para o tópico do processo e para o seu dono
+     *
+     * @param userId Dono do processo (null se anônimo)
+     */
+    public void sendErrorNotification(String processId, String userId, String errorMessage) {
         log.error("Enviando notificação de erro para o processo: {}", processId);
 
         NotificationMessage notification = new NotificationMessage(
@@ -68,9 +127,10 @@ public class NotificationService {
                 null);
 
         try {
-            String destination = "/topic/notifications/" + processId;
+            String destination = PROCESS_TOPIC + processId;
+            notificationReplayService.record(processId, notification);
             messagingTemplate.convertAndSend(destination, notification);
-            messagingTemplate.convertAndSend("/topic/notifications", notification);
+            sendToOwnerAndAdmins(userId, notification);
             log.debug("Notificação de erro enviada com sucesso");
         } catch (MessagingException e) {
             log.error("Erro ao enviar notificação de erro para o processo {}: {}", processId, e.getMessage(), e);
@@ -78,10 +138,150 @@ public class NotificationService {
             log.error("Erro inesperado ao enviar notificação de erro para o processo {}: {}", processId, e.getMessage(),
                     e);
         }
+        statusStreamService.publishResult(processId, notification);
+    }
+
+    /**
+     * Avisa o tópico do processo, o dono e os streams SSE de que o processo
+     * foi cancelado, com o gasto desperdiçado
+     *
+     * @param userId Dono do processo (null se anônimo)
+     */
+    public void sendCancelledNotification(String processId, String userId, Object report) {
+        NotificationMessage notification = new NotificationMessage(
+                processId,
+                "PROCESS_CANCELLED",
+                "Processo cancelado",
+                report);
+
+        progressStates.remove(processId);
+        try {
+            notificationReplayService.record(processId, notification);
+            messagingTemplate.convertAndSend(PROCESS_TOPIC + processId, notification);
+            sendToOwnerAndAdmins(userId, notification);
+        } catch (MessagingException e) {
+            log.error("Erro ao enviar notificação de cancelamento do processo {}: {}", processId, e.getMessage());
+        }
+        statusStreamService.publishResult(processId, notification);
     }
 
     /**
-     * Removemos o método sendProgressNotification pois não queremos
-     * enviar notificações de progresso intermediário.
+     * Publica o progresso de um processo, respeitando o limite de mensagens por
+     * segundo. Mensagens finais (100% ou erro) são enviadas imediatamente.
+     *
+     * @param processId ID do processo
+     * @param userId    Dono do processo (null se anônimo)
+     * @param stage     Estágio atual
+     * @param progress  Percentual de progresso
      */
-}
\ No newline at end of file
+    public void sendProgressNotification(String processId, String userId, String stage, int progress) {
+        boolean terminal = progress >= 100 || (stage != null && stage.startsWith("Erro"));
+        ProgressState state = progressStates.computeIfAbsent(processId, id -> new ProgressState());
+
+        synchronized (state) {
+            if (state.stages.isEmpty() || !state.stages.get(state.stages.size() - 1).equals(stage)) {
+                state.stages.add(stage);
+            }
+            state.stage = stage;
+            state.progress = progress;
+
+            long minIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, progressMaxPerSecond);
+            long waitNanos = state.lastSentNanos + minIntervalNanos - System.nanoTime();
+            if (terminal || waitNanos <= 0) {
+                sendProgress(processId, state);
+            } else if (!state.scheduled) {
+                state.scheduled = true;
+                taskScheduler.schedule(() -> flushProgress(processId),
+                        Instant.now().plusNanos(waitNanos));
+            }
+        }
+
+        if (terminal) {
+            progressStates.remove(processId, state);
+        }
+        if (stage != null && stage.startsWith("Erro")) {
+            // O tópico do processo já recebeu o estágio de erro; a conclusão com
+            // sucesso é avisada no ContentCompletedEvent
+            NotificationMessage error = new NotificationMessage(processId, "ERROR", stage, null);
+            try {
+                sendToOwnerAndAdmins(userId, error);
+            } catch (MessagingException e) {
+                log.error("Erro ao enviar notificação de erro do processo {}: {}", processId, e.getMessage());
+            }
+            statusStreamService.publishResult(processId, error);
+        }
+    }
+
+    /**
+     * Descarta o estado de progresso e o histórico de mensagens de um processo
+     * removido do registro
+     */
+    public void evictProcess(String processId) {
+        progressStates.remove(processId);
+        notificationReplayService.evict(processId);
+    }
+
+    /**
+     * Remove estados de processos que pararam de enviar progresso sem uma mensagem final
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void evictIdleProgress() {
+        long cutoff = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+        progressStates.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return !entry.getValue().scheduled && entry.getValue().lastSentNanos - cutoff < 0;
+            }
+        });
+    }
+
+    private void flushProgress(String processId) {
+        ProgressState state = progressStates.get(processId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.scheduled = false;
+            if (!state.stages.isEmpty()) {
+                sendProgress(processId, state);
+            }
+        }
+    }
+
+    // Chamado com o lock do estado
+    private void sendProgress(String processId, ProgressState state) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("stage", state.stage);
+        data.put("progress", state.progress);
+        data.put("stages", new ArrayList<>(state.stages));
+
+        NotificationMessage notification = new NotificationMessage(
+                processId,
+                "PROGRESS_UPDATE",
+                state.stage,
+                data);
+
+        state.stages.clear();
+        state.lastSentNanos = System.nanoTime();
+
+        try {
+            notificationReplayService.record(processId, notification);
+            messagingTemplate.convertAndSend(PROCESS_TOPIC + processId, notification);
+        } catch (MessagingException e) {
+            log.error("Erro ao enviar progresso do processo {}: {}", processId, e.getMessage());
+        }
+        statusStreamService.publishProgress(processId, notification);
+    }
+
+    /**
+     * Entrega a mensagem às sessões do dono do processo e, se ativo, ao tópico
+     * administrativo
+     */
+    private void sendToOwnerAndAdmins(String userId, NotificationMessage notification) {
+        if (userId != null) {
+            messagingTemplate.convertAndSendToUser(userId, USER_QUEUE, notification);
+        }
+        if (adminFirehose) {
+            messagingTemplate.convertAndSend(ADMIN_TOPIC, notification);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package dev.luisoliveira.roteiro.service;
 
+import dev.luisoliveira.roteiro.util.PromptBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -14,63 +18,494 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Chamadas de chat completion ao OpenAI.
+ *
+ * Opcionalmente (openai.hedge.base-url), um segundo provedor compatível com a
+ * API do OpenAI (outra conta, outro modelo ou um stub local) recebe uma cópia
+ * da requisição quando o principal passa do percentil de latência configurado
+ * para o estágio, ou quando falha. A primeira resposta vence e a outra
+ * conexão é fechada. Cada provedor tem um circuit breaker: um provedor
+ * degradado é pulado na hora em vez de esgotar o timeout a cada chamada.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class OpenAIService {
 
+    private final ProcessCancellationService processCancellationService;
+    private final ModelRouter modelRouter;
+    private final ProcessTrackingService processTrackingService;
+
     @Value("${openai.api.key}")
     private String OPENAI_API_KEY;
 
     @Value("${openai.model:gpt-4}")
     private String MODEL;
 
-    private static final String COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
+    @Value("${openai.api.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${openai.hedge.base-url:}")
+    private String hedgeBaseUrl;
+
+    @Value("${openai.hedge.api-key:}")
+    private String hedgeApiKey;
+
+    @Value("${openai.hedge.model:}")
+    private String hedgeModel;
+
+    @Value("${openai.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${openai.hedge.initial-delay-ms:8000}")
+    private long hedgeInitialDelayMs;
+
+    @Value("${openai.hedge.min-delay-ms:1000}")
+    private long hedgeMinDelayMs;
+
+    @Value("${openai.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${openai.circuit-breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${openai.circuit-breaker.open-seconds:30}")
+    private long breakerOpenSeconds;
+
+    private static final String SYSTEM_PROMPT =
+            "Você é um assistente especializado em criar conteúdo religioso para YouTube.";
+    private static final String COMPLETIONS_PATH = "/chat/completions";
+    private static final int LATENCY_WINDOW_SIZE = 200;
+    // Estimativa conservadora para es/pt (acentos e palavras longas) e folga sobre o tamanho pedido
+    private static final double CHARS_PER_TOKEN = 3.0;
+    private static final double MAX_TOKENS_MARGIN = 1.3;
+
+    private Endpoint primary;
+    private Endpoint alternate; // null sem hedging
+    private ExecutorService executor;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final LongAdder hedgesLaunched = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder truncatedResponses = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+    private final Map<String, PromptCacheStats> promptCache = new ConcurrentHashMap<>();
+
+    /**
+     * Provedor compatível com a API do OpenAI
+     *
+     * @param model Modelo fixo do provedor (null = modelo da rota)
+     */
+    private record Endpoint(String name, String url, String apiKey, String model, CircuitBreaker breaker) {
+    }
+
+    private record CompletionResult(JSONObject response, Endpoint endpoint, String model, long latencyMs) {
+    }
+
+    // Uma requisição a um provedor, que pode ser cancelada de outra thread
+    private static class Attempt {
+        private final Endpoint endpoint;
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        private Attempt(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            HttpURLConnection current = connection;
+            if (current != null) {
+                current.disconnect();
+            }
+        }
+    }
+
+    // Resposta HTTP diferente de 200
+    private static class ProviderResponseException extends IOException {
+        private final int status;
+
+        private ProviderResponseException(String provider, int status) {
+            super("Erro na API do " + provider + ": " + status);
+            this.status = status;
+        }
+
+        // 429 e 5xx indicam provedor degradado; os demais 4xx são erros da requisição
+        private boolean isProviderFailure() {
+            return status == 429 || status >= 500;
+        }
+    }
+
+    // Últimas latências do provedor principal em um estágio
+    private static class LatencyWindow {
+        private final long[] samples = new long[LATENCY_WINDOW_SIZE];
+        private int count;
+        private int next;
 
-    public List<String> generateTitles(String prompt) {
-        String response = callGpt(prompt);
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        synchronized long percentile(double percentile) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+    // Tokens do prompt e quantos vieram do cache do provedor, por estágio
+    private static class PromptCacheStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder cachedTokens = new LongAdder();
+
+        void record(long prompt, long cached) {
+            calls.increment();
+            promptTokens.add(prompt);
+            cachedTokens.add(cached);
+        }
+
+        Map<String, Object> snapshot() {
+            long prompt = promptTokens.sum();
+            long cached = cachedTokens.sum();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("calls", calls.sum());
+            stats.put("promptTokens", prompt);
+            stats.put("cachedTokens", cached);
+            stats.put("cacheHitRatio", prompt > 0 ? (double) cached / prompt : 0.0);
+            return stats;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        primary = new Endpoint("openai", completionsUrl(baseUrl), OPENAI_API_KEY, null, newBreaker("openai"));
+        if (!hedgeBaseUrl.isBlank()) {
+            alternate = new Endpoint("alternate", completionsUrl(hedgeBaseUrl),
+                    hedgeApiKey.isBlank() ? null : hedgeApiKey,
+                    hedgeModel.isBlank() ? null : hedgeModel,
+                    newBreaker("alternate"));
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "openai-call-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("[OPENAI] Hedging ativo: {} -> {} (p{})", primary.url(), alternate.url(),
+                    Math.round(hedgePercentile * 100));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private CircuitBreaker newBreaker(String name) {
+        return new CircuitBreaker(name, breakerFailureThreshold, TimeUnit.SECONDS.toMillis(breakerOpenSeconds));
+    }
+
+    private static String completionsUrl(String base) {
+        String trimmed = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        return trimmed + COMPLETIONS_PATH;
+    }
+
+    public String getModel() {
+        return MODEL;
+    }
+
+    public List<String> generateTitles(PromptBuilder.Prompt prompt, String idioma) {
+        String response = callGpt(modelRouter.route(ModelRouter.TITLES, idioma), prompt);
         return parseTitlesFromResponse(response);
     }
 
-    public String generateOracao(String prompt) {
-        return callGpt(prompt);
+    /**
+     * Gera a oração com max_tokens dimensionado pela duração pedida (o
+     * max-tokens do estágio vale como teto)
+     */
+    public String generateOracao(PromptBuilder.Prompt prompt, String idioma, String duracao) {
+        ModelRouter.Route route = modelRouter.route(ModelRouter.ORACAO, idioma);
+        int sized = (int) Math.ceil(PromptBuilder.maxCaracteres(duracao) / CHARS_PER_TOKEN * MAX_TOKENS_MARGIN);
+        int maxTokens = route.maxTokens() != null ? Math.min(sized, route.maxTokens()) : sized;
+        return callGpt(route.withMaxTokens(maxTokens), prompt);
+    }
+
+    public String generateShort(PromptBuilder.Prompt prompt, String idioma) {
+        return callGpt(modelRouter.route(ModelRouter.SHORT, idioma), prompt);
+    }
+
+    /**
+     * Nova tentativa de um texto gerado no idioma errado
+     */
+    public String generateLanguageCorrection(PromptBuilder.Prompt prompt, String idioma) {
+        return callGpt(modelRouter.route(ModelRouter.CORRECTION, idioma), prompt);
     }
 
-    public String generateDescription(String prompt) {
-        return callGpt(prompt);
+    public String generateDescription(PromptBuilder.Prompt prompt, String idioma) {
+        return callGpt(modelRouter.route(ModelRouter.DESCRIPTION, idioma), prompt);
     }
 
-    private String callGpt(String prompt) {
-        log.info("Iniciando requisição ao OpenAI...");
+    /**
+     * Chamada ao provedor. Uma resposta cortada pelo max_tokens (finish_reason
+     * "length") é refeita uma vez com o dobro do limite; se vier cortada de
+     * novo, a chamada falha em vez de devolver um texto incompleto.
+     */
+    private String callGpt(ModelRouter.Route route, PromptBuilder.Prompt prompt) {
+        log.info("Iniciando requisição ao OpenAI (estágio: {}, idioma: {}, modelo: {})...", route.stage(),
+                route.language(), route.model());
+        try (ProcessCancellationService.InFlightCall call = processCancellationService.track("openai", "tokens")) {
+            for (int attempt = 1; ; attempt++) {
+                CompletionResult result = alternate == null
+                        ? callSingle(primary, route, prompt, call)
+                        : callHedged(route, prompt, call);
+
+                // Processar a resposta JSON
+                JSONObject responseJson = result.response();
+                JSONObject usage = responseJson.optJSONObject("usage");
+                long cachedTokens = 0;
+                if (usage != null) {
+                    call.addUsage(usage.optLong("total_tokens"));
+                    JSONObject details = usage.optJSONObject("prompt_tokens_details");
+                    cachedTokens = details != null ? details.optLong("cached_tokens") : 0;
+                    promptCache.computeIfAbsent(route.stage(), stage -> new PromptCacheStats())
+                            .record(usage.optLong("prompt_tokens"), cachedTokens);
+                }
+                JSONObject choice = responseJson.getJSONArray("choices").getJSONObject(0);
+                if ("length".equals(choice.optString("finish_reason"))) {
+                    truncatedResponses.increment();
+                    if (attempt == 1 && route.maxTokens() != null) {
+                        log.warn("[OPENAI] Resposta do estágio {} cortada em {} tokens, repetindo com {}",
+                                route.stage(), route.maxTokens(), route.maxTokens() * 2);
+                        route = route.withMaxTokens(route.maxTokens() * 2);
+                        continue;
+                    }
+                    throw new IOException("Resposta do estágio " + route.stage()
+                            + " cortada pelo limite de tokens (" + route.maxTokens() + ")");
+                }
+                String content = choice.getJSONObject("message").getString("content");
+
+                // Registra na linha do tempo o modelo que de fato respondeu
+                String servedModel = responseJson.optString("model", result.model());
+                ModelRouter.Route served = route;
+                processCancellationService.currentProcessId().ifPresent(processId ->
+                        processTrackingService.recordModel(processId, served.stage(), servedModel));
+
+                log.info("Requisição concluída com sucesso (provedor: {}, modelo: {}, {} ms, {} tokens do prompt em cache)",
+                        result.endpoint().name(), servedModel, result.latencyMs(), cachedTokens);
+                return content;
+            }
+        } catch (IOException e) {
+            log.error("Erro ao processar a requisição", e);
+            throw new RuntimeException("Erro ao processar a requisição para OpenAI", e);
+        }
+    }
+
+    /**
+     * Chamada a um único provedor, na thread atual
+     */
+    private CompletionResult callSingle(Endpoint endpoint, ModelRouter.Route route, PromptBuilder.Prompt prompt,
+            ProcessCancellationService.InFlightCall call) throws IOException {
+        if (!endpoint.breaker().tryAcquire()) {
+            throw new IOException("Circuito aberto para o provedor " + endpoint.name());
+        }
+        Attempt attempt = new Attempt(endpoint);
+        // Cancelar o processo fecha a conexão
+        call.onAbort(attempt::cancel);
+        return execute(attempt, route, prompt, call);
+    }
+
+    /**
+     * Chamada com hedging: se o provedor principal não responder dentro do
+     * limiar adaptativo do estágio (ou falhar), uma segunda requisição vai
+     * para o provedor alternativo. A primeira resposta vence e a outra é
+     * cancelada.
+     */
+    private CompletionResult callHedged(ModelRouter.Route route, PromptBuilder.Prompt prompt,
+            ProcessCancellationService.InFlightCall call) throws IOException {
+        if (!primary.breaker().tryAcquire()) {
+            // Principal degradado: vai direto para o alternativo
+            failovers.increment();
+            log.warn("[OPENAI] Circuito aberto para {}, usando {}", primary.name(), alternate.name());
+            return callSingle(alternate, route, prompt, call);
+        }
+
+        List<Attempt> attempts = new CopyOnWriteArrayList<>();
+        call.onAbort(() -> attempts.forEach(Attempt::cancel));
+        CompletionService<CompletionResult> completion = new ExecutorCompletionService<>(executor);
+
+        Attempt first = new Attempt(primary);
+        attempts.add(first);
+        long primaryStarted = System.nanoTime();
+        completion.submit(() -> execute(first, route, prompt, call));
+        int pending = 1;
+        boolean alternateDecided = false;
+        boolean hedged = false;
+        long hedgeDelayMs = hedgeDelayMs(route.stage());
+        long hedgeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs);
+        IOException lastError = null;
+
+        try {
+            while (pending > 0) {
+                Future<CompletionResult> done = alternateDecided
+                        ? completion.take()
+                        : completion.poll(Math.max(0, hedgeAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+                if (done == null) {
+                    // Principal passou do limiar: dispara o hedge, se o alternativo estiver disponível
+                    alternateDecided = true;
+                    if (alternate.breaker().tryAcquire()) {
+                        hedged = true;
+                        hedgesLaunched.increment();
+                        log.info("[OPENAI] Hedge do estágio {} após {} ms para {}", route.stage(), hedgeDelayMs,
+                                alternate.name());
+                        pending += launch(completion, attempts, route, prompt, call);
+                    }
+                    continue;
+                }
+
+                pending--;
+                try {
+                    CompletionResult result = done.get();
+                    if (hedged && result.endpoint() == alternate) {
+                        hedgeWins.increment();
+                        // O principal perdeu a corrida: o tempo até aqui é um limite inferior da sua
+                        // latência e entra na janela, senão o limiar só veria as respostas rápidas
+                        recordPrimaryLatency(route.stage(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primaryStarted));
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                    log.warn("[OPENAI] Falha no estágio {}: {}", route.stage(), lastError.getMessage());
+                    if (!alternateDecided) {
+                        // Principal falhou antes do limiar: failover imediato
+                        alternateDecided = true;
+                        if (alternate.breaker().tryAcquire()) {
+                            failovers.increment();
+                            pending += launch(completion, attempts, route, prompt, call);
+                        }
+                    }
+                }
+            }
+            throw lastError != null ? lastError : new IOException("Nenhuma resposta dos provedores");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("A requisição foi interrompida", e);
+        } finally {
+            // Cancela a requisição perdedora (ou as duas, se interrompido)
+            attempts.forEach(Attempt::cancel);
+        }
+    }
+
+    private int launch(CompletionService<CompletionResult> completion, List<Attempt> attempts,
+            ModelRouter.Route route, PromptBuilder.Prompt prompt, ProcessCancellationService.InFlightCall call) {
+        Attempt second = new Attempt(alternate);
+        attempts.add(second);
+        completion.submit(() -> execute(second, route, prompt, call));
+        return 1;
+    }
+
+    /**
+     * Executa uma tentativa e registra o resultado no circuit breaker do
+     * provedor (e a latência, se for o principal)
+     */
+    private CompletionResult execute(Attempt attempt, ModelRouter.Route route, PromptBuilder.Prompt prompt,
+            ProcessCancellationService.InFlightCall call) throws IOException {
+        Endpoint endpoint = attempt.endpoint;
+        String model = endpoint.model() != null ? endpoint.model() : route.model();
+        long started = System.nanoTime();
+        try {
+            JSONObject response = send(attempt, model, route, prompt, call);
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            endpoint.breaker().recordSuccess();
+            if (endpoint == primary) {
+                recordPrimaryLatency(route.stage(), latencyMs);
+            }
+            return new CompletionResult(response, endpoint, model, latencyMs);
+        } catch (IOException | RuntimeException e) {
+            if (attempt.cancelled) {
+                // Perdeu a corrida ou o processo foi cancelado: não é falha do provedor
+                endpoint.breaker().release();
+            } else if (e instanceof ProviderResponseException response && !response.isProviderFailure()) {
+                endpoint.breaker().recordSuccess();
+            } else {
+                endpoint.breaker().recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    private JSONObject send(Attempt attempt, String model, ModelRouter.Route route, PromptBuilder.Prompt prompt,
+            ProcessCancellationService.InFlightCall call) throws IOException {
         HttpURLConnection connection = null;
         try {
-            // Configuração da conexão
-            URL url = new URL(COMPLETIONS_URL);
+            // Configuração da conexão (timeouts limitados ao prazo do processo)
+            URL url = new URL(attempt.endpoint.url());
             connection = (HttpURLConnection) url.openConnection();
+            attempt.connection = connection;
+            if (attempt.cancelled) {
+                throw new IOException("Requisição cancelada");
+            }
+            connection.setConnectTimeout(call.getConnectTimeoutMs());
+            connection.setReadTimeout(call.getReadTimeoutMs());
             connection.setRequestMethod("POST");
             connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + OPENAI_API_KEY);
+            if (attempt.endpoint.apiKey() != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + attempt.endpoint.apiKey());
+            }
             connection.setDoOutput(true);
 
             // Criar o corpo da requisição
             JSONObject requestBody = new JSONObject();
-            requestBody.put("model", MODEL);
+            requestBody.put("model", model);
 
             JSONArray messages = new JSONArray();
 
             JSONObject systemMessage = new JSONObject();
             systemMessage.put("role", "system");
-            systemMessage.put("content", "Você é um assistente especializado em criar conteúdo religioso para YouTube.");
+            // Instruções fixas da etapa primeiro: prefixo idêntico entre chamadas (cache do provedor)
+            systemMessage.put("content", SYSTEM_PROMPT + "\n\n" + prompt.instructions());
             messages.put(systemMessage);
 
             JSONObject userMessage = new JSONObject();
             userMessage.put("role", "user");
-            userMessage.put("content", prompt);
+            userMessage.put("content", prompt.input());
             messages.put(userMessage);
 
             requestBody.put("messages", messages);
-            requestBody.put("temperature", 0.7);
+            requestBody.put("temperature", route.temperature());
+            if (route.maxTokens() != null) {
+                requestBody.put("max_tokens", route.maxTokens());
+            }
+            if (attempt.endpoint == primary) {
+                // Agrupa no mesmo servidor de cache as chamadas com o mesmo prefixo
+                requestBody.put("prompt_cache_key", route.stage() + ":" + route.language());
+            }
 
             // Enviar a requisição
             try (OutputStream os = connection.getOutputStream()) {
@@ -81,8 +516,8 @@ public class OpenAIService {
             // Verificar o código de resposta
             int responseCode = connection.getResponseCode();
             if (responseCode != HttpURLConnection.HTTP_OK) { // 200
-                log.error("Erro na requisição: Status code {}", responseCode);
-                throw new RuntimeException("Erro na API do OpenAI: " + responseCode);
+                log.error("Erro na requisição ao {}: Status code {}", attempt.endpoint.name(), responseCode);
+                throw new ProviderResponseException(attempt.endpoint.name(), responseCode);
             }
 
             // Ler a resposta
@@ -94,20 +529,7 @@ public class OpenAIService {
                     response.append(responseLine.trim());
                 }
             }
-
-            // Processar a resposta JSON
-            JSONObject responseJson = new JSONObject(response.toString());
-            String content = responseJson.getJSONArray("choices")
-                    .getJSONObject(0)
-                    .getJSONObject("message")
-                    .getString("content");
-
-            log.info("Requisição concluída com sucesso");
-            return content;
-
-        } catch (IOException e) {
-            log.error("Erro ao processar a requisição", e);
-            throw new RuntimeException("Erro ao processar a requisição para OpenAI", e);
+            return new JSONObject(response.toString());
         } finally {
             if (connection != null) {
                 connection.disconnect();
@@ -115,6 +537,57 @@ public class OpenAIService {
         }
     }
 
+    private void recordPrimaryLatency(String stage, long latencyMs) {
+        latencies.computeIfAbsent(stage, key -> new LatencyWindow()).record(latencyMs);
+    }
+
+    /**
+     * Limiar de hedge do estágio: o percentil configurado das últimas
+     * latências do provedor principal (incluindo o tempo das tentativas que
+     * perderam para o hedge), ou initial-delay-ms enquanto não há amostras
+     * suficientes
+     */
+    private long hedgeDelayMs(String stage) {
+        LatencyWindow window = latencies.get(stage);
+        if (window == null || window.size() < hedgeMinSamples) {
+            return hedgeInitialDelayMs;
+        }
+        return Math.max(hedgeMinDelayMs, window.percentile(hedgePercentile));
+    }
+
+    /**
+     * Estado dos provedores (circuit breakers), do hedging e do cache de
+     * prefixo do prompt, exposto em
+     * /config/openai
+     */
+    public Map<String, Object> getProviderStats() {
+        Map<String, Object> providers = new HashMap<>();
+        for (Endpoint endpoint : alternate != null ? List.of(primary, alternate) : List.of(primary)) {
+            Map<String, Object> line = endpoint.breaker().snapshot();
+            line.put("url", endpoint.url());
+            line.put("model", endpoint.model() != null ? endpoint.model() : "(modelo da rota)");
+            providers.put(endpoint.name(), line);
+        }
+
+        Map<String, Object> thresholds = new HashMap<>();
+        latencies.forEach((stage, window) -> thresholds.put(stage, hedgeDelayMs(stage)));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("providers", providers);
+        stats.put("hedgingEnabled", alternate != null);
+        stats.put("hedgePercentile", hedgePercentile);
+        stats.put("hedgeThresholdsMs", thresholds);
+        stats.put("hedgesLaunched", hedgesLaunched.sum());
+        stats.put("hedgeWins", hedgeWins.sum());
+        stats.put("truncatedResponses", truncatedResponses.sum());
+        stats.put("failovers", failovers.sum());
+
+        Map<String, Object> cache = new HashMap<>();
+        promptCache.forEach((stage, stageStats) -> cache.put(stage, stageStats.snapshot()));
+        stats.put("promptCache", cache);
+        return stats;
+    }
+
     private List<String> parseTitlesFromResponse(String response) {
         List<String> titles = new ArrayList<>();
         String[] lines = response.split("\n");
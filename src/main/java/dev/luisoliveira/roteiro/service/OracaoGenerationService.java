@@ -2,20 +2,23 @@ package dev.luisoliveira.roteiro.service;
 
 import dev.luisoliveira.roteiro.event.OracaoGeneratedEvent;
 import dev.luisoliveira.roteiro.event.TitleSelectedEvent;
-import dev.luisoliveira.roteiro.model.PrayerContent;
 import dev.luisoliveira.roteiro.repository.PrayerContentRepository;
 import dev.luisoliveira.roteiro.util.PromptBuilder;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OracaoGenerationService {
 
         private final OpenAIService openAIService;
+        private final PromptBuilder promptBuilder;
         private final EventBusService eventBusService;
         private final ProcessTrackingService processTrackingService;
         private final PrayerContentRepository prayerContentRepository;
@@ -52,7 +55,7 @@ public class OracaoGenerationService {
 
                         // Construir prompt otimizado para oração
                         log.info("Construindo prompt para oração no idioma: {}", idioma);
-                        String prompt = PromptBuilder.buildOracaoPrompt(
+                        PromptBuilder.Prompt prompt = promptBuilder.buildOracaoPrompt(
                                         tema,
                                         estiloOracao,
                                         duracao,
@@ -62,25 +65,29 @@ public class OracaoGenerationService {
 
                         // Chamar OpenAI API
                         log.info("Iniciando chamada à API OpenAI para gerar oração...");
-                        String oracaoContent = openAIService.generateOracao(prompt);
+                        String oracaoContent = openAIService.generateOracao(prompt, idioma, duracao);
                         processTrackingService.setOracaoContent(processId, oracaoContent);
                         log.info("Oração gerada com sucesso (tamanho: {} caracteres)", oracaoContent.length());
 
-                        // Salvar a oração no MongoDB
+                        // Salvar a oração no MongoDB (upsert atômico por processId)
                         log.info("Salvando oração no MongoDB...");
-                        PrayerContent oracao = new PrayerContent(oracaoContent);
-                        oracao.setTitle(selectedTitle);
-                        oracao.setTheme(tema);
-                        oracao.setStyle(estiloOracao);
-                        oracao.setDuration(duracao);
-                        oracao.setLanguage(idioma);
-                        oracao.setProcessId(processId);
+                        Update update = new Update()
+                                        .set("texto", oracaoContent)
+                                        .set("title", selectedTitle)
+                                        .set("theme", tema)
+                                        .set("style", estiloOracao)
+                                        .set("duration", duracao)
+                                        .set("language", idioma);
+                        String userId = processTrackingService.getUserId(processId);
+                        if (userId != null) {
+                                update.set("userId", userId);
+                        }
 
-                        oracao = prayerContentRepository.save(oracao);
-                        log.info("Oração salva no MongoDB com ID: {}", oracao.getId());
+                        UUID oracaoId = prayerContentRepository.upsertByProcessId(processId, update);
+                        log.info("Oração salva no MongoDB com ID: {}", oracaoId);
 
                         // Armazenar o ID da oração no processo
-                        processTrackingService.storeOracaoId(processId, String.valueOf(oracao.getId()));
+                        processTrackingService.storeOracaoId(processId, String.valueOf(oracaoId));
 
                         // Atualizar status
                         processTrackingService.updateStatus(
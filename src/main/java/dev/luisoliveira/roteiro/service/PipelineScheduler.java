@@ -0,0 +1,230 @@
+package dev.luisoliveira.roteiro.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Agendador das etapas do pipeline de geração.
+ *
+ * Os listeners dos eventos de processo não rodam mais em uma thread nova por
+ * evento: cada execução vira um job em uma das filas de prioridade
+ * (INTERACTIVE, BULK, BACKFILL) e um número fixo de workers consome sempre a
+ * fila mais prioritária que tiver jobs. Dentro de cada fila, os usuários são
+ * atendidos por weighted fair queuing (etiquetas de tempo virtual): um usuário
+ * com 300 jobs na fila não atrasa o primeiro job de outro usuário mais do que
+ * um job por usuário ativo.
+ *
+ * A fila e o usuário de cada processo são informados em register(); eventos
+ * de processos não registrados vão para INTERACTIVE. O listener de despacho
+ * (setDispatchListener) é avisado quando um worker pega uma etapa do processo.
+ */
+@Slf4j
+public class PipelineScheduler {
+
+    /**
+     * Filas de prioridade, da mais para a menos prioritária
+     */
+    public enum Lane {
+        INTERACTIVE, BULK, BACKFILL;
+
+        /**
+         * Converte o valor da requisição (ex.: "bulk"); nulo ou desconhecido = INTERACTIVE
+         */
+        public static Lane from(String value) {
+            if (value == null || value.isBlank()) {
+                return INTERACTIVE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return INTERACTIVE;
+            }
+        }
+    }
+
+    private static final String UNREGISTERED_USER = "-";
+
+    private record Route(String userKey, Lane lane) {
+    }
+
+    private record Job(String processId, Runnable task, String userKey, double tag, long sequence,
+            long enqueuedNanos) {
+    }
+
+    // Fila de uma prioridade, ordenada pela etiqueta de término virtual
+    private static class LaneQueue {
+        private final PriorityQueue<Job> jobs = new PriorityQueue<>(
+                Comparator.comparingDouble(Job::tag).thenComparingLong(Job::sequence));
+        private final Map<String, Double> lastTags = new HashMap<>();
+        private double virtualTime;
+        private long dispatched;
+        private long totalWaitNanos;
+    }
+
+    private final int workerCount;
+    private final Map<String, Double> userWeights;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final List<Thread> workers = new ArrayList<>();
+    private long sequence;
+    private volatile boolean running;
+    private volatile Consumer<String> dispatchListener = processId -> {
+    };
+
+    /**
+     * @param workerCount Quantidade de workers (etapas executando ao mesmo tempo)
+     * @param userWeights Peso por usuário (padrão 1): peso 2 recebe o dobro de vez
+     */
+    public PipelineScheduler(int workerCount, Map<String, Double> userWeights) {
+        this.workerCount = Math.max(1, workerCount);
+        this.userWeights = Map.copyOf(userWeights);
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue());
+        }
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "pipeline-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("[AGENDADOR] {} workers iniciados", workerCount);
+    }
+
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Associa o processo ao usuário e à fila em que suas etapas serão executadas
+     */
+    public void register(String processId, String userKey, Lane lane) {
+        routes.put(processId, new Route(userKey != null ? userKey : UNREGISTERED_USER, lane));
+    }
+
+    public void forget(String processId) {
+        routes.remove(processId);
+    }
+
+    /**
+     * Define quem é avisado (com o processId) antes de cada etapa começar a
+     * executar, ex.: para contar o prazo do processo só a partir daí
+     */
+    public void setDispatchListener(Consumer<String> dispatchListener) {
+        this.dispatchListener = dispatchListener;
+    }
+
+    /**
+     * Enfileira uma etapa do processo
+     */
+    public void submit(String processId, Runnable task) {
+        Route route = routes.getOrDefault(processId, new Route(UNREGISTERED_USER, Lane.INTERACTIVE));
+        double weight = userWeights.getOrDefault(route.userKey(), 1.0);
+
+        lock.lock();
+        try {
+            LaneQueue queue = lanes.get(route.lane());
+            // Start-time fair queuing: o job começa no tempo virtual atual ou após o último job do usuário
+            double start = Math.max(queue.virtualTime, queue.lastTags.getOrDefault(route.userKey(), 0.0));
+            double tag = start + 1.0 / weight;
+            queue.lastTags.put(route.userKey(), tag);
+            queue.jobs.add(new Job(processId, task, route.userKey(), tag, sequence++, System.nanoTime()));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tamanho das filas e espera média por prioridade
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Lane, LaneQueue> entry : lanes.entrySet()) {
+                LaneQueue queue = entry.getValue();
+                Map<String, Object> laneStats = new HashMap<>();
+                laneStats.put("queued", queue.jobs.size());
+                laneStats.put("users", queue.lastTags.size());
+                laneStats.put("dispatched", queue.dispatched);
+                laneStats.put("avgWaitMs", queue.dispatched > 0
+                        ? TimeUnit.NANOSECONDS.toMillis(queue.totalWaitNanos / queue.dispatched)
+                        : 0);
+                stats.put(entry.getKey().name().toLowerCase(Locale.ROOT), laneStats);
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.put("workers", workerCount);
+        stats.put("registeredProcesses", routes.size());
+        return stats;
+    }
+
+    private void runWorker() {
+        while (running) {
+            Job job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                dispatchListener.accept(job.processId());
+                job.task().run();
+            } catch (Throwable e) {
+                log.error("[AGENDADOR] Erro não tratado em etapa do pipeline: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private Job take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                for (LaneQueue queue : lanes.values()) {
+                    Job job = queue.jobs.poll();
+                    if (job != null) {
+                        dispatched(queue, job);
+                        return job;
+                    }
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Chamado com o lock
+    private void dispatched(LaneQueue queue, Job job) {
+        queue.virtualTime = Math.max(queue.virtualTime, job.tag() - 1.0 / userWeights.getOrDefault(job.userKey(), 1.0));
+        queue.dispatched++;
+        queue.totalWaitNanos += System.nanoTime() - job.enqueuedNanos();
+        // Usuário sem jobs pendentes à frente do tempo virtual não precisa mais da etiqueta
+        Double lastTag = queue.lastTags.get(job.userKey());
+        if (lastTag != null && lastTag <= job.tag()) {
+            queue.lastTags.remove(job.userKey());
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package dev.luisoliveira.roteiro.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cancelamento, prazos e gasto das chamadas aos provedores (OpenAI,
+ * ElevenLabs, Replicate) de cada processo.
+ *
+ * Cada etapa do pipeline roda vinculada ao seu processo (runFor), e cada
+ * chamada a um provedor é registrada com track(). Ao cancelar, as chamadas
+ * abertas são abortadas (a conexão HTTP é fechada e a thread interrompida,
+ * o que também encerra esperas como o polling do Replicate) e as etapas ainda
+ * não executadas do processo são descartadas.
+ *
+ * O ProcessTrackingService informa o prazo do processo (o menor entre o prazo
+ * total e o da etapa atual). Cada chamada recebe timeouts de conexão e de
+ * leitura limitados ao que resta do prazo (attach), e nenhuma chamada começa
+ * com o prazo esgotado. Fora de um processo valem apenas os timeouts padrão
+ * (app.http.*).
+ *
+ * O gasto já feito pelo processo (chamadas, unidades cobradas, tempo de
+ * provedor e de thread) é devolvido no cancelamento ou no fim do prazo e
+ * somado às estatísticas de desperdício.
+ */
+@Service
+@Slf4j
+public class ProcessCancellationService {
+
+    private static final ThreadLocal<String> CURRENT_PROCESS = new ThreadLocal<>();
+    private static final ThreadLocal<InFlightCall> CURRENT_CALL = new ThreadLocal<>();
+
+    private final Map<String, ProcessState> states = new ConcurrentHashMap<>();
+    private final AtomicLong cancelledProcesses = new AtomicLong();
+    private final AtomicLong timedOutProcesses = new AtomicLong();
+    private final AtomicLong deadlineRejectedCalls = new AtomicLong();
+    private final LongAdder wastedThreadMs = new LongAdder();
+    private final Map<String, ProviderTotals> wastedByProvider = new ConcurrentHashMap<>();
+
+    @Value("${app.http.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.http.read-timeout-ms:120000}")
+    private int readTimeoutMs;
+
+    /**
+     * Lançada ao iniciar uma chamada a provedor de um processo já cancelado
+     */
+    public static class ProcessCancelledException extends RuntimeException {
+        public ProcessCancelledException(String processId) {
+            super("Processo cancelado: " + processId);
+        }
+    }
+
+    /**
+     * Lançada ao iniciar uma chamada a provedor com o prazo do processo esgotado
+     */
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String processId) {
+            super("Prazo esgotado para o processo: " + processId);
+        }
+    }
+
+    /**
+     * Gasto de um processo em um provedor
+     *
+     * @param unit         Unidade cobrada (tokens, caracteres, imagens)
+     * @param calls        Chamadas feitas (concluídas e abortadas)
+     * @param abortedCalls Chamadas em andamento abortadas pelo cancelamento
+     * @param elapsedMs    Tempo total das chamadas
+     * @param units        Unidades consumidas nas chamadas concluídas
+     */
+    public record ProviderSpend(String unit, long calls, long abortedCalls, long elapsedMs, long units) {
+    }
+
+    /**
+     * Gasto desperdiçado por um processo cancelado
+     *
+     * @param threadTimeMs Tempo de thread gasto nas etapas do processo
+     */
+    public record CancellationReport(String processId, long threadTimeMs, Map<String, ProviderSpend> providers) {
+    }
+
+    // Estado de cancelamento e gasto de um processo (alterado com o lock do estado)
+    private static class ProcessState {
+        private volatile boolean cancelled;
+        private volatile long deadlineMillis; // Epoch millis; 0 = sem prazo
+        private final Set<InFlightCall> calls = ConcurrentHashMap.newKeySet();
+        private final Map<String, ProviderSpend> spend = new HashMap<>();
+        private final Map<Thread, Long> running = new HashMap<>(); // Etapas em execução e seu início
+        private long threadNanos;
+    }
+
+    // Totais desperdiçados por provedor
+    private static class ProviderTotals {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder abortedCalls = new LongAdder();
+        private final LongAdder elapsedMs = new LongAdder();
+        private final LongAdder units = new LongAdder();
+        private volatile String unit;
+    }
+
+    /**
+     * Chamada a um provedor em andamento. Deve ser fechada ao fim da chamada
+     * (try-with-resources).
+     */
+    public static final class InFlightCall implements AutoCloseable {
+        private final ProcessState state;
+        private final String provider;
+        private final String unit;
+        private final int connectTimeoutMs;
+        private final int readTimeoutMs;
+        private final Thread thread = Thread.currentThread();
+        private final long startedNanos = System.nanoTime();
+        private Runnable abortAction;
+        private boolean closed;
+        private boolean aborted;
+        private long units;
+
+        private InFlightCall(ProcessState state, String provider, String unit, int connectTimeoutMs,
+                int readTimeoutMs) {
+            this.state = state;
+            this.provider = provider;
+            this.unit = unit;
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        /**
+         * Timeout de conexão da chamada, limitado ao prazo restante
+         */
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        /**
+         * Timeout de leitura da chamada, limitado ao prazo restante
+         */
+        public int getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        /**
+         * Aplica à conexão os timeouts da chamada (limitados ao prazo restante)
+         * e a fecha se o processo for cancelado
+         */
+        public void attach(HttpURLConnection connection) {
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            onAbort(connection::disconnect);
+        }
+
+        /**
+         * Define como abortar a operação atual da chamada (ex.: fechar a
+         * conexão). Se a chamada já foi abortada, executa na hora.
+         */
+        public void onAbort(Runnable action) {
+            boolean runNow;
+            synchronized (this) {
+                abortAction = action;
+                runNow = aborted;
+            }
+            if (runNow) {
+                action.run();
+            }
+        }
+
+        /**
+         * Soma unidades consumidas (tokens, caracteres, imagens)
+         */
+        public synchronized void addUsage(long consumed) {
+            units += consumed;
+        }
+
+        public synchronized boolean isAborted() {
+            return aborted;
+        }
+
+        private void abort() {
+            Runnable action;
+            synchronized (this) {
+                if (closed || aborted) {
+                    return;
+                }
+                aborted = true;
+                action = abortAction;
+                // Com o lock: a thread só é interrompida enquanto a chamada está aberta
+                thread.interrupt();
+            }
+            if (action != null) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.debug("[CANCELAMENTO] Erro ao abortar chamada ao {}: {}", provider, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            boolean wasAborted;
+            synchronized (this) {
+                closed = true;
+                wasAborted = aborted;
+            }
+            if (CURRENT_CALL.get() == this) {
+                CURRENT_CALL.remove();
+            }
+            if (state != null) {
+                state.calls.remove(this);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+                synchronized (state) {
+                    ProviderSpend previous = state.spend.getOrDefault(provider, new ProviderSpend(unit, 0, 0, 0, 0));
+                    state.spend.put(provider, new ProviderSpend(unit,
+                            previous.calls() + 1,
+                            previous.abortedCalls() + (wasAborted ? 1 : 0),
+                            previous.elapsedMs() + elapsedMs,
+                            previous.units() + units));
+                }
+            }
+            if (wasAborted) {
+                // A interrupção foi causada pelo cancelamento: não deve vazar para a próxima etapa do worker
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Executa uma etapa vinculada ao processo, descartando-a se o processo
+     * já foi cancelado
+     */
+    public void runFor(String processId, Runnable task) {
+        ProcessState state = states.computeIfAbsent(processId, id -> new ProcessState());
+        if (state.cancelled) {
+            log.debug("[CANCELAMENTO] Etapa descartada do processo cancelado {}", processId);
+            return;
+        }
+
+        String previous = CURRENT_PROCESS.get();
+        CURRENT_PROCESS.set(processId);
+        long started = System.nanoTime();
+        synchronized (state) {
+            state.running.put(Thread.currentThread(), started);
+        }
+        try {
+            task.run();
+        } finally {
+            synchronized (state) {
+                state.running.remove(Thread.currentThread());
+                state.threadNanos += System.nanoTime() - started;
+            }
+            if (previous != null) {
+                CURRENT_PROCESS.set(previous);
+            } else {
+                CURRENT_PROCESS.remove();
+            }
+            if (state.cancelled) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Registra uma chamada a provedor do processo da thread atual. Fora de
+     * uma etapa do pipeline a chamada não é rastreada.
+     *
+     * @param provider Nome do provedor (ex.: "openai")
+     * @param unit     Unidade cobrada pelo provedor (ex.: "tokens")
+     * @throws ProcessCancelledException Se o processo já foi cancelado
+     * @throws DeadlineExceededException Se o prazo do processo já se esgotou
+     */
+    public InFlightCall track(String provider, String unit) {
+        String processId = CURRENT_PROCESS.get();
+        ProcessState state = processId != null ? states.computeIfAbsent(processId, id -> new ProcessState()) : null;
+        if (state != null && state.cancelled) {
+            throw new ProcessCancelledException(processId);
+        }
+
+        int connectTimeout = connectTimeoutMs;
+        int readTimeout = readTimeoutMs;
+        long deadline = state != null ? state.deadlineMillis : 0;
+        if (deadline > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                deadlineRejectedCalls.incrementAndGet();
+                log.warn("[PRAZO] Chamada ao {} recusada: prazo do processo {} esgotado", provider, processId);
+                throw new DeadlineExceededException(processId);
+            }
+            connectTimeout = (int) Math.min(connectTimeout, remaining);
+            readTimeout = (int) Math.min(readTimeout, remaining);
+        }
+
+        InFlightCall call = new InFlightCall(state, provider, unit, connectTimeout, readTimeout);
+        if (state != null) {
+            state.calls.add(call);
+            // O cancelamento pode ter ocorrido entre a verificação e o registro
+            if (state.cancelled) {
+                call.abort();
+            }
+        }
+        CURRENT_CALL.set(call);
+        return call;
+    }
+
+    /**
+     * Chamada a provedor aberta na thread atual
+     */
+    public Optional<InFlightCall> currentCall() {
+        return Optional.ofNullable(CURRENT_CALL.get());
+    }
+
+    /**
+     * Associa a conexão à chamada aberta na thread atual ou, sem chamada
+     * rastreada, aplica os timeouts padrão
+     */
+    public void attach(HttpURLConnection connection) {
+        InFlightCall call = CURRENT_CALL.get();
+        if (call != null) {
+            call.attach(connection);
+        } else {
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+        }
+    }
+
+    /**
+     * Processo da etapa em execução na thread atual
+     */
+    public Optional<String> currentProcessId() {
+        return Optional.ofNullable(CURRENT_PROCESS.get());
+    }
+
+    public boolean isCancelled(String processId) {
+        ProcessState state = states.get(processId);
+        return state != null && state.cancelled;
+    }
+
+    /**
+     * Define o prazo do processo para as próximas chamadas
+     *
+     * @param deadlineMillis Instante limite (epoch millis); 0 remove o prazo
+     */
+    public void setDeadline(String processId, long deadlineMillis) {
+        states.computeIfAbsent(processId, id -> new ProcessState()).deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Cancela o processo: descarta as próximas etapas, aborta as chamadas
+     * abertas e devolve o gasto feito até aqui
+     */
+    public CancellationReport cancel(String processId) {
+        return terminate(processId, false);
+    }
+
+    /**
+     * Encerra o processo cujo prazo se esgotou, da mesma forma que cancel
+     */
+    public CancellationReport expire(String processId) {
+        return terminate(processId, true);
+    }
+
+    private CancellationReport terminate(String processId, boolean timedOut) {
+        ProcessState state = states.computeIfAbsent(processId, id -> new ProcessState());
+        state.cancelled = true;
+        for (InFlightCall call : state.calls) {
+            call.abort();
+        }
+
+        long now = System.nanoTime();
+        Map<String, ProviderSpend> providers;
+        long threadNanos;
+        synchronized (state) {
+            providers = new HashMap<>(state.spend);
+            threadNanos = state.threadNanos;
+            for (Long started : state.running.values()) {
+                threadNanos += now - started;
+            }
+        }
+        // Chamadas abortadas agora ainda não foram fechadas: entram com o tempo decorrido
+        for (InFlightCall call : state.calls) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - call.startedNanos);
+            ProviderSpend previous = providers.getOrDefault(call.provider, new ProviderSpend(call.unit, 0, 0, 0, 0));
+            providers.put(call.provider, new ProviderSpend(call.unit, previous.calls() + 1,
+                    previous.abortedCalls() + 1, previous.elapsedMs() + elapsedMs, previous.units()));
+        }
+
+        CancellationReport report = new CancellationReport(processId, TimeUnit.NANOSECONDS.toMillis(threadNanos),
+                providers);
+        (timedOut ? timedOutProcesses : cancelledProcesses).incrementAndGet();
+        wastedThreadMs.add(report.threadTimeMs());
+        providers.forEach((provider, spend) -> {
+            ProviderTotals totals = wastedByProvider.computeIfAbsent(provider, key -> new ProviderTotals());
+            totals.unit = spend.unit();
+            totals.calls.add(spend.calls());
+            totals.abortedCalls.add(spend.abortedCalls());
+            totals.elapsedMs.add(spend.elapsedMs());
+            totals.units.add(spend.units());
+        });
+        log.info("[CANCELAMENTO] Processo {} {}: {} ms de thread, provedores: {}", processId,
+                timedOut ? "encerrado por prazo" : "cancelado", report.threadTimeMs(), providers);
+        return report;
+    }
+
+    /**
+     * Descarta o estado do processo (chamado quando ele sai do registro)
+     */
+    public void forget(String processId) {
+        states.remove(processId);
+    }
+
+    /**
+     * Totais desperdiçados pelos processos cancelados ou encerrados por prazo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> providers = new HashMap<>();
+        wastedByProvider.forEach((provider, totals) -> {
+            Map<String, Object> line = new HashMap<>();
+            line.put("unit", totals.unit);
+            line.put("calls", totals.calls.sum());
+            line.put("abortedCalls", totals.abortedCalls.sum());
+            line.put("elapsedMs", totals.elapsedMs.sum());
+            line.put("units", totals.units.sum());
+            providers.put(provider, line);
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cancelledProcesses", cancelledProcesses.get());
+        stats.put("timedOutProcesses", timedOutProcesses.get());
+        stats.put("deadlineRejectedCalls", deadlineRejectedCalls.get());
+        stats.put("wastedThreadMs", wastedThreadMs.sum());
+        stats.put("wastedByProvider", providers);
+        return stats;
+    }
+}
@@ -0,0 +1,187 @@
+package dev.luisoliveira.roteiro.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Estatísticas dos processos mantidas de forma incremental pelo
+ * ProcessTrackingService.
+ *
+ * Os gauges (processos por estágio, concluídos e ativos) refletem o registro
+ * em memória e são ajustados a cada entrada, mudança de estágio e remoção. As
+ * contagens de 1h e 24h usam janelas deslizantes em buffer circular de
+ * buckets de um minuto. Nenhuma consulta percorre o registro: o custo não
+ * depende da quantidade de processos.
+ *
+ * Os gauges por estágio usam a chave normalizada pelo ProcessTrackingService
+ * (estágio da linha do tempo ou "erro"), e não o texto do status, que pode
+ * conter o título ou a mensagem de erro do processo: o mapa fica limitado aos
+ * estágios conhecidos.
+ */
+class ProcessStatistics {
+
+    private final UnaryOperator<String> stageKey;
+    private final Map<String, LongAdder> stageGauges = new ConcurrentHashMap<>();
+    private final AtomicLong trackedGauge = new AtomicLong();
+    private final AtomicLong completedGauge = new AtomicLong();
+
+    private final SlidingWindowCounter started = new SlidingWindowCounter();
+    private final SlidingWindowCounter completed = new SlidingWindowCounter();
+    private final SlidingWindowCounter failed = new SlidingWindowCounter();
+    private final SlidingWindowCounter cancelled = new SlidingWindowCounter();
+    private final SlidingWindowCounter timedOut = new SlidingWindowCounter();
+    private final Map<String, LongAdder> timeoutsByStage = new ConcurrentHashMap<>();
+
+    /**
+     * @param stageKey Normaliza o texto do status na chave do gauge
+     */
+    ProcessStatistics(UnaryOperator<String> stageKey) {
+        this.stageKey = stageKey;
+    }
+
+    /**
+     * Novo processo iniciado nesta instância
+     */
+    void processStarted(String stage) {
+        processAdded(stage, false);
+        started.increment(System.currentTimeMillis());
+    }
+
+    /**
+     * Processo (re)incluído no registro sem ter sido iniciado agora, ex.:
+     * reconstruído a partir do MongoDB
+     */
+    void processAdded(String stage, boolean isCompleted) {
+        trackedGauge.incrementAndGet();
+        if (isCompleted) {
+            completedGauge.incrementAndGet();
+        }
+        gauge(stage).increment();
+    }
+
+    void processRemoved(String stage, boolean isCompleted) {
+        trackedGauge.decrementAndGet();
+        if (isCompleted) {
+            completedGauge.decrementAndGet();
+        }
+        gauge(stage).decrement();
+    }
+
+    void stageChanged(String from, String to) {
+        gauge(from).decrement();
+        gauge(to).increment();
+    }
+
+    void processCompleted() {
+        completedGauge.incrementAndGet();
+        completed.increment(System.currentTimeMillis());
+    }
+
+    void processFailed() {
+        failed.increment(System.currentTimeMillis());
+    }
+
+    void processCancelled() {
+        cancelled.increment(System.currentTimeMillis());
+    }
+
+    /**
+     * Processo encerrado por prazo esgotado
+     *
+     * @param stage Estágio da linha do tempo em que o prazo acabou ("processo" para o prazo total)
+     */
+    void processTimedOut(String stage) {
+        timedOut.increment(System.currentTimeMillis());
+        timeoutsByStage.computeIfAbsent(stage, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Monta o mapa exposto em /config/events/stats
+     */
+    Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        long tracked = trackedGauge.get();
+        long completedProcesses = completedGauge.get();
+
+        Map<String, Long> statusCounts = new HashMap<>();
+        stageGauges.forEach((stage, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                statusCounts.put(stage, value);
+            }
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalProcesses", tracked);
+        stats.put("completedProcesses", completedProcesses);
+        stats.put("activeProcesses", tracked - completedProcesses);
+        stats.put("statusDistribution", statusCounts);
+        stats.put("processesLastHour", started.sum(now, TimeUnit.HOURS.toMillis(1)));
+        stats.put("processesLast24Hours", started.sum(now, TimeUnit.DAYS.toMillis(1)));
+        stats.put("completedLastHour", completed.sum(now, TimeUnit.HOURS.toMillis(1)));
+        stats.put("completedLast24Hours", completed.sum(now, TimeUnit.DAYS.toMillis(1)));
+        stats.put("failedLastHour", failed.sum(now, TimeUnit.HOURS.toMillis(1)));
+        stats.put("failedLast24Hours", failed.sum(now, TimeUnit.DAYS.toMillis(1)));
+        stats.put("cancelledLastHour", cancelled.sum(now, TimeUnit.HOURS.toMillis(1)));
+        stats.put("cancelledLast24Hours", cancelled.sum(now, TimeUnit.DAYS.toMillis(1)));
+        stats.put("timedOutLastHour", timedOut.sum(now, TimeUnit.HOURS.toMillis(1)));
+        stats.put("timedOutLast24Hours", timedOut.sum(now, TimeUnit.DAYS.toMillis(1)));
+        Map<String, Long> timeouts = new HashMap<>();
+        timeoutsByStage.forEach((stage, count) -> timeouts.put(stage, count.sum()));
+        stats.put("timeoutsByStage", timeouts);
+        return stats;
+    }
+
+    private LongAdder gauge(String stage) {
+        String key = stage != null ? stageKey.apply(stage) : null;
+        return stageGauges.computeIfAbsent(key != null ? key : "Desconhecido", k -> new LongAdder());
+    }
+
+    /**
+     * Contador de eventos nas últimas 24 horas em buckets de um minuto. Cada
+     * bucket guarda o minuto a que pertence; ao ser reutilizado por um minuto
+     * mais novo, é zerado antes de contar.
+     */
+    private static class SlidingWindowCounter {
+
+        private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+        private static final int BUCKETS = (int) (TimeUnit.DAYS.toMillis(1) / BUCKET_MILLIS);
+
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void increment(long now) {
+            long slot = now / BUCKET_MILLIS;
+            int index = (int) (slot % BUCKETS);
+            if (slots.get(index) != slot) {
+                synchronized (this) {
+                    if (slots.get(index) != slot) {
+                        // Zera antes de marcar, para que quem já vê o minuto novo conte a partir de zero
+                        counts.set(index, 0);
+                        slots.set(index, slot);
+                    }
+                }
+            }
+            counts.incrementAndGet(index);
+        }
+
+        long sum(long now, long windowMillis) {
+            long current = now / BUCKET_MILLIS;
+            long oldest = current - windowMillis / BUCKET_MILLIS + 1;
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                if (slot >= oldest && slot <= current) {
+                    total += counts.get(i);
+                }
+            }
+            return total;
+        }
+    }
+}
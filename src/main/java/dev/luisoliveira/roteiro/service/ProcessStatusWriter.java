@@ -0,0 +1,172 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.ProcessStatusDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava em segundo plano (write-behind) o status dos processos na coleção
+ * process_status.
+ *
+ * Cada atualização substitui a pendente do mesmo processo; as pendentes são
+ * gravadas em lote a cada app.process.status-flush-ms, ou seja, no máximo uma
+ * escrita por processo por intervalo. Mudanças de estágio são gravadas logo em
+ * seguida. Todas as escritas passam por uma única thread, o que garante que um
+ * status mais antigo nunca sobrescreve um mais novo.
+ *
+ * Documentos sem atualização há 7 dias são removidos pelo índice TTL
+ * lastUpdated_ttl, criado na inicialização (e não por anotação, para que a
+ * aplicação suba com o MongoDB indisponível).
+ */
+@Service
+@Slf4j
+public class ProcessStatusWriter {
+
+    private static final Duration STATUS_TTL = Duration.ofDays(7);
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, ProcessStatusDocument> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "process-status-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.process.status-flush-batch-size:500}")
+    private int batchSize;
+
+    public ProcessStatusWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void garantirIndiceTtl() {
+        try {
+            mongoTemplate.indexOps(ProcessStatusDocument.class).ensureIndex(new Index()
+                    .on("lastUpdated", Sort.Direction.ASC)
+                    .expire(STATUS_TTL)
+                    .named("lastUpdated_ttl"));
+        } catch (Exception e) {
+            log.error("[STATUS] Falha ao criar o índice TTL de process_status: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Agenda a gravação do status
+     *
+     * @param snapshot     Cópia do status no momento da atualização
+     * @param stageChanged true se o estágio mudou (gravação imediata)
+     */
+    public void enqueue(ProcessStatusDocument snapshot, boolean stageChanged) {
+        pending.put(snapshot.getProcessId(), snapshot);
+        if (stageChanged) {
+            writer.execute(() -> flushOne(snapshot.getProcessId()));
+        }
+    }
+
+    /**
+     * Busca o último status gravado por qualquer instância
+     */
+    public ProcessStatusDocument find(String processId) {
+        ProcessStatusDocument local = pending.get(processId);
+        if (local != null) {
+            return local;
+        }
+        return mongoTemplate.findById(processId, ProcessStatusDocument.class);
+    }
+
+    @Scheduled(fixedDelayString = "${app.process.status-flush-ms:2000}")
+    public void scheduledFlush() {
+        if (!pending.isEmpty()) {
+            writer.execute(this::flushPending);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.execute(this::flushPending);
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("[STATUS] Status pendentes não gravados no encerramento: {}", pending.size());
+        }
+    }
+
+    private void flushOne(String processId) {
+        ProcessStatusDocument snapshot = pending.remove(processId);
+        if (snapshot != null) {
+            write(List.of(snapshot));
+        }
+    }
+
+    private void flushPending() {
+        List<ProcessStatusDocument> batch = new ArrayList<>();
+        for (String processId : new ArrayList<>(pending.keySet())) {
+            ProcessStatusDocument snapshot = pending.remove(processId);
+            if (snapshot != null) {
+                batch.add(snapshot);
+            }
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<ProcessStatusDocument> batch) {
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessStatusDocument.class);
+            for (ProcessStatusDocument snapshot : batch) {
+                bulk.upsert(new Query(Criteria.where("_id").is(snapshot.getProcessId())), toUpdate(snapshot));
+            }
+            bulk.execute();
+            log.debug("[STATUS] {} status de processos gravados", batch.size());
+        } catch (Exception e) {
+            // Devolve para a próxima passada os que não foram substituídos por um mais novo
+            batch.forEach(snapshot -> pending.putIfAbsent(snapshot.getProcessId(), snapshot));
+            log.error("[STATUS] Erro ao gravar status de processos: {}", e.getMessage());
+        }
+    }
+
+    private Update toUpdate(ProcessStatusDocument snapshot) {
+        Update update = new Update()
+                .set("currentStage", snapshot.getCurrentStage())
+                .set("progressPercentage", snapshot.getProgressPercentage())
+                .set("completed", snapshot.isCompleted())
+                .set("lastUpdated", snapshot.getLastUpdated())
+                .setOnInsert("startTime", snapshot.getStartTime());
+        if (snapshot.getResultPath() != null) {
+            update.set("resultPath", snapshot.getResultPath());
+        }
+        if (snapshot.getFullAudioId() != null) {
+            update.set("fullAudioId", snapshot.getFullAudioId());
+        }
+        if (snapshot.getUserId() != null) {
+            update.set("userId", snapshot.getUserId());
+        }
+        return update;
+    }
+}
@@ -1,20 +1,62 @@
 package dev.luisoliveira.roteiro.service;
 
 import dev.luisoliveira.roteiro.dto.ProcessStatus;
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import dev.luisoliveira.roteiro.model.ProcessStatusDocument;
+import dev.luisoliveira.roteiro.model.StageTiming;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
- * Serviço para rastreamento de processos de geração de conteúdo (versão
- * transitória para MongoDB)
+ * Serviço para rastreamento de processos de geração de conteúdo.
+ *
+ * Cada processo ocupa um único registro em memória (status, informações,
+ * títulos e resultado). Processos concluídos ou com erro são removidos após
+ * app.process.completed-ttl-minutes, processos parados após
+ * app.process.stale-ttl-hours, e o total é limitado por app.process.max-entries:
+ * no limite saem os finalizados mais antigos e, se todos estiverem em
+ * andamento, novos processos são recusados. Consultas a processos já
+ * removidos são atendidas pelo documento no MongoDB.
+ *
+ * O status também é gravado em segundo plano na coleção process_status
+ * (ProcessStatusWriter), para que outras instâncias respondam por processos
+ * em andamento aqui.
+ *
+ * As estatísticas (ProcessStatistics) são atualizadas a cada inclusão, mudança
+ * de estágio e remoção do registro, sempre com o lock do registro do processo.
+ *
+ * Cada processo mantém também a linha do tempo dos estágios do pipeline
+ * (início e duração), gravada no documento da oração quando o processo termina.
+ *
+ * Um processo cancelado (cancel) fica com o estágio "Cancelado" e ignora as
+ * atualizações das etapas que ainda estavam em execução.
+ *
+ * Cada processo tem um prazo total (app.deadline.process-seconds) e um prazo
+ * por etapa (app.deadline.stage-seconds), repassados ao
+ * ProcessCancellationService para limitar os timeouts das chamadas. O prazo
+ * total começa quando o PipelineScheduler despacha a primeira etapa: o tempo
+ * em fila antes disso não conta. Um processo que passa do prazo é encerrado
+ * como um cancelamento, com o estágio "Erro: tempo esgotado ...".
  */
 @Service
 @RequiredArgsConstructor
@@ -22,10 +64,64 @@ import java.util.HashMap;
 public class ProcessTrackingService {
 
     private final NotificationService notificationService;
-    private final Map<String, ProcessStatus> processes = new ConcurrentHashMap<>();
-    private final Map<String, List<String>> processTitles = new ConcurrentHashMap<>();
-    private final Map<String, String> processResults = new ConcurrentHashMap<>();
-    private final Map<String, ProcessInfo> processInfos = new ConcurrentHashMap<>();
+    private final MongoTemplate mongoTemplate;
+    private final ProcessStatusWriter processStatusWriter;
+    private final GenerationAdmissionService generationAdmissionService;
+    private final PipelineScheduler pipelineScheduler;
+    private final ProcessCancellationService processCancellationService;
+    private final Map<String, ProcessRecord> registry = new ConcurrentHashMap<>();
+    private final ProcessStatistics statistics = new ProcessStatistics(ProcessTrackingService::statisticsStage);
+
+    // Prefixo do status que marca o início de cada estágio da linha do tempo
+    private static final Map<String, String> TIMELINE_STAGES = Map.of(
+            "Gerando títulos", "titles",
+            "Gerando oração", "oracao",
+            "Gerando versão short", "short",
+            "Gerando descrição", "description",
+            "Compilando conteúdo", "compilation",
+            "Gerando áudio", "audio");
+
+    @Value("${app.process.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${app.process.completed-ttl-minutes:30}")
+    private long completedTtlMinutes;
+
+    @Value("${app.process.stale-ttl-hours:6}")
+    private long staleTtlHours;
+
+    @Value("${app.deadline.process-seconds:900}")
+    private long processDeadlineSeconds;
+
+    // Prazo em segundos por estágio da linha do tempo
+    private Map<String, Long> stageDeadlineSeconds = Map.of();
+
+    // Prazos agendados, do mais próximo ao mais distante. Uma entrada cujo prazo
+    // já mudou é descartada quando vence (o prazo novo tem a sua própria entrada).
+    private final PriorityBlockingQueue<ScheduledDeadline> deadlines = new PriorityBlockingQueue<>(64,
+            Comparator.comparingLong(ScheduledDeadline::deadlineMillis));
+
+    private record ScheduledDeadline(long deadlineMillis, String processId) {
+    }
+
+    // Registro único por processo
+    private static class ProcessRecord {
+        private final ProcessStatus status;
+        private final ProcessInfo info;
+        private volatile List<String> titles;
+        private volatile String resultId;
+        private volatile LocalDateTime finishedAt; // Concluído ou com erro
+        private boolean tracked; // Contabilizado nas estatísticas (alterado com o lock do registro)
+        private volatile boolean cancelled;
+        private volatile long deadlineMillis; // Prazo total (epoch millis; 0 = sem prazo)
+        private volatile long stageDeadlineMillis; // Prazo da etapa atual (epoch millis; 0 = sem prazo)
+        private final List<StageTiming> timeline = new ArrayList<>(); // Alterada com o lock do registro
+
+        private ProcessRecord(ProcessStatus status, ProcessInfo info) {
+            this.status = status;
+            this.info = info;
+        }
+    }
 
     // Classe interna para armazenar informações do processo
     private static class ProcessInfo {
@@ -176,8 +272,28 @@ public class ProcessTrackingService {
         }
     }
 
+    /**
+     * Prazos por estágio no formato "titles=90,oracao=240" (segundos)
+     */
+    @Value("${app.deadline.stage-seconds:titles=90,oracao=240,short=120,description=90,compilation=60,audio=300}")
+    void setStageDeadlineSeconds(String value) {
+        Map<String, Long> deadlines = new HashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2 && !parts[0].isBlank()) {
+                deadlines.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+            }
+        }
+        stageDeadlineSeconds = Map.copyOf(deadlines);
+    }
+
+    @PostConstruct
+    void registerDispatchListener() {
+        pipelineScheduler.setDispatchListener(this::startDeadline);
+    }
+
     public void setUserId(String processId, String userId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setUserId(userId);
             log.info("Usuário ID {} associado ao processo {}", userId, processId);
@@ -187,7 +303,7 @@ public class ProcessTrackingService {
     }
 
     public String getUserId(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getUserId() : null;
     }
 
@@ -195,8 +311,10 @@ public class ProcessTrackingService {
      * Inicializa um novo processo
      * 
      * @param processId ID do processo
+     * @return false se o registro está cheio de processos em andamento (o
+     *         processo não foi criado)
      */
-    public void initializeProcess(String processId) {
+    public boolean initializeProcess(String processId) {
         ProcessStatus status = new ProcessStatus();
         status.setProcessId(processId);
         status.setCurrentStage("Iniciado");
@@ -205,9 +323,26 @@ public class ProcessTrackingService {
         status.setLastUpdated(LocalDateTime.now());
         status.setCompleted(false);
 
-        processes.put(processId, status);
-        processInfos.put(processId, new ProcessInfo());
+        if (!registry.containsKey(processId) && registry.size() >= maxEntries) {
+            evictOverflow();
+            if (registry.size() >= maxEntries) {
+                log.warn("[PROCESSO] Registro cheio ({} processos em andamento): processo {} recusado",
+                        registry.size(), processId);
+                return false;
+            }
+        }
+
+        // Idempotente: uma segunda inicialização não descarta dados já associados (ex.: userId)
+        ProcessRecord record = new ProcessRecord(status, new ProcessInfo());
+        if (registry.putIfAbsent(processId, record) == null) {
+            synchronized (record) {
+                record.tracked = true;
+                statistics.processStarted(status.getCurrentStage());
+            }
+            persist(processId, record, true);
+        }
         log.debug("[PROCESSO] Processo inicializado: {}", processId);
+        return true;
     }
 
     /**
@@ -218,11 +353,49 @@ public class ProcessTrackingService {
      * @param progressPercentage Percentual de progresso
      */
     public void updateStatus(String processId, String currentStage, int progressPercentage) {
-        if (processes.containsKey(processId)) {
-            ProcessStatus status = processes.get(processId);
-            status.setCurrentStage(currentStage);
-            status.setProgressPercentage(progressPercentage);
-            status.setLastUpdated(LocalDateTime.now());
+        ProcessRecord record = registry.get(processId);
+        if (record != null && record.cancelled) {
+            log.debug("[PROCESSO] Status ignorado do processo cancelado {}: {}", processId, currentStage);
+        } else if (record != null && currentStage != null && currentStage.startsWith("Erro")
+                && isOverdue(record, System.currentTimeMillis())) {
+            // Erro causado pelo fim do prazo (ex.: timeout de leitura): encerra como tempo esgotado
+            expire(processId, record);
+        } else if (record != null) {
+            ProcessStatus status = record.status;
+            boolean stageChanged;
+            List<StageTiming> finishedTimeline = null;
+            synchronized (record) {
+                String previousStage = status.getCurrentStage();
+                stageChanged = !Objects.equals(previousStage, currentStage);
+                status.setCurrentStage(currentStage);
+                status.setProgressPercentage(progressPercentage);
+                status.setLastUpdated(LocalDateTime.now());
+                boolean failed = currentStage != null && currentStage.startsWith("Erro");
+                boolean finished = progressPercentage >= 100 || failed;
+                record.finishedAt = finished ? LocalDateTime.now() : null;
+                recordTimeline(record, currentStage, finished, failed);
+                if (finished && !record.timeline.isEmpty()) {
+                    finishedTimeline = new ArrayList<>(record.timeline);
+                }
+                if (record.tracked && stageChanged) {
+                    statistics.stageChanged(previousStage, currentStage);
+                    if (failed) {
+                        statistics.processFailed();
+                    }
+                }
+            }
+            if (stageChanged) {
+                scheduleDeadline(processId, record);
+            }
+            persist(processId, record, stageChanged);
+            if (finishedTimeline != null) {
+                saveTimeline(processId, finishedTimeline);
+            }
+            if (record.finishedAt != null) {
+                generationAdmissionService.release(processId);
+            }
+            notificationService.sendProgressNotification(processId, record.info.getUserId(), currentStage,
+                    progressPercentage);
             log.debug("[PROCESSO] Status atualizado: processId={}, stage={}, progress={}%",
                     processId, currentStage, progressPercentage);
         } else {
@@ -230,6 +403,111 @@ public class ProcessTrackingService {
         }
     }
 
+    /**
+     * Cancela um processo em andamento desta instância: marca o estágio
+     * "Cancelado", descarta as próximas etapas, aborta as chamadas aos
+     * provedores em andamento e avisa os clientes
+     *
+     * @param processId ID do processo
+     * @return Gasto desperdiçado pelo processo, ou null se ele não está em
+     *         andamento nesta instância
+     */
+    public ProcessCancellationService.CancellationReport cancel(String processId) {
+        ProcessRecord record = registry.get(processId);
+        if (record == null) {
+            return null;
+        }
+        ProcessCancellationService.CancellationReport report = terminate(processId, record, "Cancelado", null);
+        if (report != null) {
+            notificationService.sendCancelledNotification(processId, record.info.getUserId(), report);
+            log.info("[PROCESSO] Processo cancelado: processId={}", processId);
+        }
+        return report;
+    }
+
+    /**
+     * Inicia o prazo total do processo; chamado pelo PipelineScheduler a cada
+     * etapa despachada, só a primeira tem efeito
+     */
+    public void startDeadline(String processId) {
+        ProcessRecord record = registry.get(processId);
+        if (record == null || processDeadlineSeconds <= 0) {
+            return;
+        }
+        synchronized (record) {
+            if (record.deadlineMillis != 0 || record.finishedAt != null || record.cancelled) {
+                return;
+            }
+            record.deadlineMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(processDeadlineSeconds);
+        }
+        scheduleDeadline(processId, record);
+    }
+
+    /**
+     * Encerra os processos em andamento que passaram do prazo total ou do
+     * prazo da etapa atual. Só consulta os prazos já vencidos da fila.
+     */
+    @Scheduled(fixedDelayString = "${app.deadline.sweep-interval-ms:1000}")
+    public void expireOverdue() {
+        long now = System.currentTimeMillis();
+        ScheduledDeadline due;
+        while ((due = deadlines.poll()) != null) {
+            if (due.deadlineMillis() > now) {
+                deadlines.add(due);
+                break;
+            }
+            ProcessRecord record = registry.get(due.processId());
+            if (record != null && record.finishedAt == null && !record.cancelled && isOverdue(record, now)) {
+                expire(due.processId(), record);
+            }
+        }
+    }
+
+    /**
+     * Registra o modelo que respondeu à chamada do estágio na linha do tempo.
+     * Só a primeira chamada do estágio é registrada (ex.: a correção de idioma
+     * do short não substitui o modelo do short).
+     *
+     * @param stage Estágio da linha do tempo (titles, oracao, short, description)
+     */
+    public void recordModel(String processId, String stage, String model) {
+        ProcessRecord record = registry.get(processId);
+        if (record == null) {
+            return;
+        }
+        synchronized (record) {
+            for (int i = record.timeline.size() - 1; i >= 0; i--) {
+                StageTiming timing = record.timeline.get(i);
+                if (timing.getStage().equals(stage)) {
+                    if (timing.getModel() == null) {
+                        timing.setModel(model);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Modelo registrado para o estágio na linha do tempo
+     *
+     * @return Nome do modelo, ou null se o estágio não chamou o OpenAI
+     */
+    public String getStageModel(String processId, String stage) {
+        ProcessRecord record = registry.get(processId);
+        if (record == null) {
+            return null;
+        }
+        synchronized (record) {
+            for (StageTiming timing : record.timeline) {
+                if (timing.getStage().equals(stage) && timing.getModel() != null) {
+                    return timing.getModel();
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Armazena o resultado de um processo
      * 
@@ -237,14 +515,29 @@ public class ProcessTrackingService {
      * @param contentId ID do conteúdo gerado
      */
     public void storeResult(String processId, String contentId) {
-        processResults.put(processId, contentId);
-        if (processes.containsKey(processId)) {
-            ProcessStatus status = processes.get(processId);
-            status.setCompleted(true);
-            status.setProgressPercentage(100);
-            status.setCurrentStage("Concluído");
-            status.setResultPath(contentId); // Agora armazena o ID em vez do caminho
-            status.setLastUpdated(LocalDateTime.now());
+        ProcessRecord record = registry.get(processId);
+        if (record != null && record.cancelled) {
+            log.info("[PROCESSO] Resultado ignorado do processo cancelado {}: contentId={}", processId, contentId);
+        } else if (record != null) {
+            ProcessStatus status = record.status;
+            synchronized (record) {
+                record.resultId = contentId;
+                record.finishedAt = LocalDateTime.now();
+                String previousStage = status.getCurrentStage();
+                boolean wasCompleted = status.isCompleted();
+                status.setCompleted(true);
+                status.setProgressPercentage(100);
+                status.setCurrentStage("Concluído");
+                status.setResultPath(contentId); // Agora armazena o ID em vez do caminho
+                status.setLastUpdated(LocalDateTime.now());
+                if (record.tracked) {
+                    statistics.stageChanged(previousStage, "Concluído");
+                    if (!wasCompleted) {
+                        statistics.processCompleted();
+                    }
+                }
+            }
+            persist(processId, record, true);
             log.info("[PROCESSO] Processo concluído: processId={}, contentId={}", processId, contentId);
         } else {
             log.warn("[PROCESSO] Tentativa de armazenar resultado para processo inexistente: {}", processId);
@@ -259,10 +552,12 @@ public class ProcessTrackingService {
      * @param shortAudioId ID do áudio da versão curta
      */
     public void storeAudioIds(String processId, String fullAudioId, String shortAudioId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessRecord record = registry.get(processId);
+        ProcessInfo info = record != null ? record.info : null;
         if (info != null) {
             info.setFullAudioId(fullAudioId);
             info.setShortAudioId(shortAudioId);
+            persist(processId, record, false);
             log.info("[PROCESSO] IDs de áudio armazenados para o processo {}: full={}, short={}",
                     processId, fullAudioId, shortAudioId);
         } else {
@@ -277,8 +572,8 @@ public class ProcessTrackingService {
      * @return ID do áudio ou null se não existir
      */
     public String getFullAudioId(String processId) {
-        ProcessInfo info = processInfos.get(processId);
-        return info != null ? info.getFullAudioId() : null;
+        ProcessRecord record = lookup(processId);
+        return record != null ? record.info.getFullAudioId() : null;
     }
 
     /**
@@ -288,7 +583,7 @@ public class ProcessTrackingService {
      * @return ID do áudio ou null se não existir
      */
     public String getShortAudioId(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getShortAudioId() : null;
     }
 
@@ -308,7 +603,7 @@ public class ProcessTrackingService {
     public void setProcessInfo(String processId, String tema, String estiloOracao,
             String duracao, String tipoOracao, String idioma,
             String titulo, String observacoes, Boolean gerarVersaoShort, Boolean gerarAudio) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setTema(tema);
             info.setEstiloOracao(estiloOracao);
@@ -339,7 +634,7 @@ public class ProcessTrackingService {
      * @return true se o áudio deve ser gerado, false caso contrário
      */
     public boolean deveGerarAudio(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info == null) {
             log.warn("Processo não encontrado: {}, assumindo que não deve gerar áudio", processId);
             return false;
@@ -361,7 +656,7 @@ public class ProcessTrackingService {
      * @param gerarAudio true se o áudio deve ser gerado, false caso contrário
      */
     public void setGerarAudio(String processId, Boolean gerarAudio) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setGerarAudio(gerarAudio);
             log.debug("Flag gerarAudio atualizada para {}: {}", processId, gerarAudio);
@@ -370,98 +665,105 @@ public class ProcessTrackingService {
 
     // Métodos getter para informações do processo
     public String getTema(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getTema() : null;
     }
 
     public String getEstiloOracao(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getEstiloOracao() : null;
     }
 
     public String getDuracao(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getDuracao() : null;
     }
 
     public String getTipoOracao(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getTipoOracao() : null;
     }
 
     public String getIdioma(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getIdioma() : null;
     }
 
     public String getTitulo(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getTitulo() : null;
     }
 
     public String getObservacoes(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getObservacoes() : null;
     }
 
     public Boolean getGerarVersaoShort(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getGerarVersaoShort() : null;
     }
 
     public void setTitulo(String processId, String titulo) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setTitulo(titulo);
         }
     }
 
     public void setOracaoContent(String processId, String oracaoContent) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setOracaoContent(oracaoContent);
         }
     }
 
     public void setShortContent(String processId, String shortContent) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setShortContent(shortContent);
         }
     }
 
     public void setDescriptionContent(String processId, String descriptionContent) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setDescriptionContent(descriptionContent);
         }
     }
 
     public String getOracaoContent(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getOracaoContent() : null;
     }
 
     public String getShortContent(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getShortContent() : null;
     }
 
     public String getDescriptionContent(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getDescriptionContent() : null;
     }
 
     public ProcessStatus getStatus(String processId) {
-        return processes.get(processId);
+        ProcessRecord record = lookup(processId);
+        return record != null ? record.status : null;
     }
 
     public void saveTitles(String processId, List<String> titles) {
-        processTitles.put(processId, titles);
+        ProcessRecord record = registry.get(processId);
+        if (record != null) {
+            record.titles = titles;
+        } else {
+            log.warn("Tentativa de salvar títulos para processo inexistente: {}", processId);
+        }
     }
 
     public List<String> getTitles(String processId) {
-        return processTitles.getOrDefault(processId, new ArrayList<>());
+        ProcessRecord record = registry.get(processId);
+        return record != null && record.titles != null ? record.titles : new ArrayList<>();
     }
 
     /**
@@ -471,7 +773,8 @@ public class ProcessTrackingService {
      * @return ID do resultado ou null se não existir
      */
     public String getResultId(String processId) {
-        return processResults.get(processId);
+        ProcessRecord record = lookup(processId);
+        return record != null ? record.resultId : null;
     }
 
     /**
@@ -482,10 +785,10 @@ public class ProcessTrackingService {
     public List<Map<String, Object>> getAllProcessStatus() {
         List<Map<String, Object>> result = new ArrayList<>();
 
-        for (Map.Entry<String, ProcessStatus> entry : processes.entrySet()) {
+        for (Map.Entry<String, ProcessRecord> entry : registry.entrySet()) {
             String processId = entry.getKey();
-            ProcessStatus status = entry.getValue();
-            ProcessInfo info = processInfos.get(processId);
+            ProcessStatus status = entry.getValue().status;
+            ProcessInfo info = entry.getValue().info;
 
             Map<String, Object> processData = new HashMap<>();
             processData.put("processId", processId);
@@ -514,14 +817,15 @@ public class ProcessTrackingService {
      * @return Status detalhado do processo ou null se não existir
      */
     public Map<String, Object> getProcessStatus(String processId) {
-        ProcessStatus status = processes.get(processId);
-        if (status == null) {
+        ProcessRecord record = lookup(processId);
+        if (record == null) {
             return null;
         }
 
-        ProcessInfo info = processInfos.get(processId);
-        List<String> titles = processTitles.get(processId);
-        String resultId = processResults.get(processId);
+        ProcessStatus status = record.status;
+        ProcessInfo info = record.info;
+        List<String> titles = record.titles;
+        String resultId = record.resultId;
 
         Map<String, Object> result = new HashMap<>();
         result.put("processId", processId);
@@ -556,41 +860,13 @@ public class ProcessTrackingService {
     }
 
     /**
-     * Recupera estatísticas gerais sobre os eventos do sistema
+     * Recupera estatísticas gerais sobre os eventos do sistema. Os valores são
+     * mantidos incrementalmente: a consulta não percorre o registro.
      * 
      * @return Estatísticas de eventos
      */
     public Map<String, Object> getEventStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Contagem de processos por status
-        Map<String, Integer> statusCounts = new HashMap<>();
-        Map<Boolean, Integer> completionCounts = new HashMap<>();
-        completionCounts.put(true, 0);
-        completionCounts.put(false, 0);
-
-        for (ProcessStatus status : processes.values()) {
-            String stage = status.getCurrentStage();
-            statusCounts.put(stage, statusCounts.getOrDefault(stage, 0) + 1);
-
-            boolean completed = status.isCompleted();
-            completionCounts.put(completed, completionCounts.get(completed) + 1);
-        }
-
-        // Estatísticas gerais
-        stats.put("totalProcesses", processes.size());
-        stats.put("completedProcesses", completionCounts.get(true));
-        stats.put("activeProcesses", completionCounts.get(false));
-        stats.put("statusDistribution", statusCounts);
-
-        // Processos recentes (últimas 24 horas)
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        long recentProcesses = processes.values().stream()
-                .filter(status -> status.getStartTime().isAfter(oneDayAgo))
-                .count();
-        stats.put("processesLast24Hours", recentProcesses);
-
-        return stats;
+        return statistics.snapshot();
     }
 
     /**
@@ -601,7 +877,7 @@ public class ProcessTrackingService {
      */
     public void storeOracaoId(String processId, String oracaoId) {
         log.debug("Armazenando ID da oração no MongoDB para processo {}: {}", processId, oracaoId);
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         if (info != null) {
             info.setOracaoId(oracaoId);
         } else {
@@ -616,7 +892,388 @@ public class ProcessTrackingService {
      * @return ID da oração no MongoDB ou null se não existir
      */
     public String getOracaoId(String processId) {
-        ProcessInfo info = processInfos.get(processId);
+        ProcessInfo info = info(processId);
         return info != null ? info.getOracaoId() : null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Remove do registro os processos concluídos há mais de completed-ttl-minutes
+     * e os parados há mais de stale-ttl-hours
+     */
+    @Scheduled(fixedDelayString = "${app.process.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime finishedCutoff = now.minusMinutes(completedTtlMinutes);
+        LocalDateTime staleCutoff = now.minusHours(staleTtlHours);
+
+        int evicted = 0;
+        for (Map.Entry<String, ProcessRecord> entry : registry.entrySet()) {
+            ProcessRecord record = entry.getValue();
+            LocalDateTime finishedAt = record.finishedAt;
+            LocalDateTime lastUpdated = record.status.getLastUpdated();
+            boolean expired = finishedAt != null
+                    ? finishedAt.isBefore(finishedCutoff)
+                    : lastUpdated != null && lastUpdated.isBefore(staleCutoff);
+            if (expired && remove(entry.getKey(), record)) {
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            log.info("[PROCESSO] {} processos removidos do registro em memória ({} restantes)", evicted,
+                    registry.size());
+        }
+    }
+
+    /**
+     * Libera espaço quando o registro atinge max-entries, removendo os
+     * processos finalizados mais antigos. Processos em andamento nunca são
+     * removidos: sem espaço, novos processos são recusados.
+     */
+    private synchronized void evictOverflow() {
+        int target = Math.max(1, (int) (maxEntries * 0.9));
+        if (registry.size() < maxEntries) {
+            return;
+        }
+
+        List<Map.Entry<String, ProcessRecord>> candidates = new ArrayList<>();
+        for (Map.Entry<String, ProcessRecord> entry : registry.entrySet()) {
+            if (entry.getValue().finishedAt != null) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparing((Map.Entry<String, ProcessRecord> entry) -> entry.getValue().finishedAt,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        int evicted = 0;
+        for (Map.Entry<String, ProcessRecord> entry : candidates) {
+            if (registry.size() <= target) {
+                break;
+            }
+            if (remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        log.info("[PROCESSO] Registro atingiu o limite de {} processos: {} finalizados removidos", maxEntries,
+                evicted);
+    }
+
+    /**
+     * Atualiza a linha do tempo: o estágio aberto é encerrado quando outro
+     * começa ou quando o processo termina. Chamado com o lock do registro.
+     */
+    private void recordTimeline(ProcessRecord record, String currentStage, boolean finished, boolean failed) {
+        LocalDateTime now = LocalDateTime.now();
+        String stage = timelineStage(currentStage);
+        StageTiming last = record.timeline.isEmpty() ? null : record.timeline.get(record.timeline.size() - 1);
+        boolean open = last != null && last.getDurationMs() == null;
+
+        if (open && (finished || (stage != null && !stage.equals(last.getStage())))) {
+            last.setDurationMs(Duration.between(last.getStartedAt(), now).toMillis());
+            if (failed) {
+                last.setFailed(true);
+            }
+            record.stageDeadlineMillis = 0;
+            open = false;
+        }
+        if (stage != null && !finished && !open) {
+            record.timeline.add(new StageTiming(stage, now));
+            long budgetSeconds = stageDeadlineSeconds.getOrDefault(stage, 0L);
+            record.stageDeadlineMillis = budgetSeconds > 0
+                    ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(budgetSeconds)
+                    : 0;
+        }
+    }
+
+    private static String timelineStage(String currentStage) {
+        if (currentStage == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : TIMELINE_STAGES.entrySet()) {
+            if (currentStage.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chave do estágio nas estatísticas. O texto do status pode trazer o título
+     * ou a mensagem de erro do processo ("Título selecionado: ...", "Erro ao
+     * gerar áudio: ..."); a chave usa o estágio da linha do tempo, um único
+     * "erro" para as falhas e, nos demais, só o texto antes de ":".
+     */
+    static String statisticsStage(String currentStage) {
+        if (currentStage == null) {
+            return null;
+        }
+        if (currentStage.startsWith("Erro")) {
+            return "erro";
+        }
+        String stage = timelineStage(currentStage);
+        if (stage != null) {
+            return stage;
+        }
+        int separator = currentStage.indexOf(':');
+        return separator >= 0 ? currentStage.substring(0, separator).trim() : currentStage;
+    }
+
+    /**
+     * Grava a linha do tempo no documento da oração (se já existir)
+     */
+    private void saveTimeline(String processId, List<StageTiming> timeline) {
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("processId").is(processId)),
+                    new Update().set("timeline", timeline), PrayerContent.class);
+        } catch (Exception e) {
+            log.warn("[PROCESSO] Erro ao gravar linha do tempo do processo {}: {}", processId, e.getMessage());
+        }
+    }
+
+    /**
+     * Encerra o processo por tempo esgotado, indicando a etapa em que o prazo
+     * acabou
+     */
+    private void expire(String processId, ProcessRecord record) {
+        String stage;
+        synchronized (record) {
+            StageTiming last = record.timeline.isEmpty() ? null : record.timeline.get(record.timeline.size() - 1);
+            boolean stageOverdue = record.stageDeadlineMillis > 0
+                    && System.currentTimeMillis() >= record.stageDeadlineMillis;
+            stage = stageOverdue && last != null ? last.getStage() : "processo";
+        }
+        String finalStage = "Erro: tempo esgotado (" + stage + ")";
+        ProcessCancellationService.CancellationReport report = terminate(processId, record, finalStage, stage);
+        if (report != null) {
+            notificationService.sendProgressNotification(processId, record.info.getUserId(), finalStage,
+                    record.status.getProgressPercentage());
+            log.warn("[PRAZO] Processo {} encerrado por tempo esgotado ({}): {} ms de thread, provedores: {}",
+                    processId, stage, report.threadTimeMs(), report.providers());
+        }
+    }
+
+    /**
+     * Finaliza um processo em andamento sem resultado: marca o estágio final,
+     * descarta as próximas etapas e aborta as chamadas aos provedores
+     *
+     * @param timedOutStage Estágio em que o prazo acabou (null se cancelado pelo usuário)
+     * @return Gasto desperdiçado, ou null se o processo já estava finalizado
+     */
+    private ProcessCancellationService.CancellationReport terminate(String processId, ProcessRecord record,
+            String finalStage, String timedOutStage) {
+        ProcessStatus status = record.status;
+        List<StageTiming> finishedTimeline;
+        synchronized (record) {
+            if (record.cancelled || record.finishedAt != null || status.isCompleted()) {
+                return null;
+            }
+            record.cancelled = true;
+            String previousStage = status.getCurrentStage();
+            status.setCurrentStage(finalStage);
+            status.setLastUpdated(LocalDateTime.now());
+            record.finishedAt = LocalDateTime.now();
+            // O estágio aberto é encerrado como falho, para não entrar nas latências
+            recordTimeline(record, finalStage, true, true);
+            finishedTimeline = new ArrayList<>(record.timeline);
+            if (record.tracked) {
+                statistics.stageChanged(previousStage, finalStage);
+                if (timedOutStage != null) {
+                    statistics.processFailed();
+                    statistics.processTimedOut(timedOutStage);
+                } else {
+                    statistics.processCancelled();
+                }
+            }
+        }
+
+        ProcessCancellationService.CancellationReport report = timedOutStage != null
+                ? processCancellationService.expire(processId)
+                : processCancellationService.cancel(processId);
+        persist(processId, record, true);
+        if (!finishedTimeline.isEmpty()) {
+            saveTimeline(processId, finishedTimeline);
+        }
+        generationAdmissionService.release(processId);
+        return report;
+    }
+
+    /**
+     * Repassa o prazo atual ao ProcessCancellationService e o coloca na fila
+     * de verificação
+     */
+    private void scheduleDeadline(String processId, ProcessRecord record) {
+        long deadline = effectiveDeadline(record);
+        processCancellationService.setDeadline(processId, deadline);
+        if (deadline > 0) {
+            deadlines.add(new ScheduledDeadline(deadline, processId));
+        }
+    }
+
+    /**
+     * Prazo mais próximo entre o total e o da etapa atual (0 = sem prazo)
+     */
+    private static long effectiveDeadline(ProcessRecord record) {
+        long total = record.deadlineMillis;
+        long stage = record.stageDeadlineMillis;
+        if (total == 0 || stage == 0) {
+            return Math.max(total, stage);
+        }
+        return Math.min(total, stage);
+    }
+
+    private static boolean isOverdue(ProcessRecord record, long now) {
+        long deadline = effectiveDeadline(record);
+        return deadline > 0 && now >= deadline;
+    }
+
+    /**
+     * Remove o processo do registro, das estatísticas e do histórico de notificações
+     */
+    private boolean remove(String processId, ProcessRecord record) {
+        if (!registry.remove(processId, record)) {
+            return false;
+        }
+        notificationService.evictProcess(processId);
+        generationAdmissionService.release(processId);
+        pipelineScheduler.forget(processId);
+        processCancellationService.forget(processId);
+        synchronized (record) {
+            if (record.tracked) {
+                record.tracked = false;
+                statistics.processRemoved(record.status.getCurrentStage(), record.status.isCompleted());
+            }
+        }
+        return true;
+    }
+
+    private ProcessRecord fromPersistedStatus(ProcessStatusDocument persisted) {
+        ProcessStatus status = new ProcessStatus();
+        status.setProcessId(persisted.getProcessId());
+        status.setCurrentStage(persisted.getCurrentStage());
+        status.setProgressPercentage(persisted.getProgressPercentage());
+        status.setCompleted(persisted.isCompleted());
+        status.setResultPath(persisted.getResultPath());
+        status.setStartTime(persisted.getStartTime());
+        status.setLastUpdated(persisted.getLastUpdated());
+        status.setUserId(persisted.getUserId());
+
+        ProcessInfo info = new ProcessInfo();
+        info.setFullAudioId(persisted.getFullAudioId());
+        info.setUserId(persisted.getUserId());
+
+        ProcessRecord record = new ProcessRecord(status, info);
+        record.resultId = persisted.getResultPath();
+        return record;
+    }
+
+    private ProcessInfo info(String processId) {
+        ProcessRecord record = registry.get(processId);
+        return record != null ? record.info : null;
+    }
+
+    /**
+     * Envia ao ProcessStatusWriter uma cópia do status atual
+     */
+    private void persist(String processId, ProcessRecord record, boolean stageChanged) {
+        ProcessStatus status = record.status;
+        ProcessStatusDocument snapshot = new ProcessStatusDocument();
+        snapshot.setProcessId(processId);
+        snapshot.setCurrentStage(status.getCurrentStage());
+        snapshot.setProgressPercentage(status.getProgressPercentage());
+        snapshot.setCompleted(status.isCompleted());
+        snapshot.setResultPath(status.getResultPath());
+        snapshot.setStartTime(status.getStartTime());
+        snapshot.setLastUpdated(status.getLastUpdated());
+        snapshot.setFullAudioId(record.info.getFullAudioId());
+        snapshot.setUserId(record.info.getUserId());
+        processStatusWriter.enqueue(snapshot, stageChanged);
+    }
+
+    /**
+     * Busca o registro do processo. Se não estiver nesta instância, usa o status
+     * gravado em process_status (processo em andamento em outra instância) ou
+     * reconstrói um registro resumido (sem os textos) a partir da oração no MongoDB.
+     *
+     * A existência da oração não basta para considerar o processo concluído
+     * (ela é gravada antes do áudio): o estado vem do process_status ou, sem
+     * ele, da linha do tempo, gravada na oração só quando o processo termina.
+     */
+    private ProcessRecord lookup(String processId) {
+        ProcessRecord record = registry.get(processId);
+        if (record != null) {
+            return record;
+        }
+
+        ProcessStatusDocument persisted = processStatusWriter.find(processId);
+        if (persisted != null && !persisted.isCompleted()) {
+            // Em andamento em outra instância: não guarda, para não servir status desatualizado
+            return fromPersistedStatus(persisted);
+        }
+
+        Query query = new Query(Criteria.where("processId").is(processId));
+        query.fields().include("title", "theme", "style", "duration", "language", "userId", "audioUrl",
+                "source", "timeline", "createdAt", "updatedAt");
+        PrayerContent prayer = mongoTemplate.findOne(query, PrayerContent.class);
+        if (prayer == null) {
+            return persisted != null ? fromPersistedStatus(persisted) : null;
+        }
+
+        ProcessStatus status = new ProcessStatus();
+        status.setProcessId(processId);
+        if (persisted != null) {
+            status.setCurrentStage(persisted.getCurrentStage());
+            status.setProgressPercentage(persisted.getProgressPercentage());
+            status.setCompleted(true);
+        } else if (prayer.getTimeline() != null && prayer.getTimeline().stream().anyMatch(timing -> Boolean.TRUE.equals(timing.getFailed()))) {
+            status.setCurrentStage("Erro: processo finalizado com falha");
+            status.setProgressPercentage(0);
+            status.setCompleted(false);
+        } else if (prayer.getTimeline() == null && PrayerContent.SOURCE_PIPELINE.equals(prayer.getSource())) {
+            // Oração gravada, mas o processo não chegou ao fim (ex.: instância reiniciada durante o áudio)
+            status.setCurrentStage("Erro: processo interrompido");
+            status.setProgressPercentage(0);
+            status.setCompleted(false);
+        } else {
+            // Linha do tempo sem falhas, acervo importado ou orações anteriores à linha do tempo
+            status.setCurrentStage("Concluído");
+            status.setProgressPercentage(100);
+            status.setCompleted(true);
+        }
+        status.setStartTime(prayer.getCreatedAt());
+        status.setLastUpdated(prayer.getUpdatedAt() != null ? prayer.getUpdatedAt() : prayer.getCreatedAt());
+        status.setResultPath(status.isCompleted() ? String.valueOf(prayer.getId()) : null);
+        status.setTema(prayer.getTheme());
+        status.setEstiloOracao(prayer.getStyle());
+        status.setDuracao(prayer.getDuration());
+        status.setUserId(prayer.getUserId());
+
+        ProcessInfo info = new ProcessInfo();
+        info.setTema(prayer.getTheme());
+        info.setEstiloOracao(prayer.getStyle());
+        info.setDuracao(prayer.getDuration());
+        info.setIdioma(prayer.getLanguage());
+        info.setTitulo(prayer.getTitle());
+        info.setUserId(prayer.getUserId());
+        info.setFullAudioId(prayer.getAudioUrl());
+        info.setOracaoId(String.valueOf(prayer.getId()));
+
+        ProcessRecord restored = new ProcessRecord(status, info);
+        restored.resultId = status.getResultPath();
+        restored.finishedAt = LocalDateTime.now();
+        log.debug("[PROCESSO] Processo {} reconstruído a partir do MongoDB: {}", processId,
+                status.getCurrentStage());
+
+        if (registry.size() >= maxEntries) {
+            return restored;
+        }
+        ProcessRecord existing = registry.putIfAbsent(processId, restored);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (restored) {
+            restored.tracked = true;
+            statistics.processAdded(status.getCurrentStage(), status.isCompleted());
+        }
+        return restored;
+    }
+}
@@ -0,0 +1,275 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PromptTemplateDocument;
+import dev.luisoliveira.roteiro.util.PromptTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Templates de prompt das etapas do pipeline, um por (estágio, idioma).
+ *
+ * Os padrões ficam em resources/prompts/&lt;estágio&gt;/&lt;idioma&gt;.txt; documentos
+ * da coleção prompt_templates substituem o template de mesmo estágio e idioma.
+ * Cada arquivo tem as instruções fixas da etapa (sem slots, vão como prefixo
+ * estável da requisição), a linha "=== entrada ===" e o template dos dados
+ * variáveis.
+ *
+ * Tudo é compilado no carregamento e publicado de uma vez; um template com
+ * erro é ignorado (vale o anterior ou o padrão) e o erro fica em
+ * /config/prompts. A coleção é verificada a cada app.prompts.reload-interval-ms
+ * e os templates são recarregados quando algum documento muda.
+ *
+ * Idioma: exato (es-MX), depois o idioma base (es) e, por fim, es.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromptTemplateService {
+
+    private static final String RESOURCE_PATTERN = "classpath*:prompts/*/*.txt";
+    private static final String INPUT_SEPARATOR = "\n=== entrada ===\n";
+    private static final String DEFAULT_LANGUAGE = "es";
+
+    // Slots do template de entrada de cada estágio, na ordem em que os valores são passados
+    private static final Map<String, List<String>> SLOTS = Map.of(
+            ModelRouter.TITLES, List.of("tema", "estilo", "observacoes"),
+            ModelRouter.ORACAO, List.of("titulo", "tema", "estilo", "duracao", "tamanho"),
+            ModelRouter.SHORT, List.of("titulo", "oracao"),
+            ModelRouter.CORRECTION, List.of("titulo", "oracao"),
+            ModelRouter.DESCRIPTION, List.of("titulo", "oracao"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.prompts.mongo-overrides:true}")
+    private boolean mongoOverrides;
+
+    /**
+     * Template compilado de um estágio em um idioma
+     *
+     * @param source classpath ou mongodb
+     * @param instructions Instruções fixas da etapa, já renderizadas
+     */
+    public record CompiledPrompt(String stage, String language, String source, String instructions,
+            PromptTemplate input) {
+    }
+
+    private volatile Map<String, CompiledPrompt> templates = Map.of();
+    private volatile List<String> errors = List.of();
+    private volatile String mongoFingerprint = "";
+    private volatile LocalDateTime loadedAt;
+    private volatile int reloads;
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    /**
+     * Template do estágio para o idioma do processo
+     */
+    public CompiledPrompt get(String stage, String idioma) {
+        Map<String, CompiledPrompt> current = templates;
+        String language = idioma != null ? idioma.toLowerCase(Locale.ROOT) : DEFAULT_LANGUAGE;
+
+        CompiledPrompt prompt = current.get(key(stage, language));
+        if (prompt == null && language.contains("-")) {
+            prompt = current.get(key(stage, language.substring(0, language.indexOf('-'))));
+        }
+        if (prompt == null) {
+            prompt = current.get(key(stage, DEFAULT_LANGUAGE));
+        }
+        if (prompt == null) {
+            throw new IllegalStateException("Template de prompt não encontrado para o estágio " + stage);
+        }
+        return prompt;
+    }
+
+    /**
+     * Recarrega os templates do classpath e do MongoDB
+     */
+    public synchronized Map<String, Object> reload() {
+        Map<String, CompiledPrompt> loaded = new HashMap<>();
+        List<String> loadErrors = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+
+        loadClasspath(loaded, loadErrors, failed);
+        if (mongoOverrides) {
+            loadMongo(loaded, loadErrors, failed);
+        }
+        for (String stage : SLOTS.keySet()) {
+            if (!loaded.containsKey(key(stage, DEFAULT_LANGUAGE))) {
+                loadErrors.add(stage + ": sem template padrão (" + DEFAULT_LANGUAGE + ")");
+            }
+        }
+
+        // Publica o novo conjunto de uma vez; templates que não compilaram mantêm a versão
+        // anterior (mesmo que o padrão do classpath tenha compilado) e, sem versão anterior, o padrão
+        Map<String, CompiledPrompt> previous = templates;
+        for (String key : failed) {
+            if (previous.containsKey(key)) {
+                loaded.put(key, previous.get(key));
+            }
+        }
+        templates = Map.copyOf(loaded);
+        errors = List.copyOf(loadErrors);
+        loadedAt = LocalDateTime.now();
+        reloads++;
+
+        if (loadErrors.isEmpty()) {
+            log.info("[PROMPTS] {} templates carregados", loaded.size());
+        } else {
+            log.warn("[PROMPTS] {} templates carregados, {} com erro: {}", loaded.size(), loadErrors.size(),
+                    loadErrors);
+        }
+        return describe();
+    }
+
+    /**
+     * Recarrega quando algum documento da coleção prompt_templates mudou
+     */
+    @Scheduled(fixedDelayString = "${app.prompts.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (!mongoOverrides) {
+            return;
+        }
+        try {
+            String fingerprint = fingerprint();
+            if (!fingerprint.equals(mongoFingerprint)) {
+                log.info("[PROMPTS] Alteração detectada em prompt_templates, recarregando");
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("[PROMPTS] Não foi possível verificar prompt_templates: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Templates em uso e erros do último carregamento, exposto em /config/prompts
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> active = new TreeMap<>();
+        templates.forEach((key, prompt) -> {
+            Map<String, Object> line = new HashMap<>();
+            line.put("source", prompt.source());
+            line.put("instructionsLength", prompt.instructions().length());
+            line.put("slots", prompt.input().getSlots());
+            active.put(key, line);
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("templates", active);
+        stats.put("errors", errors);
+        stats.put("loadedAt", loadedAt);
+        stats.put("reloads", reloads);
+        stats.put("mongoOverrides", mongoOverrides);
+        return stats;
+    }
+
+    private void loadClasspath(Map<String, CompiledPrompt> loaded, List<String> loadErrors, Set<String> failed) {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(RESOURCE_PATTERN);
+            for (Resource resource : resources) {
+                String path = resource.getURL().getPath();
+                String stage = path.substring(0, path.lastIndexOf('/'));
+                stage = stage.substring(stage.lastIndexOf('/') + 1);
+                String filename = resource.getFilename();
+                String language = filename.substring(0, filename.length() - ".txt".length());
+                try (InputStream in = resource.getInputStream()) {
+                    String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    compile(stage, language, "classpath", content, loaded, loadErrors, failed);
+                }
+            }
+        } catch (IOException e) {
+            log.error("[PROMPTS] Erro ao ler templates do classpath: {}", e.getMessage(), e);
+            loadErrors.add("classpath: " + e.getMessage());
+        }
+    }
+
+    private void loadMongo(Map<String, CompiledPrompt> loaded, List<String> loadErrors, Set<String> failed) {
+        try {
+            for (PromptTemplateDocument document : mongoTemplate.findAll(PromptTemplateDocument.class)) {
+                compile(document.getStage(), document.getLanguage(), "mongodb", document.getContent(), loaded,
+                        loadErrors, failed);
+            }
+            mongoFingerprint = fingerprint();
+        } catch (Exception e) {
+            log.warn("[PROMPTS] Não foi possível ler prompt_templates, mantendo as versões anteriores: {}",
+                    e.getMessage());
+            loadErrors.add("mongodb: " + e.getMessage());
+            templates.forEach((key, prompt) -> {
+                if ("mongodb".equals(prompt.source())) {
+                    failed.add(key);
+                }
+            });
+        }
+    }
+
+    private void compile(String stage, String language, String source, String content,
+            Map<String, CompiledPrompt> loaded, List<String> loadErrors, Set<String> failed) {
+        String label = source + " " + stage + ":" + language;
+        List<String> slots = SLOTS.get(stage);
+        if (slots == null || language == null || content == null) {
+            loadErrors.add(label + ": estágio desconhecido ou documento incompleto");
+            return;
+        }
+
+        String key = key(stage, language.toLowerCase(Locale.ROOT));
+        String text = content.replace("\r\n", "\n");
+        int separator = text.indexOf(INPUT_SEPARATOR);
+        if (separator < 0) {
+            loadErrors.add(label + ": falta a linha \"" + INPUT_SEPARATOR.trim() + "\"");
+            failed.add(key);
+            return;
+        }
+        try {
+            // As instruções não aceitam slots: precisam ser idênticas em toda chamada
+            String instructions = PromptTemplate.compile(text.substring(0, separator), List.of()).render();
+            PromptTemplate input = PromptTemplate.compile(
+                    stripTrailingNewline(text.substring(separator + INPUT_SEPARATOR.length())), slots);
+            loaded.put(key, new CompiledPrompt(stage, language, source, instructions, input));
+            failed.remove(key);
+        } catch (IllegalArgumentException e) {
+            loadErrors.add(label + ": " + e.getMessage());
+            failed.add(key);
+        }
+    }
+
+    // Quantidade de documentos e última alteração da coleção
+    private String fingerprint() {
+        long count = mongoTemplate.count(new Query(), PromptTemplateDocument.class);
+        PromptTemplateDocument latest = mongoTemplate.findOne(
+                new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1),
+                PromptTemplateDocument.class);
+        return count + "@" + (latest != null ? latest.getUpdatedAt() : null);
+    }
+
+    private static String stripTrailingNewline(String text) {
+        return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private static String key(String stage, String language) {
+        return stage + ":" + language;
+    }
+}
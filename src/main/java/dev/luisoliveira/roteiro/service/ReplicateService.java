@@ -4,6 +4,7 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedReader;
@@ -22,9 +23,12 @@ import java.util.Base64;
  * Serviço para geração de imagens usando a API do Replicate.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class ReplicateService {
 
+    private final ProcessCancellationService processCancellationService;
+
     @Value("${replicate.api.key}")
     private String REPLICATE_API_KEY;
 
@@ -36,6 +40,7 @@ public class ReplicateService {
     private static final String PREDICTIONS_URL = API_BASE_URL + "/models/" + MODEL_NAME + "/predictions";
     private static final int MAX_RETRIES = 30;
     private static final int RETRY_DELAY_MS = 2000;
+    private static final int CANCEL_TIMEOUT_MS = 5000;
 
 
     /**
@@ -52,19 +57,31 @@ public class ReplicateService {
         log.info("Iniciando geração de imagem para o processo: {}", processId);
         log.debug("Prompt para imagem: {}", prompt);
 
-        // Criar a predição (job) no Replicate
-        String predictionId = createPrediction(prompt);
-        log.info("Prediction criada com ID: {}", predictionId);
+        try (ProcessCancellationService.InFlightCall call = processCancellationService.track("replicate", "images")) {
+            // Criar a predição (job) no Replicate
+            String predictionId = createPrediction(prompt);
+            log.info("Prediction criada com ID: {}", predictionId);
 
-        // Esperar pela conclusão da geração
-        String imageUrl = waitForPredictionCompletion(predictionId);
-        log.info("Imagem gerada com sucesso, URL: {}", imageUrl);
+            // Esperar pela conclusão da geração
+            String imageUrl;
+            try {
+                imageUrl = waitForPredictionCompletion(predictionId);
+            } catch (IOException e) {
+                if (call.isAborted()) {
+                    // Processo cancelado: a predição continuaria rodando (e sendo cobrada) no Replicate
+                    cancelPrediction(predictionId);
+                }
+                throw e;
+            }
+            call.addUsage(1);
+            log.info("Imagem gerada com sucesso, URL: {}", imageUrl);
 
-        // Baixar e salvar a imagem
-        String imagePath = downloadAndSaveImage(imageUrl, processId, title, outputDir);
-        log.info("Imagem salva com sucesso em: {}", imagePath);
+            // Baixar e salvar a imagem
+            String imagePath = downloadAndSaveImage(imageUrl, processId, title, outputDir);
+            log.info("Imagem salva com sucesso em: {}", imagePath);
 
-        return imagePath;
+            return imagePath;
+        }
     }
 
     /**
@@ -84,6 +101,7 @@ public class ReplicateService {
             connection.setRequestProperty("Content-Type", "application/json");
             connection.setRequestProperty("Authorization", "Bearer " + REPLICATE_API_KEY);
             connection.setDoOutput(true);
+            processCancellationService.attach(connection);
 
             // Criar o corpo da requisição
             JSONObject requestBody = new JSONObject();
@@ -172,6 +190,7 @@ public class ReplicateService {
                 connection = (HttpURLConnection) url.openConnection();
                 connection.setRequestMethod("GET");
                 connection.setRequestProperty("Authorization", "Bearer " + REPLICATE_API_KEY);
+                processCancellationService.attach(connection);
 
                 // Verificar o código de resposta
                 int responseCode = connection.getResponseCode();
@@ -239,6 +258,31 @@ public class ReplicateService {
         throw new IOException("Número máximo de tentativas excedido ao aguardar a conclusão da predição");
     }
 
+    /**
+     * Cancela a predição no Replicate (melhor esforço: falhas são apenas registradas)
+     *
+     * @param predictionId ID da predição a ser cancelada
+     */
+    private void cancelPrediction(String predictionId) {
+        HttpURLConnection connection = null;
+        try {
+            URL url = new URL(API_BASE_URL + "/predictions/" + predictionId + "/cancel");
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Authorization", "Bearer " + REPLICATE_API_KEY);
+            connection.setConnectTimeout(CANCEL_TIMEOUT_MS);
+            connection.setReadTimeout(CANCEL_TIMEOUT_MS);
+            int responseCode = connection.getResponseCode();
+            log.info("Predição {} cancelada no Replicate (status {})", predictionId, responseCode);
+        } catch (IOException e) {
+            log.warn("Erro ao cancelar a predição {} no Replicate: {}", predictionId, e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
     /**
      * Baixa e salva a imagem gerada
      *
@@ -256,6 +300,7 @@ public class ReplicateService {
             URL url = new URL(imageUrl);
             connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
+            processCancellationService.attach(connection);
 
             // Verificar o código de resposta
             int responseCode = connection.getResponseCode();
@@ -14,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 public class ShortGenerationService {
 
     private final OpenAIService openAIService;
+    private final PromptBuilder promptBuilder;
+    private final LanguageDetector languageDetector;
     private final EventBusService eventBusService;
     private final ProcessTrackingService processTrackingService;
 
@@ -63,37 +65,29 @@ public class ShortGenerationService {
             log.info("Gerando versão short da oração no idioma: {}", idioma);
 
             // Construir prompt otimizado para short
-            String prompt = PromptBuilder.buildShortPrompt(
+            PromptBuilder.Prompt prompt = promptBuilder.buildShortPrompt(
                     event.getOracaoContent(),
                     event.getTitle(),
                     idioma);
 
             // Chamar OpenAI API
             log.info("Iniciando geração da versão short no idioma: {}", idioma);
-            String shortContent = openAIService.generateOracao(prompt);
+            String shortContent = openAIService.generateShort(prompt, idioma);
             processTrackingService.setShortContent(processId, shortContent);
 
-            // Verificar se o conteúdo está no idioma correto
-            if (necessitaCorrecaoIdioma(shortContent, idioma)) {
-                log.warn("Conteúdo short não parece estar no idioma correto ({}), tentando regenerar...", idioma);
-
-                String idiomaNome;
-                if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-                    idiomaNome = "português";
-                } else if ("en".equalsIgnoreCase(idioma)) {
-                    idiomaNome = "inglés";
-                } else {
-                    idiomaNome = "español";
-                }
-
-                String correctedPrompt = "Por favor, crea una versión corta (30-60 segundos) en " + idiomaNome +
-                        " de la siguiente oración. Es MUY IMPORTANTE que sea COMPLETAMENTE en " + idiomaNome +
-                        ":\n\nTítulo: \"" + event.getTitle() + "\"\n\n" +
-                        "Contenido original:\n" + event.getOracaoContent() + "\n\n" +
-                        "La versión corta debe mantener la esencia principal, incluir un versículo bíblico y " +
-                        "terminar con \"En el nombre de Jesús, Amén.\"";
-
-                shortContent = openAIService.generateOracao(correctedPrompt);
+            // Verificar se o conteúdo está no idioma correto (regenera só abaixo do limiar de confiança)
+            LanguageDetector.Detection detection = languageDetector.check(ModelRouter.SHORT, shortContent, idioma);
+            if (!languageDetector.isAccepted(detection)) {
+                log.warn("Conteúdo short não parece estar no idioma correto ({}; detectado: {}, confiança: {}), tentando regenerar...",
+                        idioma, detection.detected(), String.format("%.2f", detection.confidence()));
+
+                PromptBuilder.Prompt correctedPrompt = promptBuilder.buildShortCorrectionPrompt(
+                        event.getOracaoContent(),
+                        event.getTitle(),
+                        idioma);
+
+                shortContent = openAIService.generateLanguageCorrection(correctedPrompt, idioma);
+                processTrackingService.setShortContent(processId, shortContent);
             }
 
             // Atualizar status
@@ -160,66 +154,4 @@ public class ShortGenerationService {
                 duracao, gerarVersaoShort, processId);
         return false;
     }
-
-    /**
-     * Método para verificar se o conteúdo gerado precisa de correção de idioma
-     */
-    private boolean necessitaCorrecaoIdioma(String text, String idioma) {
-        if (text == null || text.isEmpty()) {
-            return false;
-        }
-
-        // Verificação para português
-        if (("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma))) {
-            // Palavras típicas do português que não costumam aparecer em espanhol ou inglês
-            String[] palavrasPortugues = { "em", "não", "você", "para", "são", "também", "muito", "obrigado", "está" };
-
-            // Se o texto deve estar em português, verificamos se não há palavras espanholas
-            String[] palavrasEspanhol = { "el", "la", "los", "las", "es", "en", "con", "por", "para", "su" };
-
-            return !contemPalavras(text, palavrasPortugues) && contemPalavras(text, palavrasEspanhol);
-        }
-
-        // Verificação para inglês
-        if ("en".equalsIgnoreCase(idioma)) {
-            // Palavras típicas do inglês
-            String[] palavrasIngles = { "the", "and", "for", "with", "your", "our", "that", "this", "from", "have" };
-
-            // Se o texto deve estar em inglês, verificamos se não há palavras espanholas
-            String[] palavrasEspanhol = { "el", "la", "los", "las", "es", "en", "con", "por", "para", "su" };
-
-            return !contemPalavras(text, palavrasIngles) && contemPalavras(text, palavrasEspanhol);
-        }
-
-        // Verificação para espanhol (padrão)
-        // Palavras típicas do espanhol
-        String[] palavrasEspanhol = { "el", "la", "los", "las", "es", "en", "con", "por", "para", "su" };
-
-        // Palavras típicas do português
-        String[] palavrasPortugues = { "em", "não", "você", "para", "são", "também", "muito", "obrigado", "está" };
-
-        return !contemPalavras(text, palavrasEspanhol) && contemPalavras(text, palavrasPortugues);
-    }
-
-    /**
-     * Verifica se o texto contém pelo menos algumas das palavras da lista
-     */
-    private boolean contemPalavras(String texto, String[] palavras) {
-        texto = texto.toLowerCase();
-        int contador = 0;
-        int minimo = Math.min(3, palavras.length); // Pelo menos 3 palavras ou todas se forem menos que 3
-
-        for (String palavra : palavras) {
-            if (texto.contains(" " + palavra + " ") ||
-                    texto.startsWith(palavra + " ") ||
-                    texto.endsWith(" " + palavra) ||
-                    texto.equals(palavra)) {
-                contador++;
-                if (contador >= minimo) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.NotificationMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro dos assinantes do stream SSE de status
+ * (/content/status/{processId}/stream).
+ *
+ * Os emitters são assíncronos: a requisição é liberada logo após a assinatura
+ * e nenhuma thread do servlet fica presa enquanto o assinante espera. Os
+ * envios passam por um pool próprio (app.status-stream.dispatch-threads), de
+ * modo que um cliente lento não atrasa o pipeline que publicou o evento.
+ *
+ * Cada assinante tem sua fila de envios, escoada por uma tarefa do pool de
+ * cada vez (a ordem dos eventos é mantida). Um cliente lento ocupa no máximo
+ * uma thread do pool; se a fila dele passa de app.status-stream.max-pending,
+ * o stream é encerrado (o cliente pode assinar de novo e recebe o estado
+ * atual).
+ *
+ * Eventos enviados: "status" (estado no momento da assinatura), "progress"
+ * (mesmas mensagens agrupadas do WebSocket) e "result" (conclusão ou erro),
+ * após o qual o stream é encerrado.
+ */
+@Service
+@Slf4j
+public class StatusStreamService {
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final LongAdder droppedSubscribers = new LongAdder();
+    private ExecutorService dispatcher;
+
+    @Value("${app.status-stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.status-stream.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${app.status-stream.max-pending:32}")
+    private int maxPending;
+
+    // Envio pendente; last encerra o stream depois de enviado
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean last) {
+    }
+
+    // Emitter com a própria fila de envios
+    private static class Subscriber extends SseEmitter {
+        private final Deque<Outgoing> pending = new ArrayDeque<>();
+        private boolean draining; // Alterado com o lock do assinante
+
+        private Subscriber(long timeoutMillis) {
+            super(timeoutMillis);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registra um novo assinante do processo. O registro acontece antes de
+     * qualquer envio, para que nenhum evento publicado durante a assinatura se
+     * perca.
+     */
+    public SseEmitter subscribe(String processId) {
+        Subscriber subscriber = new Subscriber(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        subscribers.computeIfAbsent(processId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        Runnable remove = () -> unsubscribe(processId, subscriber);
+        subscriber.onCompletion(remove);
+        subscriber.onTimeout(remove);
+        subscriber.onError(error -> remove.run());
+
+        log.debug("[SSE] Nova assinatura do processo {} ({} assinantes)", processId,
+                subscribers.getOrDefault(processId, Set.of()).size());
+        return subscriber;
+    }
+
+    /**
+     * Envia o estado atual para um assinante recém-registrado
+     *
+     * @param finished true se o processo já terminou (o stream é encerrado)
+     */
+    public void sendSnapshot(SseEmitter emitter, Object status, boolean finished) {
+        if (emitter instanceof Subscriber subscriber) {
+            enqueue(subscriber, new Outgoing(SseEmitter.event().name(finished ? "result" : "status").data(status),
+                    finished));
+        }
+    }
+
+    /**
+     * Repassa uma mensagem de progresso aos assinantes do processo
+     */
+    public void publishProgress(String processId, NotificationMessage message) {
+        publish(processId, "progress", message, false);
+    }
+
+    /**
+     * Envia a mensagem final (conclusão ou erro) e encerra os streams do processo
+     */
+    public void publishResult(String processId, NotificationMessage message) {
+        publish(processId, "result", message, true);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Assinantes encerrados por não acompanhar os envios
+     */
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.sum();
+    }
+
+    /**
+     * Comentário periódico para manter a conexão aberta em proxies e detectar
+     * clientes que já desconectaram. Assinantes com envios pendentes não
+     * precisam do ping.
+     */
+    @Scheduled(fixedDelayString = "${app.status-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(emitters -> emitters.forEach(subscriber -> {
+            synchronized (subscriber) {
+                if (!subscriber.pending.isEmpty() || subscriber.draining) {
+                    return;
+                }
+            }
+            enqueue(subscriber, new Outgoing(SseEmitter.event().comment("ping"), false));
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    private void publish(String processId, String eventName, Object data, boolean last) {
+        Set<Subscriber> emitters = last ? subscribers.remove(processId) : subscribers.get(processId);
+        if (emitters == null) {
+            return;
+        }
+        for (Subscriber subscriber : emitters) {
+            enqueue(subscriber, new Outgoing(SseEmitter.event().name(eventName).data(data), last));
+        }
+    }
+
+    /**
+     * Coloca o envio na fila do assinante e agenda o escoamento, se ainda não
+     * houver um em andamento
+     */
+    private void enqueue(Subscriber subscriber, Outgoing outgoing) {
+        boolean schedule;
+        synchronized (subscriber) {
+            if (subscriber.pending.size() >= maxPending) {
+                subscriber.pending.clear();
+                droppedSubscribers.increment();
+                log.warn("[SSE] Assinante não acompanha os envios ({} pendentes): encerrando o stream", maxPending);
+                subscriber.complete();
+                return;
+            }
+            subscriber.pending.add(outgoing);
+            schedule = !subscriber.draining;
+            subscriber.draining = true;
+        }
+        if (schedule) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Encerrando a aplicação
+                subscriber.complete();
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Outgoing outgoing;
+            synchronized (subscriber) {
+                outgoing = subscriber.pending.poll();
+                if (outgoing == null) {
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+            if (!send(subscriber, outgoing.event())) {
+                synchronized (subscriber) {
+                    subscriber.pending.clear();
+                    subscriber.draining = false;
+                }
+                return;
+            }
+            if (outgoing.last()) {
+                subscriber.complete();
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            log.debug("[SSE] Assinante desconectado: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void unsubscribe(String processId, Subscriber subscriber) {
+        subscribers.computeIfPresent(processId, (id, emitters) -> {
+            emitters.remove(subscriber);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
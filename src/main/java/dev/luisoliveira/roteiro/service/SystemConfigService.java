@@ -7,10 +7,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Serviço simplificado para configurações do sistema (versão transitória para
@@ -22,6 +28,7 @@ import java.util.Map;
 public class SystemConfigService {
 
     private final FileStorageService fileStorageService;
+    private final BlobStore blobStore;
 
     @Value("${file.output.path:./gerados}")
     private String defaultOutputPath;
@@ -115,29 +122,69 @@ public class SystemConfigService {
     }
 
     /**
-     * Método para compatibilidade - Simulação de listagem de diretórios
-     * 
-     * @param basePath Caminho base (ignorado nesta versão)
-     * @return Mapa com informações simuladas de diretórios
+     * Lista os diretórios do armazenamento. Com armazenamento em disco, lista os
+     * subdiretórios reais de basePath (padrão: raiz do armazenamento); com
+     * GridFS, retorna apenas o local do bucket.
+     *
+     * @param basePath Caminho base (usado apenas com armazenamento em disco); relativo à raiz do
+     *                 armazenamento ou absoluto dentro dela
+     * @throws IllegalArgumentException se o caminho estiver fora da raiz do armazenamento
+     * @return Mapa com os diretórios e o caminho atual
      */
-    public Map<String, Object> listDirectories(String basePath) {
+    public Map<String, Object> listDirectories(String basePath) throws IOException {
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> directories = new ArrayList<>();
+        Optional<Path> localRoot = blobStore.getLocalRoot();
+
+        if (localRoot.isEmpty()) {
+            Map<String, Object> dir = new HashMap<>();
+            dir.put("name", "MongoDB GridFS");
+            dir.put("path", blobStore.getLocation());
+            dir.put("canWrite", true);
+            dir.put("isDefault", true);
+            directories.add(dir);
+
+            result.put("directories", directories);
+            result.put("currentPath", blobStore.getLocation());
+            result.put("canWrite", true);
+            log.info("Armazenamento em GridFS: {}", blobStore.getLocation());
+            return result;
+        }
+
+        // Só é permitido navegar dentro da raiz do armazenamento
+        Path root = localRoot.get().toAbsolutePath().normalize();
+        Path current = basePath == null || basePath.isBlank()
+                ? root
+                : root.resolve(basePath).toAbsolutePath().normalize();
+        if (!current.startsWith(root)) {
+            throw new IllegalArgumentException("Caminho fora do armazenamento: " + basePath);
+        }
+        if (!Files.isDirectory(current)) {
+            throw new IllegalArgumentException("Diretório não encontrado: " + basePath);
+        }
+        // Links simbólicos não podem apontar para fora da raiz
+        if (!current.toRealPath().startsWith(root.toRealPath())) {
+            throw new IllegalArgumentException("Caminho fora do armazenamento: " + basePath);
+        }
 
-        // Simular um diretório padrão
-        Map<String, Object> dir = new HashMap<>();
-        dir.put("name", "MongoDB (Armazenamento em nuvem)");
-        dir.put("path", "mongodb://cloud");
-        dir.put("canWrite", true);
-        dir.put("isDefault", true);
-        directories.add(dir);
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(current, Files::isDirectory)) {
+            for (Path child : children) {
+                Map<String, Object> dir = new HashMap<>();
+                dir.put("name", child.getFileName().toString());
+                dir.put("path", child.toString());
+                dir.put("canWrite", Files.isWritable(child));
+                dir.put("isDefault", child.equals(root));
+                directories.add(dir);
+            }
+        }
+        directories.sort(Comparator.comparing(dir -> (String) dir.get("name")));
 
         result.put("directories", directories);
-        result.put("currentPath", "mongodb://cloud");
-        result.put("canWrite", true);
-        result.put("message", "Sistema transitório para MongoDB - diretórios simulados");
+        result.put("currentPath", current.toString());
+        result.put("parentPath", current.equals(root) ? null : current.getParent().toString());
+        result.put("canWrite", Files.isWritable(current));
 
-        log.info("Listagem de diretórios simulada");
+        log.info("Listados {} diretórios em {}", directories.size(), current);
         return result;
     }
 }
\ No newline at end of file
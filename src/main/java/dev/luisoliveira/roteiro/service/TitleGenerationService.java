@@ -17,6 +17,8 @@ import java.util.List;
 public class TitleGenerationService {
 
         private final OpenAIService openAIService;
+        private final PromptBuilder promptBuilder;
+        private final LanguageDetector languageDetector;
         private final EventBusService eventBusService;
         private final ProcessTrackingService processTrackingService;
 
@@ -67,7 +69,7 @@ public class TitleGenerationService {
                         boolean hasObservacoes = event.hasObservacoes();
 
                         // Construir prompt otimizado com suporte ao idioma
-                        String prompt = PromptBuilder.buildTitlePrompt(
+                        PromptBuilder.Prompt prompt = promptBuilder.buildTitlePrompt(
                                         event.getTema(),
                                         event.getEstiloOracao(),
                                         idioma,
@@ -75,7 +77,21 @@ public class TitleGenerationService {
                                         observacoes);
 
                         // Chamar OpenAI API
-                        List<String> titles = openAIService.generateTitles(prompt);
+                        List<String> titles = openAIService.generateTitles(prompt, idioma);
+
+                        // Verificar o idioma; gera de novo uma vez se a confiança ficar abaixo do limiar
+                        LanguageDetector.Detection detection = languageDetector.check(
+                                        ModelRouter.TITLES, String.join("\n", titles), idioma);
+                        if (!languageDetector.isAccepted(detection)) {
+                                log.warn("Títulos não parecem estar em {} (detectado: {}, confiança: {}), gerando novamente...",
+                                                idioma, detection.detected(), String.format("%.2f", detection.confidence()));
+                                List<String> retry = openAIService.generateTitles(prompt, idioma);
+                                LanguageDetector.Detection retryDetection = languageDetector.check(
+                                                ModelRouter.TITLES, String.join("\n", retry), idioma);
+                                if (retryDetection.confidence() > detection.confidence()) {
+                                        titles = retry;
+                                }
+                        }
 
                         // Armazenar títulos
                         processTrackingService.saveTitles(processId, titles);
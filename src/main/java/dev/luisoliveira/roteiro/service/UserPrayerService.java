@@ -0,0 +1,129 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.PrayerPage;
+import dev.luisoliveira.roteiro.dto.PrayerSummary;
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serviço de consulta das orações de um usuário.
+ *
+ * A listagem usa paginação por cursor (keyset) em (createdAt, id), servida pelo
+ * índice {userId, createdAt desc, _id desc}: cada página custa o mesmo
+ * independentemente de quantas orações o usuário já gerou.
+ *
+ * Orações sem createdAt (documentos antigos; o _id é um UUID, sem data para
+ * recuperar) vêm por último na ordenação e são paginadas apenas pelo _id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserPrayerService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Lista uma página de resumos das orações do usuário, da mais recente para a
+     * mais antiga
+     *
+     * @param userId ID do usuário
+     * @param cursor Cursor retornado pela página anterior (null para a primeira)
+     * @param size   Tamanho da página
+     * @return Página com os resumos e o cursor da próxima página
+     */
+    public PrayerPage listPrayers(String userId, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = decodeCursor(cursor);
+            if (position.createdAt() != null) {
+                criteria = criteria.orOperator(
+                        Criteria.where("createdAt").lt(position.createdAt()),
+                        Criteria.where("createdAt").is(position.createdAt()).and("_id").lt(position.id()),
+                        Criteria.where("createdAt").is(null));
+            } else {
+                criteria = criteria.and("createdAt").is(null).and("_id").lt(position.id());
+            }
+        }
+
+        // Busca um item a mais para saber se existe próxima página
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include("title", "theme", "language", "createdAt", "audioUrl");
+
+        List<PrayerContent> prayers = mongoTemplate.find(query, PrayerContent.class);
+        boolean hasMore = prayers.size() > pageSize;
+        if (hasMore) {
+            prayers = prayers.subList(0, pageSize);
+        }
+
+        List<PrayerSummary> items = prayers.stream()
+                .map(prayer -> new PrayerSummary(
+                        prayer.getId(),
+                        prayer.getTitle(),
+                        prayer.getTheme(),
+                        prayer.getLanguage(),
+                        prayer.getCreatedAt(),
+                        prayer.getAudioUrl() != null && !prayer.getAudioUrl().isEmpty()))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            PrayerContent last = prayers.get(prayers.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        log.debug("Página de orações do usuário {}: {} itens, próxima página: {}", userId, items.size(), hasMore);
+        return new PrayerPage(items, nextCursor);
+    }
+
+    /**
+     * Recupera a oração completa, somente se pertencer ao usuário
+     *
+     * @param userId ID do usuário
+     * @param id     ID da oração
+     * @return Oração completa ou vazio se não existir ou for de outro usuário
+     */
+    public Optional<PrayerContent> getPrayer(String userId, UUID id) {
+        Query query = new Query(Criteria.where("_id").is(id).and("userId").is(userId));
+        return Optional.ofNullable(mongoTemplate.findOne(query, PrayerContent.class));
+    }
+
+    // createdAt|id, ou |id para orações sem createdAt
+    private String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            LocalDateTime createdAt = separator > 0 ? LocalDateTime.parse(raw.substring(0, separator)) : null;
+            return new Cursor(createdAt, UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, UUID id) {
+    }
+}
@@ -1,12 +1,24 @@
 package dev.luisoliveira.roteiro.util;
 
+import dev.luisoliveira.roteiro.service.ModelRouter;
+import dev.luisoliveira.roteiro.service.PromptTemplateService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 
 /**
- * Classe utilitária para construção de prompts otimizados para API OpenAI.
+ * Construção dos prompts otimizados para API OpenAI.
  * Gera prompts para diferentes etapas do processo de geração de conteúdo para orações.
+ *
+ * O texto de cada etapa vem dos templates compilados de PromptTemplateService
+ * (resources/prompts ou coleção prompt_templates), um por etapa e idioma:
+ * as instruções fixas vão como mensagem de sistema (prefixo estável, cacheado
+ * pelo provedor) e os dados variáveis são renderizados por último na
+ * mensagem do usuário. Aqui ficam só a validação e os valores dos slots.
  */
 @Slf4j
+@Component
+@RequiredArgsConstructor
 public class PromptBuilder {
 
     // Constantes com dados da análise
@@ -18,6 +30,17 @@ public class PromptBuilder {
             "protección familiar", "mensajes diarios", "renovación financiera", "transformación personal"
     };
 
+    private final PromptTemplateService promptTemplateService;
+
+    /**
+     * Prompt de uma etapa do pipeline
+     *
+     * @param instructions Parte fixa da etapa no idioma (prefixo estável)
+     * @param input Dados variáveis da chamada, sempre ao final
+     */
+    public record Prompt(String instructions, String input) {
+    }
+
     /**
      * Constrói prompt para geração de títulos
      *
@@ -26,64 +49,12 @@ public class PromptBuilder {
      * @param idioma Idioma (es, pt, en)
      * @return Prompt otimizado para geração de títulos
      */
-    public static String buildTitlePrompt(String tema, String estilo, String idioma, boolean hasObservacoes, String observacoes) {
+    public Prompt buildTitlePrompt(String tema, String estilo, String idioma, boolean hasObservacoes, String observacoes) {
         log.debug("Construindo prompt para títulos: tema={}, estilo={}, idioma={}, hasObservacoes={}",
                 tema, estilo, idioma, hasObservacoes);
 
-        StringBuilder prompt = new StringBuilder();
-
-        // Selecionar idioma para o prompt
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("Crie 5 títulos em português para uma oração sobre \"")
-                    .append(tema)
-                    .append("\" no estilo \"")
-                    .append(estilo)
-                    .append("\".\n\n");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("Create 5 titles in English for a prayer about \"")
-                    .append(tema)
-                    .append("\" in the style \"")
-                    .append(estilo)
-                    .append("\".\n\n");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("Crea 5 títulos en español latino/mexicano para una oración sobre \"")
-                    .append(tema)
-                    .append("\" en el estilo \"")
-                    .append(estilo)
-                    .append("\".\n\n")
-                    .append("Utiliza expresiones, palabras y giros típicos del español de México y Latinoamérica.\n\n");
-        } else {
-            // Padrão: espanhol
-            prompt.append("Crea 5 títulos en español para una oración sobre \"")
-                    .append(tema)
-                    .append("\" en el estilo \"")
-                    .append(estilo)
-                    .append("\".\n\n");
-        }
-
-        prompt.append("Use esta fórmula de título que tem o melhor CTR (5,75%):\n");
-        prompt.append("[PODEROSA ORACIÓN] para [tema específico] [benefício específico] #oración #hashtag\n\n");
-
-        prompt.append("Diretrizes importantes baseadas em análise de dados:\n");
-        prompt.append("1. Use 5-8 palavras no título (CTR médio: 3,07%)\n");
-        prompt.append("2. SEMPRE inclua hashtags no título (dobram visualizações)\n");
-        prompt.append("3. Use MAIÚSCULAS para palavras-chave importantes\n");
-        prompt.append("4. Inclua 1-2 emojis estratégicos no final\n");
-        prompt.append("5. Use palavras de poder como: PODEROSA, PROTECCIÓN, BENDICIONES\n\n");
-
-        prompt.append("Exemplos de títulos de sucesso:\n");
-        prompt.append("- PODEROSA ORACION POR LOS HIJOS POR LA PROTECCIÓN #oración #salmo91\n");
-        prompt.append("- Dios Tiene un Mensaje Para Ti Hoy! Escucha Esta Oración Matutina #Oración\n");
-        prompt.append("- ORACIÓN PODEROSA para RENOVAR TUS FINANZAS #feyesperanza\n\n");
-
-        prompt.append("Forneça apenas a lista de 5 títulos, sem comentários adicionais.");
-
-        // Adicionar observações, se existirem
-        if (hasObservacoes && observacoes != null && !observacoes.isEmpty()) {
-            prompt.append("\n\nObservações adicionais para considerar: ").append(observacoes);
-        }
-
-        return prompt.toString();
+        // Observações só entram quando existirem (seção condicional do template)
+        return render(ModelRouter.TITLES, idioma, tema, estilo, hasObservacoes ? observacoes : null);
     }
 
     /**
@@ -96,7 +67,7 @@ public class PromptBuilder {
      * @param idioma Idioma (es, pt, en)
      * @return Prompt otimizado para geração de oração
      */
-    public static String buildOracaoPrompt(String tema, String estilo, String duracao, String titulo, String idioma) {
+    public Prompt buildOracaoPrompt(String tema, String estilo, String duracao, String titulo, String idioma) {
         // Verificar parâmetros de entrada
         if (tema == null || estilo == null || duracao == null || titulo == null) {
             log.error("Parâmetros inválidos para buildOracaoPrompt: tema={}, estilo={}, duracao={}, titulo={}",
@@ -107,63 +78,10 @@ public class PromptBuilder {
         log.debug("Construindo prompt para oração: tema={}, estilo={}, duracao={}, titulo={}, idioma={}",
                 tema, estilo, duracao, titulo, idioma);
 
-        StringBuilder prompt = new StringBuilder();
-
-        // Selecionar idioma para o prompt
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("Crie uma oração em português com o título: \"").append(titulo).append("\"\n\n");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("Create a prayer in English with the title: \"").append(titulo).append("\"\n\n");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("Crea una oración en español latino/mexicano con el título: \"").append(titulo).append("\"\n\n");
-            prompt.append("Utiliza expresiones, palabras y giros típicos del español de México y Latinoamérica. Evita términos o expresiones propias del español de España.\n\n");
-        } else {
-            // Padrão: espanhol
-            prompt.append("Crea una oración en español con el título: \"").append(titulo).append("\"\n\n");
-        }
-
-        prompt.append("Tema: ").append(tema).append("\n");
-        prompt.append("Estilo: ").append(estilo).append("\n");
-        prompt.append("Duração: ").append(duracao).append("\n\n");
-
-        prompt.append("A oração deve seguir esta estrutura:\n");
-        prompt.append("1. Versículo inicial relevante (\"Versículo del día:\")\n");
-        prompt.append("2. Introdução com saudação e relevância do tema (6-8 linhas)\n");
-        prompt.append("3. Reflexão bíblica com passagem relevante (6-8 linhas)\n");
-        prompt.append("4. Oração principal com:\n");
-        prompt.append("   - Invocação inicial\n");
-        prompt.append("   - Desenvolvimento do tema\n");
-        prompt.append("   - Aplicação prática\n");
-        prompt.append("   - Pedidos específicos\n");
-        prompt.append("   - Declaração de fé\n");
-        prompt.append("5. Encerramento com:\n");
-        prompt.append("   - Recapitulação\n");
-        prompt.append("   - Versículo final (diferente do inicial)\n");
-        prompt.append("   - Bênção final\n");
-        prompt.append("   - Convite para inscrição\n");
-        prompt.append("   - \"En el nombre de Jesús, Amén\"\n\n");
-
-        // Ajustar tamanho baseado na duração
-        if (duracao.contains("Short1")) {
-            prompt.append("Tamanho total: 300-500 caracteres (30-60 segundos)");
-        } else if (duracao.contains("Short2")) {
-            prompt.append("Tamanho total: 500-800 caracteres (60-90 segundos)");
-        } else if (duracao.contains("Mini")) {
-            prompt.append("Tamanho total: 800-1.200 caracteres (2-3 minutos)");
-        } else if (duracao.contains("Padrão")) {
-            prompt.append("Tamanho total: 1.800-2.200 caracteres (5 minutos)");
-        } else if (duracao.contains("Completa")) {
-            prompt.append("Tamanho total: 3.500-4.000 caracteres (8-10 minutos)");
-        } else if (duracao.contains("Expandida")) {
-            prompt.append("Tamanho total: 6.000-12.000 caracteres (15+ minutos)");
-        } else {
-            // Formato ideal baseado na análise
-            prompt.append("Tamanho total: 5.000-6.000 caracteres (15-30 minutos)");
-        }
-
-        String promptStr = prompt.toString();
-        log.debug("Prompt construído com sucesso (tamanho: {} caracteres)", promptStr.length());
-        return promptStr;
+        Prompt prompt = render(ModelRouter.ORACAO, idioma, titulo, tema, estilo, duracao, tamanho(duracao));
+        log.debug("Prompt construído com sucesso (tamanho: {} caracteres)",
+                prompt.instructions().length() + prompt.input().length());
+        return prompt;
     }
 
     /**
@@ -174,51 +92,24 @@ public class PromptBuilder {
      * @param idioma Idioma (es, pt, en)
      * @return Prompt otimizado para geração de versão short
      */
-    public static String buildShortPrompt(String oracaoContent, String titulo, String idioma) {
+    public Prompt buildShortPrompt(String oracaoContent, String titulo, String idioma) {
         log.debug("Construindo prompt para versão short: titulo={}, tamanho da oração={} caracteres, idioma={}",
                 titulo, oracaoContent.length(), idioma);
 
-        StringBuilder prompt = new StringBuilder();
-
-        // Selecionar idioma para o prompt
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("Crie uma versão curta (30-60 segundos) em português da seguinte oração:\n\n");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("Create a short version (30-60 seconds) in English of the following prayer:\n\n");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("Crea una versión corta (30-60 segundos) en español latino/mexicano de la siguiente oración:\n\n");
-            prompt.append("Utiliza expresiones, palabras y giros típicos del español de México y Latinoamérica. Evita términos o expresiones propias del español de España.\n\n");
-        } else {
-            // Padrão: espanhol
-            prompt.append("Crea una versión corta (30-60 segundos) en español de la siguiente oración:\n\n");
-        }
-
-        prompt.append("Título original: \"").append(titulo).append("\"\n\n");
-        prompt.append("Oração original:\n").append(oracaoContent).append("\n\n");
-
-        prompt.append("Diretrizes para a versão short:\n");
-        prompt.append("1. Manter entre 300-500 caracteres (ideal para vídeos de 30-60 segundos)\n");
-        prompt.append("2. Preservar a essência e mensagem principal\n");
-        prompt.append("3. Incluir uma invocação breve, mensagem central e encerramento\n");
-        prompt.append("4. Manter pelo menos um versículo bíblico relevante\n");
-        prompt.append("5. Usar linguagem direta e impactante\n");
-        prompt.append("6. Terminar com \"En el nombre de Jesús, Amén\"\n\n");
-
-        prompt.append("IMPORTANTE: A versão curta deve estar no mesmo idioma da oração original (");
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("português");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("inglês");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("español latino/mexicano");
-        } else {
-            prompt.append("español");
-        }
-        prompt.append(").\n\n");
-
-        prompt.append("Responda APENAS com o texto da oração curta, sem comentários adicionais.");
+        return render(ModelRouter.SHORT, idioma, titulo, oracaoContent);
+    }
 
-        return prompt.toString();
+    /**
+     * Constrói prompt para nova tentativa da versão short quando a primeira
+     * saiu no idioma errado
+     *
+     * @param oracaoContent Conteúdo da oração original
+     * @param titulo Título da oração
+     * @param idioma Idioma (es, pt, en)
+     * @return Prompt reforçando o idioma da versão short
+     */
+    public Prompt buildShortCorrectionPrompt(String oracaoContent, String titulo, String idioma) {
+        return render(ModelRouter.CORRECTION, idioma, titulo, oracaoContent);
     }
 
     /**
@@ -229,52 +120,51 @@ public class PromptBuilder {
      * @param idioma Idioma (es, pt, en)
      * @return Prompt otimizado para geração de descrição
      */
-    public static String buildDescriptionPrompt(String title, String oracaoContent, String idioma) {
+    public Prompt buildDescriptionPrompt(String title, String oracaoContent, String idioma) {
         log.debug("Construindo prompt para descrição: titulo={}, tamanho da oração={} caracteres, idioma={}",
                 title, oracaoContent.length(), idioma);
 
-        StringBuilder prompt = new StringBuilder();
-
-        // Selecionar idioma para o prompt
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("Crie uma descrição otimizada para YouTube e TikTok em português para o seguinte vídeo de oração:\n\n");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("Create an optimized description for YouTube and TikTok in English for the following prayer video:\n\n");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("Crea una descripción optimizada para YouTube y TikTok en español latino/mexicano para el siguiente video de oración:\n\n");
-            prompt.append("Utiliza expresiones, palabras y giros típicos del español de México y Latinoamérica. Evita términos o expresiones propias del español de España.\n\n");
-        } else {
-            // Padrão: espanhol
-            prompt.append("Crea una descripción optimizada para YouTube y TikTok en español para el siguiente video de oración:\n\n");
-        }
+        return render(ModelRouter.DESCRIPTION, idioma, title, oracaoContent);
+    }
 
-        prompt.append("Título: \"").append(title).append("\"\n\n");
-        prompt.append("Conteúdo da oração:\n").append(oracaoContent).append("\n\n");
+    private Prompt render(String stage, String idioma, String... values) {
+        PromptTemplateService.CompiledPrompt template = promptTemplateService.get(stage, idioma);
+        return new Prompt(template.instructions(), template.input().render(values));
+    }
 
-        prompt.append("Diretrizes para a descrição:\n");
-        prompt.append("1. Escreva entre 500-1000 caracteres\n");
-        prompt.append("2. Inclua 5-7 hashtags relevantes ao final\n");
-        prompt.append("3. Adicione 3-5 frases inspiradoras relacionadas ao tema\n");
-        prompt.append("4. Inclua um versículo bíblico principal\n");
-        prompt.append("5. Adicione um call-to-action para inscrição/compartilhamento\n");
-        prompt.append("6. Inclua 2-3 emojis estrategicamente colocados\n");
-        prompt.append("7. Mencione os benefícios de ouvir esta oração\n\n");
+    /**
+     * Máximo de caracteres pedido no prompt da oração para a duração, usado
+     * para dimensionar o max_tokens da chamada
+     */
+    public static int maxCaracteres(String duracao) {
+        return tamanhoDa(duracao).maxCaracteres();
+    }
 
-        prompt.append("IMPORTANTE: A descrição deve estar no mesmo idioma da oração (");
-        if ("pt".equalsIgnoreCase(idioma) || "pt-BR".equalsIgnoreCase(idioma)) {
-            prompt.append("português");
-        } else if ("en".equalsIgnoreCase(idioma)) {
-            prompt.append("inglês");
-        } else if ("es-MX".equalsIgnoreCase(idioma)) {
-            prompt.append("español latino/mexicano");
-        } else {
-            prompt.append("español");
-        }
-        prompt.append(").\n\n");
+    private static String tamanho(String duracao) {
+        return tamanhoDa(duracao).descricao();
+    }
 
-        prompt.append("Responda APENAS com o texto da descrição, sem comentários adicionais.");
+    // Tamanho pedido no prompt e o máximo de caracteres correspondente
+    private record Tamanho(String descricao, int maxCaracteres) {
+    }
 
-        return prompt.toString();
+    // Ajustar tamanho baseado na duração
+    private static Tamanho tamanhoDa(String duracao) {
+        if (duracao.contains("Short1")) {
+            return new Tamanho("300-500 caracteres (30-60 segundos)", 500);
+        } else if (duracao.contains("Short2")) {
+            return new Tamanho("500-800 caracteres (60-90 segundos)", 800);
+        } else if (duracao.contains("Mini")) {
+            return new Tamanho("800-1.200 caracteres (2-3 minutos)", 1_200);
+        } else if (duracao.contains("Padrão")) {
+            return new Tamanho("1.800-2.200 caracteres (5 minutos)", 2_200);
+        } else if (duracao.contains("Completa")) {
+            return new Tamanho("3.500-4.000 caracteres (8-10 minutos)", 4_000);
+        } else if (duracao.contains("Expandida")) {
+            return new Tamanho("6.000-12.000 caracteres (15+ minutos)", 12_000);
+        }
+        // Formato ideal baseado na análise
+        return new Tamanho("5.000-6.000 caracteres (15-30 minutos)", 6_000);
     }
 
     /**
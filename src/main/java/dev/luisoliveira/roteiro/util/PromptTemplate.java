@@ -0,0 +1,164 @@
+package dev.luisoliveira.roteiro.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Template de prompt compilado.
+ *
+ * O texto é analisado uma única vez em segmentos: trechos literais, slots
+ * ({{nome}}) e seções condicionais ({{#nome}}...{{/nome}}, renderizadas só
+ * quando o valor do slot não é vazio). Os slots são declarados na compilação
+ * e resolvidos para posições; um slot desconhecido ou uma seção mal fechada
+ * é rejeitado na compilação, não na renderização.
+ *
+ * A renderização recebe os valores na ordem declarada, calcula o tamanho
+ * exato do resultado e escreve em um único buffer com essa capacidade.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private sealed interface Segment permits Literal, Slot, Section {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Slot(int index) implements Segment {
+    }
+
+    private record Section(int index, Segment[] body) implements Segment {
+    }
+
+    // Seção aberta durante a análise
+    private record Frame(String name, int index, List<Segment> segments) {
+    }
+
+    private final Segment[] segments;
+    private final List<String> slots;
+
+    private PromptTemplate(Segment[] segments, List<String> slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Compila o template
+     *
+     * @param source Texto do template
+     * @param slots Nomes dos slots aceitos, na ordem em que os valores serão passados
+     * @throws IllegalArgumentException se o template usar um slot não declarado
+     *         ou tiver uma marcação mal formada
+     */
+    public static PromptTemplate compile(String source, List<String> slots) {
+        Deque<Frame> open = new ArrayDeque<>();
+        open.push(new Frame(null, -1, new ArrayList<>()));
+
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf(OPEN, position);
+            if (start < 0) {
+                open.peek().segments().add(new Literal(source.substring(position)));
+                break;
+            }
+            if (start > position) {
+                open.peek().segments().add(new Literal(source.substring(position, start)));
+            }
+            int end = source.indexOf(CLOSE, start + OPEN.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Marcação {{ sem fechamento na posição " + start);
+            }
+            String tag = source.substring(start + OPEN.length(), end).trim();
+            position = end + CLOSE.length();
+
+            if (tag.startsWith("#")) {
+                String name = tag.substring(1).trim();
+                open.push(new Frame(name, indexOf(name, slots, start), new ArrayList<>()));
+            } else if (tag.startsWith("/")) {
+                String name = tag.substring(1).trim();
+                Frame section = open.pop();
+                if (section.name() == null || !section.name().equals(name)) {
+                    throw new IllegalArgumentException("Fechamento {{/" + name + "}} inesperado na posição " + start);
+                }
+                open.peek().segments().add(new Section(section.index(), toArray(section.segments())));
+            } else {
+                open.peek().segments().add(new Slot(indexOf(tag, slots, start)));
+            }
+        }
+
+        if (open.size() > 1) {
+            throw new IllegalArgumentException("Seção {{#" + open.peek().name() + "}} sem fechamento");
+        }
+        return new PromptTemplate(toArray(open.pop().segments()), List.copyOf(slots));
+    }
+
+    /**
+     * Renderiza o template
+     *
+     * @param values Valores dos slots na ordem declarada (null = vazio)
+     */
+    public String render(String... values) {
+        if (values.length != slots.size()) {
+            throw new IllegalArgumentException("O template espera " + slots.size() + " valores " + slots
+                    + ", recebeu " + values.length);
+        }
+        StringBuilder out = new StringBuilder(length(segments, values));
+        append(segments, values, out);
+        return out.toString();
+    }
+
+    public List<String> getSlots() {
+        return slots;
+    }
+
+    private static int length(Segment[] segments, String[] values) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                length += literal.text().length();
+            } else if (segment instanceof Slot slot) {
+                String value = values[slot.index()];
+                length += value != null ? value.length() : 0;
+            } else if (segment instanceof Section section && isPresent(values[section.index()])) {
+                length += length(section.body(), values);
+            }
+        }
+        return length;
+    }
+
+    private static void append(Segment[] segments, String[] values, StringBuilder out) {
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                out.append(literal.text());
+            } else if (segment instanceof Slot slot) {
+                String value = values[slot.index()];
+                if (value != null) {
+                    out.append(value);
+                }
+            } else if (segment instanceof Section section && isPresent(values[section.index()])) {
+                append(section.body(), values, out);
+            }
+        }
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static int indexOf(String name, List<String> slots, int position) {
+        int index = slots.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Slot desconhecido {{" + name + "}} na posição " + position
+                    + " (aceitos: " + slots + ")");
+        }
+        return index;
+    }
+
+    private static Segment[] toArray(List<Segment> segments) {
+        return segments.toArray(new Segment[0]);
+    }
+}
@@ -0,0 +1,163 @@
+package dev.luisoliveira.roteiro.config;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.result.DeleteResult;
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoIndexVerifierTest {
+
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<Document> collection;
+    private MongoCollection<Document> backup;
+    private FindIterable<Document> find;
+    private IndexOperations indexOps;
+    private final List<List<Document>> aggregations = new ArrayList<>();
+    private MongoIndexVerifier verifier;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        collection = mock(MongoCollection.class);
+        backup = mock(MongoCollection.class);
+        find = mock(FindIterable.class);
+        indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.getCollectionName(PrayerContent.class)).thenReturn("prayer");
+        when(mongoTemplate.getCollection("prayer")).thenReturn(collection);
+        when(mongoTemplate.getCollection(MongoIndexVerifier.DUPLICATES_BACKUP_COLLECTION)).thenReturn(backup);
+        when(mongoTemplate.indexOps(PrayerContent.class)).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenReturn(List.of());
+        when(collection.find(any(Bson.class))).thenReturn(find);
+        when(find.sort(any(Bson.class))).thenReturn(find);
+
+        // Cada aggregate devolve o próximo resultado de aggregations (vazio quando acabam)
+        AggregateIterable<Document> aggregate = mock(AggregateIterable.class);
+        when(collection.aggregate(anyList())).thenReturn(aggregate);
+        when(aggregate.allowDiskUse(true)).thenReturn(aggregate);
+        when(aggregate.into(any())).thenAnswer(invocation -> {
+            Collection<Document> target = invocation.getArgument(0);
+            if (!aggregations.isEmpty()) {
+                target.addAll(aggregations.remove(0));
+            }
+            return target;
+        });
+        verifier = new MongoIndexVerifier(mongoTemplate, false);
+    }
+
+    @Test
+    void startupWithDuplicatesOnlyReports() {
+        aggregations.add(List.of(duplicateGroup("p1", "keep", "old")));
+
+        assertFalse(verifier.garantirIndiceProcessId(indexOps));
+
+        verify(collection, never()).deleteMany(any(Bson.class));
+        verify(backup, never()).insertMany(anyList());
+        verify(indexOps, never()).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void startupWithoutDuplicatesCreatesUniqueIndex() {
+        assertTrue(verifier.garantirIndiceProcessId(indexOps));
+
+        verify(indexOps).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void dedupeBacksUpBeforeDeletingAndKeepsNewest() {
+        aggregations.add(List.of(duplicateGroup("p1", "keep", "old1", "old2")));
+        cursor(new Document("_id", "old1"), new Document("_id", "old2"));
+        when(collection.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(2));
+
+        MongoIndexVerifier.DedupeResult result = verifier.deduplicarProcessId();
+
+        assertEquals(1, result.processIds());
+        assertEquals(2, result.removed());
+        assertTrue(result.indexCreated());
+        InOrder order = inOrder(backup, collection, indexOps);
+        order.verify(backup).insertMany(argThat((List<? extends Document> copies) ->
+                copies.size() == 2 && copies.stream().allMatch(copy -> "keep".equals(copy.get("keptId")))));
+        order.verify(collection).deleteMany(any(Bson.class));
+        order.verify(indexOps).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void dedupeSkipsGroupWhenBackupIsIncomplete() {
+        aggregations.add(List.of(duplicateGroup("p1", "keep", "old1", "old2")));
+        cursor(new Document("_id", "old1"));
+
+        MongoIndexVerifier.DedupeResult result = verifier.deduplicarProcessId();
+
+        assertEquals(0, result.removed());
+        verify(backup, never()).insertMany(anyList());
+        verify(collection, never()).deleteMany(any(Bson.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cursor(Document... documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        Iterator<Document> source = List.of(documents).iterator();
+        when(cursor.hasNext()).thenAnswer(invocation -> source.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> source.next());
+        when(find.iterator()).thenReturn(cursor);
+    }
+
+    private static Document duplicateGroup(String processId, Object... ids) {
+        return new Document("_id", processId).append("ids", List.of(ids)).append("count", ids.length);
+    }
+
+    @Test
+    void indexedPlansPass() {
+        when(find.explain()).thenReturn(explain(new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "processId_unique"))));
+
+        assertTrue(verifier.verificarPlanos().isEmpty());
+    }
+
+    @Test
+    void collectionScanIsReported() {
+        when(find.explain()).thenReturn(explain(new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN"))));
+
+        assertEquals(List.of("processId", "userId+createdAt", "language+theme", "text"), verifier.verificarPlanos());
+    }
+
+    @Test
+    void collectionScanInsideOrBranchIsReported() {
+        when(find.explain()).thenReturn(explain(new Document("stage", "OR")
+                .append("inputStages", List.of(new Document("stage", "IXSCAN"), new Document("stage", "COLLSCAN")))));
+
+        assertEquals(4, verifier.verificarPlanos().size());
+    }
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
@@ -0,0 +1,109 @@
+package dev.luisoliveira.roteiro.config.security;
+
+import dev.luisoliveira.roteiro.model.User;
+import dev.luisoliveira.roteiro.repository.UserRepository;
+import dev.luisoliveira.roteiro.service.CustomUserDetailsService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Custo da autenticação por JWT em cada requisição: token já verificado
+ * (cache), token novo (parse e assinatura) e o filtro completo com o usuário
+ * vindo do cache do CustomUserDetailsService.
+ *
+ * Execução: mvn test-compile e depois a classe main deste benchmark com o
+ * classpath de teste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final int UNCACHED_TOKENS = 1024;
+
+    private JwtTokenUtil cachingUtil;
+    private JwtTokenUtil uncachedUtil;
+    private String token;
+    private String[] uncachedTokens;
+    private int next;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        cachingUtil = JwtTokenUtilTest.tokenUtil(3_600_000, 10_000);
+        User user = JwtTokenUtilTest.user("bench@teste.com");
+        token = cachingUtil.generateToken(user);
+
+        // Cache de uma entrada e tokens distintos em rodízio: toda verificação é um miss
+        uncachedUtil = JwtTokenUtilTest.tokenUtil(3_600_000, 1);
+        uncachedTokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            uncachedTokens[i] = uncachedUtil.generateToken(JwtTokenUtilTest.user("u" + i + "@teste.com"));
+        }
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("bench@teste.com")).thenReturn(Optional.of(user));
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "userCacheTtlSeconds", 3_600L);
+        ReflectionTestUtils.setField(userDetailsService, "userCacheSize", 10_000);
+        filter = new JwtAuthenticationFilter(cachingUtil, userDetailsService);
+
+        request = new MockHttpServletRequest("GET", "/api/prayers");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String cachedToken() {
+        return cachingUtil.verifyAndGetSubject(token);
+    }
+
+    @Benchmark
+    public String uncachedToken() {
+        next = (next + 1) & (UNCACHED_TOKENS - 1);
+        return uncachedUtil.verifyAndGetSubject(uncachedTokens[next]);
+    }
+
+    @Benchmark
+    public Object filterWithCachedUser() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package dev.luisoliveira.roteiro.config.security;
+
+import dev.luisoliveira.roteiro.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtTokenUtilTest {
+
+    static final String SECRET = "segredo-de-teste-com-pelo-menos-32-bytes";
+
+    static JwtTokenUtil tokenUtil(long expiration, int tokenCacheSize) {
+        JwtTokenUtil util = new JwtTokenUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "tokenCacheSize", tokenCacheSize);
+        util.init();
+        return util;
+    }
+
+    static User user(String email) {
+        return new User(UUID.randomUUID(), "Usuário", email, "google-" + email, null);
+    }
+
+    @Test
+    void validTokenReturnsSubjectAndIsCached() {
+        JwtTokenUtil util = tokenUtil(60_000, 100);
+        String token = util.generateToken(user("a@teste.com"));
+
+        assertEquals("a@teste.com", util.verifyAndGetSubject(token));
+        assertEquals("a@teste.com", util.verifyAndGetSubject(token));
+        assertEquals(1, verifiedTokens(util).size());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtTokenUtil util = tokenUtil(-1_000, 100);
+        String token = util.generateToken(user("a@teste.com"));
+
+        assertNull(util.verifyAndGetSubject(token));
+        assertTrue(verifiedTokens(util).isEmpty());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        JwtTokenUtil util = tokenUtil(60_000, 100);
+        String token = util.generateToken(user("a@teste.com"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(util.verifyAndGetSubject(tampered));
+        assertNull(util.verifyAndGetSubject("nao-e-um-jwt"));
+    }
+
+    @Test
+    void cachedTokenIsRejectedAfterExpiry() throws InterruptedException {
+        JwtTokenUtil util = tokenUtil(1_500, 100);
+        String token = util.generateToken(user("a@teste.com"));
+        long expiresAt = util.extractExpiration(token).getTime();
+
+        assertEquals("a@teste.com", util.verifyAndGetSubject(token));
+        Thread.sleep(Math.max(0, expiresAt - System.currentTimeMillis()) + 50);
+
+        // Sai pelo cache: a entrada expirada é removida sem novo parse
+        assertNull(util.verifyAndGetSubject(token));
+        assertTrue(verifiedTokens(util).isEmpty());
+    }
+
+    @Test
+    void cacheIsBoundedAndEvictedTokensAreVerifiedAgain() {
+        int cacheSize = 10;
+        JwtTokenUtil util = tokenUtil(60_000, cacheSize);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tokens.add(util.generateToken(user("u" + i + "@teste.com")));
+        }
+
+        for (String token : tokens) {
+            util.verifyAndGetSubject(token);
+            assertTrue(verifiedTokens(util).size() <= cacheSize);
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals("u" + i + "@teste.com", util.verifyAndGetSubject(tokens.get(i)));
+        }
+        assertTrue(verifiedTokens(util).size() <= cacheSize);
+    }
+
+    private static Map<?, ?> verifiedTokens(JwtTokenUtil util) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(util, "verifiedTokens");
+    }
+}
@@ -0,0 +1,39 @@
+package dev.luisoliveira.roteiro.config.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebSocketAuthInterceptorTest {
+
+    private final Principal user = () -> "42";
+
+    @Test
+    void acceptsLiteralProcessTopics() {
+        assertTrue(WebSocketAuthInterceptor.canSubscribe("/topic/notifications/abc-123", null));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe("/topic/notifications/abc-123", user));
+    }
+
+    @Test
+    void rejectsWildcardSubscriptions() {
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/**", null));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/*/notifications", user));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/admin/notification?", null));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/{id}", null));
+    }
+
+    @Test
+    void rejectsAdminTopicForNonAdmins() {
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/admin/notifications", null));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe("/topic/admin/notifications", user));
+    }
+
+    @Test
+    void rejectsMissingDestination() {
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(null, user));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(" ", user));
+    }
+}
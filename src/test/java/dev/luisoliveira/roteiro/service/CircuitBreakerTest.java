@@ -0,0 +1,90 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 100;
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("openai", 3, OPEN_MILLIS);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+        }
+        assertEquals("CLOSED", breaker.snapshot().get("state"));
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+
+        assertEquals("OPEN", breaker.snapshot().get("state"));
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1L, breaker.snapshot().get("timesOpened"));
+        assertEquals(1L, breaker.snapshot().get("rejectedCalls"));
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker("openai", 2, OPEN_MILLIS);
+
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertEquals("CLOSED", breaker.snapshot().get("state"));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenAllowsSingleTrialAndSuccessCloses() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire()); // Só uma chamada de teste por vez
+        breaker.recordSuccess();
+
+        assertEquals("CLOSED", breaker.snapshot().get("state"));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+
+        assertEquals("OPEN", breaker.snapshot().get("state"));
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2L, breaker.snapshot().get("timesOpened"));
+    }
+
+    @Test
+    void releasedTrialFreesTheSlot() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.release(); // Ex.: perdeu a corrida para o outro provedor
+
+        assertEquals("HALF_OPEN", breaker.snapshot().get("state"));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("openai", 1, OPEN_MILLIS);
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+        assertFalse(breaker.tryAcquire());
+        return breaker;
+    }
+}
@@ -0,0 +1,124 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationAdmissionServiceTest {
+
+    @Test
+    void burstIsAdmittedThenRateLimited() {
+        GenerationAdmissionService service = new GenerationAdmissionService(6, 3, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.tryAdmit("user", "p" + i).allowed());
+        }
+        GenerationAdmissionService.Admission rejected = service.tryAdmit("user", "p3");
+
+        assertFalse(rejected.allowed());
+        // 6 por minuto: um token a cada 10 s
+        assertTrue(rejected.retryAfterSeconds() >= 1 && rejected.retryAfterSeconds() <= 10,
+                "retryAfter: " + rejected.retryAfterSeconds());
+        assertTrue(rejected.reason().contains("por minuto"));
+    }
+
+    @Test
+    void usersHaveSeparateQuotas() {
+        GenerationAdmissionService service = new GenerationAdmissionService(6, 1, 10);
+
+        assertTrue(service.tryAdmit("a", "p1").allowed());
+        assertFalse(service.tryAdmit("a", "p2").allowed());
+        assertTrue(service.tryAdmit("b", "p3").allowed());
+    }
+
+    @Test
+    void inFlightLimitIsReleasedWhenProcessEnds() {
+        GenerationAdmissionService service = new GenerationAdmissionService(60, 10, 2);
+
+        assertTrue(service.tryAdmit("user", "p1").allowed());
+        assertTrue(service.tryAdmit("user", "p2").allowed());
+        GenerationAdmissionService.Admission rejected = service.tryAdmit("user", "p3");
+        assertFalse(rejected.allowed());
+        assertEquals(30, rejected.retryAfterSeconds());
+
+        service.release("p1");
+        service.release("p1"); // Repetido: ignorado
+
+        assertTrue(service.tryAdmit("user", "p3").allowed());
+        assertFalse(service.tryAdmit("user", "p4").allowed());
+    }
+
+    @Test
+    void rateRejectionDoesNotHoldAnInFlightSlot() {
+        GenerationAdmissionService service = new GenerationAdmissionService(6, 1, 1);
+
+        assertTrue(service.tryAdmit("user", "p1").allowed());
+        service.release("p1");
+
+        // Sem token: as duas recusas são por taxa, logo a primeira não ficou com a única vaga
+        assertTrue(service.tryAdmit("user", "p2").reason().contains("por minuto"));
+        assertTrue(service.tryAdmit("user", "p3").reason().contains("por minuto"));
+    }
+
+    @Test
+    void limitsCanBeChangedAtRuntime() {
+        GenerationAdmissionService service = new GenerationAdmissionService(60, 10, 1);
+        assertTrue(service.tryAdmit("user", "p1").allowed());
+        assertFalse(service.tryAdmit("user", "p2").allowed());
+
+        service.setLimits(new GenerationAdmissionService.Limits(60, 10, 3));
+
+        assertTrue(service.tryAdmit("user", "p2").allowed());
+        assertTrue(service.tryAdmit("user", "p3").allowed());
+        assertFalse(service.tryAdmit("user", "p4").allowed());
+    }
+
+    @Test
+    void invalidLimitsAreRejected() {
+        GenerationAdmissionService service = new GenerationAdmissionService(6, 3, 2);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.setLimits(new GenerationAdmissionService.Limits(0, 3, 2)));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationAdmissionService(6, 3, 0));
+        assertEquals(new GenerationAdmissionService.Limits(6, 3, 2), service.getLimits());
+    }
+
+    @Test
+    void concurrentSubmissionsNeverExceedTheLimits() throws Exception {
+        GenerationAdmissionService service = new GenerationAdmissionService(60, 5, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String processId = "p" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.tryAdmit("user", processId).allowed();
+                }));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(5, TimeUnit.SECONDS)) {
+                    admitted++;
+                }
+            }
+            assertEquals(3, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Amostras fora dos perfis de resources/language-profiles
+ */
+class LanguageDetectorTest {
+
+    private static LanguageDetector detector;
+
+    @BeforeAll
+    static void setUp() {
+        detector = new LanguageDetector();
+        ReflectionTestUtils.setField(detector, "minConfidence", 0.5);
+        ReflectionTestUtils.setField(detector, "minTrigrams", 20);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "es | Dios mío, hoy vengo ante ti con humildad. Te entrego mis miedos y mis dudas, y te pido que me enseñes a confiar en tu voluntad aunque no entienda lo que está pasando.",
+            "pt | Meu Deus, hoje venho diante de ti com humildade. Eu te entrego os meus medos e as minhas dúvidas, e peço que me ensines a confiar na tua vontade mesmo sem entender o que está acontecendo.",
+            "en | My God, today I come before you with humility. I give you my fears and my doubts, and I ask you to teach me to trust your will even when I do not understand what is happening.",
+            "es | La semana pasada llovió tanto que el río creció y varias calles quedaron inundadas.",
+            "pt | Na semana passada choveu tanto que o rio subiu e várias ruas ficaram alagadas.",
+            "en | Last week it rained so much that the river rose and several streets were flooded.",
+            "es | ORACIÓN PODEROSA por tus HIJOS y tu FAMILIA #oración #fe",
+            "pt | ORAÇÃO PODEROSA pelos seus FILHOS e sua FAMÍLIA #oração #fé"
+    })
+    void detectsHeldOutSamples(String language, String text) {
+        LanguageDetector.Detection detection = detector.check("teste", text, language);
+
+        assertEquals(language, detection.detected());
+        assertTrue(detector.isAccepted(detection));
+    }
+
+    // Textos curtos, pouco acima de min-trigrams, em que es e pt compartilham boa parte dos trigramas
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "es | Señor, cuida de mis hijos hoy.",
+            "pt | Senhor, cuida dos meus filhos hoje.",
+            "es | Dios te bendiga, hermano querido.",
+            "pt | Deus te abençoe, irmão querido.",
+            "es | Confía en Dios, él nunca falla.",
+            "pt | Confie em Deus, ele nunca falha.",
+            "es | La fe mueve montañas y abre caminos.",
+            "pt | A fé move montanhas e abre caminhos."
+    })
+    void separatesShortSpanishAndPortuguese(String language, String text) {
+        LanguageDetector.Detection detection = detector.check("teste", text, language);
+        String other = language.equals("es") ? "pt" : "es";
+
+        assertTrue(detection.trigrams() >= 20 && detection.trigrams() < 40, "trigramas: " + detection.trigrams());
+        assertEquals(language, detection.detected());
+        assertFalse(detector.isAccepted(detector.check("teste", text, other)));
+    }
+
+    @Test
+    void wrongLanguageIsRejected() {
+        String portuguese = "Pai celestial, hoje eu peço pela minha família. Protege-nos de todo mal e enche o nosso lar com a tua paz.";
+
+        LanguageDetector.Detection detection = detector.check("teste", portuguese, "es-MX");
+
+        assertEquals("es", detection.expected());
+        assertEquals("pt", detection.detected());
+        assertFalse(detector.isAccepted(detection));
+    }
+
+    @Test
+    void shortTextIsNotJudged() {
+        LanguageDetector.Detection detection = detector.check("teste", "Amén, amén.", "en");
+
+        assertTrue(detection.trigrams() < 20);
+        assertEquals(1.0, detection.confidence());
+    }
+
+    @Test
+    void hashtagsAreNotScored() {
+        int plain = detector.check("teste", "Dios te bendiga", "es").trigrams();
+
+        assertEquals(plain, detector.check("teste", "Dios te bendiga #abcdef", "es").trigrams());
+        assertEquals(plain, detector.check("teste", "Dios #x te #oración bendiga", "es").trigrams());
+        assertEquals(0, detector.check("teste", "#oración #salmo91", "es").trigrams());
+    }
+}
@@ -0,0 +1,128 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.NotificationMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class NotificationReplayServiceTest {
+
+    private MessageChannel clientOutboundChannel;
+    private NotificationReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        clientOutboundChannel = mock(MessageChannel.class);
+        service = new NotificationReplayService(new SimpMessagingTemplate(mock(MessageChannel.class)),
+                clientOutboundChannel);
+        ReflectionTestUtils.setField(service, "replaySize", 5);
+        ReflectionTestUtils.setField(service, "staleTtlHours", 6L);
+    }
+
+    @Test
+    void sequenceIncreasesPerProcess() {
+        for (int i = 0; i < 3; i++) {
+            service.record("p1", progress("p1", "Estágio " + i));
+        }
+        service.record("p2", progress("p2", "Gerando títulos"));
+        service.record("p1", progress("p1", "Concluído"));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences(service.since("p1", 0)));
+        assertEquals(List.of(1L), sequences(service.since("p2", 0)));
+    }
+
+    @Test
+    void bufferKeepsOnlyTheLatestMessages() {
+        for (int i = 0; i < 12; i++) {
+            service.record("p1", progress("p1", "Estágio " + i));
+        }
+
+        // A sequência continua depois que as mais antigas saem do buffer
+        assertEquals(LongStream.rangeClosed(8, 12).boxed().toList(), sequences(service.since("p1", 0)));
+        assertEquals(List.of(11L, 12L), sequences(service.since("p1", 10)));
+    }
+
+    @Test
+    void evictedProcessHasNoHistory() {
+        service.record("p1", progress("p1", "Gerando oração"));
+        service.evict("p1");
+
+        assertTrue(service.since("p1", 0).isEmpty());
+    }
+
+    @Test
+    void resubscribeWithLastSeqReplaysOnlyMissedMessagesToThatSession() {
+        for (int i = 0; i < 4; i++) {
+            service.record("p1", progress("p1", "Estágio " + i));
+        }
+        service.record("p2", progress("p2", "Gerando títulos"));
+
+        service.handleSubscribe(subscribe("session-1", "sub-7", "/topic/notifications/p1", "2"));
+
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, atLeastOnce()).send(sent.capture());
+        assertEquals(2, sent.getAllValues().size());
+        for (Message<?> message : sent.getAllValues()) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+            assertEquals("session-1", headers.getSessionId());
+            assertEquals("sub-7", headers.getSubscriptionId());
+            assertEquals("/topic/notifications/p1", headers.getDestination());
+        }
+        assertEquals(List.of(3L, 4L), sent.getAllValues().stream()
+                .map(message -> ((NotificationMessage) message.getPayload()).getSequence())
+                .toList());
+    }
+
+    @Test
+    void subscribeWithoutLastSeqOrUpToDateReplaysNothing() {
+        service.record("p1", progress("p1", "Gerando oração"));
+
+        service.handleSubscribe(subscribe("session-1", "sub-1", "/topic/notifications/p1", null));
+        service.handleSubscribe(subscribe("session-1", "sub-2", "/topic/notifications/p1", "1"));
+        service.handleSubscribe(subscribe("session-1", "sub-3", "/topic/notifications/p1", "abc"));
+        service.handleSubscribe(subscribe("session-1", "sub-4", "/user/queue/notifications", "0"));
+
+        verify(clientOutboundChannel, never()).send(any());
+    }
+
+    private static NotificationMessage progress(String processId, String stage) {
+        return new NotificationMessage(processId, "PROGRESS_UPDATE", stage, null);
+    }
+
+    private static List<Long> sequences(List<NotificationMessage> messages) {
+        return messages.stream().map(NotificationMessage::getSequence).toList();
+    }
+
+    private static SessionSubscribeEvent subscribe(String sessionId, String subscriptionId, String destination,
+            String lastSequence) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        if (lastSequence != null) {
+            accessor.addNativeHeader("last-seq", lastSequence);
+        }
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return new SessionSubscribeEvent(new Object(), message);
+    }
+}
@@ -0,0 +1,128 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.NotificationMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class NotificationServiceTest {
+
+    private static final int MAX_PER_SECOND = 4;
+
+    private ThreadPoolTaskScheduler taskScheduler;
+    private NotificationService service;
+    // Mensagens de progresso enviadas, com o instante do envio
+    private final List<Frame> frames = new CopyOnWriteArrayList<>();
+
+    private record Frame(long nanos, NotificationMessage message) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        StatusStreamService statusStreamService = mock(StatusStreamService.class);
+        doAnswer(invocation -> frames.add(new Frame(System.nanoTime(), invocation.getArgument(1))))
+                .when(statusStreamService).publishProgress(any(), any());
+        service = new NotificationService(mock(SimpMessagingTemplate.class), taskScheduler, statusStreamService,
+                mock(NotificationReplayService.class));
+        ReflectionTestUtils.setField(service, "progressMaxPerSecond", MAX_PER_SECOND);
+
+        // A primeira chamada aos mocks é lenta e atrasaria o instante registrado da primeira mensagem
+        service.sendProgressNotification("aquecimento", null, "Concluído", 100);
+        frames.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void progressIsThrottledPerProcessWithoutLosingStages() throws InterruptedException {
+        List<String> sent = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 60; i++) {
+            String stage = "Estágio " + (i / 3);
+            sent.add(stage);
+            service.sendProgressNotification("p1", null, stage, i);
+            Thread.sleep(20);
+        }
+        Thread.sleep(2 * 1000 / MAX_PER_SECOND);
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Frame> p1 = framesOf("p1");
+        long minIntervalNanos = TimeUnit.SECONDS.toNanos(1) / MAX_PER_SECOND;
+        long toleranceNanos = TimeUnit.MILLISECONDS.toNanos(15);
+        for (int i = 1; i < p1.size(); i++) {
+            assertTrue(p1.get(i).nanos() - p1.get(i - 1).nanos() >= minIntervalNanos - toleranceNanos,
+                    "Mensagens " + (i - 1) + " e " + i + " com "
+                            + TimeUnit.NANOSECONDS.toMillis(p1.get(i).nanos() - p1.get(i - 1).nanos()) + " ms de intervalo");
+        }
+        assertTrue(p1.size() <= elapsedNanos / minIntervalNanos + 1, "Mensagens enviadas: " + p1.size());
+        assertTrue(p1.size() < sent.size());
+
+        // Todos os estágios aparecem, na ordem, em alguma mensagem
+        assertEquals(sent.stream().distinct().toList(), stagesOf(p1).stream().distinct().toList());
+        // A última mensagem leva o estado mais recente
+        assertEquals(59, data(p1.get(p1.size() - 1)).get("progress"));
+    }
+
+    @Test
+    void limitIsAppliedPerProcess() throws InterruptedException {
+        service.sendProgressNotification("p1", null, "Gerando títulos", 5);
+        service.sendProgressNotification("p2", null, "Gerando títulos", 5);
+        service.sendProgressNotification("p1", null, "Gerando oração", 10);
+
+        // A segunda atualização do p1 espera; a primeira do p2 não
+        assertEquals(1, framesOf("p1").size());
+        assertEquals(1, framesOf("p2").size());
+
+        Thread.sleep(2 * 1000 / MAX_PER_SECOND);
+        assertEquals(2, framesOf("p1").size());
+        assertEquals(List.of("Gerando oração"), data(framesOf("p1").get(1)).get("stages"));
+    }
+
+    @Test
+    void terminalProgressIsSentImmediatelyWithPendingStages() {
+        service.sendProgressNotification("p1", null, "Gerando áudio", 80);
+        service.sendProgressNotification("p1", null, "Áudio gerado com sucesso", 95);
+        service.sendProgressNotification("p1", null, "Concluído", 100);
+
+        List<Frame> p1 = framesOf("p1");
+        assertEquals(2, p1.size());
+        assertEquals(List.of("Áudio gerado com sucesso", "Concluído"), data(p1.get(1)).get("stages"));
+        assertEquals(100, data(p1.get(1)).get("progress"));
+    }
+
+    private List<Frame> framesOf(String processId) {
+        return frames.stream().filter(frame -> processId.equals(frame.message().getProcessId())).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stagesOf(List<Frame> frames) {
+        List<String> stages = new ArrayList<>();
+        frames.forEach(frame -> stages.addAll((List<String>) data(frame).get("stages")));
+        return stages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> data(Frame frame) {
+        return (Map<String, Object>) frame.message().getData();
+    }
+}
@@ -0,0 +1,187 @@
+package dev.luisoliveira.roteiro.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.luisoliveira.roteiro.util.PromptBuilder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hedging e failover do OpenAIService contra dois provedores locais
+ * (HttpServer do JDK) com atraso e status configuráveis
+ */
+class OpenAIServiceHedgingTest {
+
+    private static final long HEDGE_DELAY_MS = 200;
+
+    private HttpServer server;
+    private final CountDownLatch releaseSlowPrimary = new CountDownLatch(1);
+    private volatile boolean primarySlow;
+    private volatile int primaryStatus = 200;
+    private final AtomicInteger primaryRequests = new AtomicInteger();
+    private final AtomicInteger alternateRequests = new AtomicInteger();
+    private OpenAIService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/primary/chat/completions", exchange -> {
+            primaryRequests.incrementAndGet();
+            if (primarySlow) {
+                try {
+                    releaseSlowPrimary.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, primaryStatus, "primária");
+        });
+        server.createContext("/alternate/chat/completions", exchange -> {
+            alternateRequests.incrementAndGet();
+            respond(exchange, 200, "alternativa");
+        });
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ProcessCancellationService cancellation = new ProcessCancellationService();
+        ReflectionTestUtils.setField(cancellation, "connectTimeoutMs", 5000);
+        ReflectionTestUtils.setField(cancellation, "readTimeoutMs", 10000);
+        ModelRouter modelRouter = mock(ModelRouter.class);
+        when(modelRouter.route(ModelRouter.DESCRIPTION, "es"))
+                .thenReturn(new ModelRouter.Route(ModelRouter.DESCRIPTION, "es", "modelo-teste", 0.7, null));
+
+        service = new OpenAIService(cancellation, modelRouter, mock(ProcessTrackingService.class));
+        ReflectionTestUtils.setField(service, "OPENAI_API_KEY", "chave");
+        ReflectionTestUtils.setField(service, "MODEL", "modelo-teste");
+        ReflectionTestUtils.setField(service, "baseUrl", base + "/primary");
+        ReflectionTestUtils.setField(service, "hedgeBaseUrl", base + "/alternate");
+        ReflectionTestUtils.setField(service, "hedgeApiKey", "");
+        ReflectionTestUtils.setField(service, "hedgeModel", "");
+        ReflectionTestUtils.setField(service, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(service, "hedgeInitialDelayMs", HEDGE_DELAY_MS);
+        ReflectionTestUtils.setField(service, "hedgeMinDelayMs", 50L);
+        ReflectionTestUtils.setField(service, "hedgeMinSamples", 1);
+        ReflectionTestUtils.setField(service, "breakerFailureThreshold", 1);
+        ReflectionTestUtils.setField(service, "breakerOpenSeconds", 30L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowPrimary.countDown();
+        service.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() {
+        assertEquals("primária", generate());
+
+        assertEquals(0, alternateRequests.get());
+        assertEquals(0L, stats().get("hedgesLaunched"));
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndAlternateWins() {
+        primarySlow = true;
+
+        assertEquals("alternativa", generate());
+
+        assertEquals(1L, stats().get("hedgesLaunched"));
+        assertEquals(1L, stats().get("hedgeWins"));
+        // O tempo do principal que perdeu entra na janela de latência
+        long threshold = (Long) ((Map<?, ?>) stats().get("hedgeThresholdsMs")).get(ModelRouter.DESCRIPTION);
+        assertTrue(threshold >= HEDGE_DELAY_MS, "limiar: " + threshold);
+        // Perder a corrida não conta como falha do provedor
+        assertEquals("CLOSED", provider("openai").get("state"));
+
+        primarySlow = false;
+        assertEquals("primária", generate());
+    }
+
+    @Test
+    void primaryFailureFailsOverImmediately() {
+        primaryStatus = 500;
+
+        assertEquals("alternativa", generate());
+
+        assertEquals(1L, stats().get("failovers"));
+        assertEquals(0L, stats().get("hedgesLaunched"));
+    }
+
+    @Test
+    void openCircuitSkipsPrimary() {
+        primaryStatus = 503;
+        assertEquals("alternativa", generate());
+        assertEquals("OPEN", provider("openai").get("state"));
+
+        assertEquals("alternativa", generate());
+
+        assertEquals(1, primaryRequests.get());
+        assertEquals(2L, stats().get("failovers"));
+    }
+
+    @Test
+    void clientErrorDoesNotOpenCircuit() {
+        primaryStatus = 400;
+
+        assertEquals("alternativa", generate());
+
+        assertEquals("CLOSED", provider("openai").get("state"));
+    }
+
+    private String generate() {
+        return service.generateDescription(new PromptBuilder.Prompt("Instruções", "Entrada"), "es");
+    }
+
+    private Map<String, Object> stats() {
+        return service.getProviderStats();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> provider(String name) {
+        return (Map<String, Object>) ((Map<String, Object>) stats().get("providers")).get(name);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String content) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        JSONObject body = new JSONObject()
+                .put("model", "modelo-teste")
+                .put("choices", new JSONArray().put(new JSONObject()
+                        .put("finish_reason", "stop")
+                        .put("message", new JSONObject().put("role", "assistant").put("content", content))));
+        byte[] bytes = status == 200 ? body.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        try {
+            exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            // O cliente já fechou a conexão (tentativa cancelada)
+        } finally {
+            exchange.close();
+        }
+    }
+}
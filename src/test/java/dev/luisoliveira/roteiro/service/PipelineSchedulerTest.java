@@ -0,0 +1,166 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Os jobs são enfileirados antes de start() e consumidos por um único worker,
+ * de modo que a ordem de execução é a ordem do agendador
+ */
+class PipelineSchedulerTest {
+
+    private PipelineScheduler scheduler;
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void heavyUserDoesNotDelayOtherUsersFirstJob() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        scheduler.register("p-a", "a", PipelineScheduler.Lane.INTERACTIVE);
+        scheduler.register("p-b", "b", PipelineScheduler.Lane.INTERACTIVE);
+        scheduler.register("p-c", "c", PipelineScheduler.Lane.INTERACTIVE);
+        CountDownLatch done = new CountDownLatch(32);
+        for (int i = 0; i < 30; i++) {
+            submit("p-a", "a", done);
+        }
+        submit("p-b", "b", done);
+        submit("p-c", "c", done);
+
+        runAll(done);
+
+        // Um job por usuário ativo à frente, no máximo
+        assertTrue(executed.indexOf("b") <= 2, "ordem: " + executed);
+        assertTrue(executed.indexOf("c") <= 2, "ordem: " + executed);
+    }
+
+    @Test
+    void usersWithJobsAreServedRoundRobin() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        scheduler.register("p-a", "a", PipelineScheduler.Lane.BULK);
+        scheduler.register("p-b", "b", PipelineScheduler.Lane.BULK);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int i = 0; i < 4; i++) {
+            submit("p-a", "a", done);
+        }
+        for (int i = 0; i < 4; i++) {
+            submit("p-b", "b", done);
+        }
+
+        runAll(done);
+
+        assertEquals(List.of("a", "b", "a", "b", "a", "b", "a", "b"), executed);
+    }
+
+    @Test
+    void weightedUserGetsProportionalShare() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of("a", 2.0));
+        scheduler.register("p-a", "a", PipelineScheduler.Lane.INTERACTIVE);
+        scheduler.register("p-b", "b", PipelineScheduler.Lane.INTERACTIVE);
+        CountDownLatch done = new CountDownLatch(24);
+        for (int i = 0; i < 12; i++) {
+            submit("p-a", "a", done);
+            submit("p-b", "b", done);
+        }
+
+        runAll(done);
+
+        // Peso 2: o dobro de vezes enquanto os dois têm jobs na fila
+        List<String> firstNine = executed.subList(0, 9);
+        assertEquals(6, Collections.frequency(firstNine, "a"), "ordem: " + executed);
+        assertEquals(3, Collections.frequency(firstNine, "b"), "ordem: " + executed);
+    }
+
+    @Test
+    void higherPriorityLaneIsAlwaysServedFirst() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        scheduler.register("p-backfill", "a", PipelineScheduler.Lane.BACKFILL);
+        scheduler.register("p-bulk", "a", PipelineScheduler.Lane.BULK);
+        scheduler.register("p-interactive", "b", PipelineScheduler.Lane.INTERACTIVE);
+        CountDownLatch done = new CountDownLatch(6);
+        submit("p-backfill", "backfill", done);
+        submit("p-bulk", "bulk", done);
+        submit("p-backfill", "backfill", done);
+        submit("p-interactive", "interactive", done);
+        submit("p-bulk", "bulk", done);
+        submit("p-interactive", "interactive", done);
+
+        runAll(done);
+
+        assertEquals(List.of("interactive", "interactive", "bulk", "bulk", "backfill", "backfill"), executed);
+    }
+
+    @Test
+    void unregisteredProcessGoesToInteractiveLane() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        scheduler.register("p-bulk", "a", PipelineScheduler.Lane.BULK);
+        CountDownLatch done = new CountDownLatch(2);
+        submit("p-bulk", "bulk", done);
+        submit("p-desconhecido", "interactive", done);
+
+        runAll(done);
+
+        assertEquals(List.of("interactive", "bulk"), executed);
+    }
+
+    @Test
+    void dispatchListenerRunsBeforeTheStep() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        scheduler.setDispatchListener(processId -> executed.add("dispatch:" + processId));
+        CountDownLatch done = new CountDownLatch(1);
+        submit("p-1", "step", done);
+
+        runAll(done);
+
+        assertEquals(List.of("dispatch:p-1", "step"), executed);
+    }
+
+    @Test
+    void failingStepDoesNotStopTheWorker() throws InterruptedException {
+        scheduler = new PipelineScheduler(1, Map.of());
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit("p-1", () -> {
+            throw new IllegalStateException("falha na etapa");
+        });
+        submit("p-1", "next", done);
+
+        runAll(done);
+
+        assertEquals(List.of("next"), executed);
+    }
+
+    @Test
+    void laneIsParsedFromRequestValue() {
+        assertEquals(PipelineScheduler.Lane.BULK, PipelineScheduler.Lane.from(" bulk "));
+        assertEquals(PipelineScheduler.Lane.BACKFILL, PipelineScheduler.Lane.from("BACKFILL"));
+        assertEquals(PipelineScheduler.Lane.INTERACTIVE, PipelineScheduler.Lane.from(null));
+        assertEquals(PipelineScheduler.Lane.INTERACTIVE, PipelineScheduler.Lane.from("urgente"));
+    }
+
+    private void submit(String processId, String label, CountDownLatch done) {
+        scheduler.submit(processId, () -> {
+            executed.add(label);
+            done.countDown();
+        });
+    }
+
+    private void runAll(CountDownLatch done) throws InterruptedException {
+        scheduler.start();
+        assertTrue(done.await(5, TimeUnit.SECONDS), "jobs pendentes: " + done.getCount());
+    }
+}
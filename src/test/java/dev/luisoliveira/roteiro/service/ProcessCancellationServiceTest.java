@@ -0,0 +1,162 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessCancellationServiceTest {
+
+    private ProcessCancellationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProcessCancellationService();
+        ReflectionTestUtils.setField(service, "connectTimeoutMs", 10_000);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 120_000);
+    }
+
+    @Test
+    void stepsOfCancelledProcessAreDiscarded() {
+        List<String> executed = new ArrayList<>();
+        service.runFor("p1", () -> executed.add("titles"));
+
+        service.cancel("p1");
+        service.runFor("p1", () -> executed.add("oracao"));
+
+        assertEquals(List.of("titles"), executed);
+        assertTrue(service.isCancelled("p1"));
+        assertFalse(service.isCancelled("p2"));
+    }
+
+    @Test
+    void callsAfterCancellationAreRefused() {
+        service.runFor("p1", () -> {
+            service.cancel("p1");
+            assertThrows(ProcessCancellationService.ProcessCancelledException.class,
+                    () -> service.track("openai", "tokens"));
+        });
+    }
+
+    @Test
+    void callOutsideProcessUsesDefaultTimeouts() {
+        try (ProcessCancellationService.InFlightCall call = service.track("openai", "tokens")) {
+            assertEquals(10_000, call.getConnectTimeoutMs());
+            assertEquals(120_000, call.getReadTimeoutMs());
+            assertTrue(service.currentCall().isPresent());
+        }
+        assertTrue(service.currentCall().isEmpty());
+        assertTrue(service.currentProcessId().isEmpty());
+    }
+
+    @Test
+    void timeoutsAreCappedByRemainingDeadline() {
+        service.setDeadline("p1", System.currentTimeMillis() + 2_000);
+
+        service.runFor("p1", () -> {
+            assertEquals("p1", service.currentProcessId().orElseThrow());
+            try (ProcessCancellationService.InFlightCall call = service.track("openai", "tokens")) {
+                assertTrue(call.getConnectTimeoutMs() <= 2_000);
+                assertTrue(call.getReadTimeoutMs() <= 2_000);
+            }
+        });
+    }
+
+    @Test
+    void callsAfterDeadlineAreRefused() {
+        service.setDeadline("p1", System.currentTimeMillis() - 1);
+
+        service.runFor("p1", () -> assertThrows(ProcessCancellationService.DeadlineExceededException.class,
+                () -> service.track("elevenlabs", "caracteres")));
+
+        assertEquals(1L, service.getStats().get("deadlineRejectedCalls"));
+    }
+
+    @Test
+    void cancelAbortsOpenCallAndReportsSpend() throws InterruptedException {
+        CountDownLatch callOpen = new CountDownLatch(1);
+        AtomicBoolean abortActionRan = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean interruptLeaked = new AtomicBoolean(true);
+
+        Thread step = new Thread(() -> {
+            service.runFor("p1", () -> {
+                try (ProcessCancellationService.InFlightCall done = service.track("openai", "tokens")) {
+                    done.addUsage(150);
+                }
+                try (ProcessCancellationService.InFlightCall call = service.track("replicate", "imagens")) {
+                    call.onAbort(() -> abortActionRan.set(true));
+                    callOpen.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.set(call.isAborted());
+                    }
+                }
+            });
+            interruptLeaked.set(Thread.currentThread().isInterrupted());
+        });
+        step.start();
+        assertTrue(callOpen.await(5, TimeUnit.SECONDS));
+
+        ProcessCancellationService.CancellationReport report = service.cancel("p1");
+        step.join(5_000);
+
+        assertTrue(abortActionRan.get());
+        assertTrue(interrupted.get());
+        assertFalse(interruptLeaked.get(), "a interrupção do cancelamento não deve vazar para o worker");
+
+        ProcessCancellationService.ProviderSpend openai = report.providers().get("openai");
+        assertEquals(1, openai.calls());
+        assertEquals(0, openai.abortedCalls());
+        assertEquals(150, openai.units());
+        ProcessCancellationService.ProviderSpend replicate = report.providers().get("replicate");
+        assertEquals(1, replicate.calls());
+        assertEquals(1, replicate.abortedCalls());
+
+        assertEquals(1L, service.getStats().get("cancelledProcesses"));
+        Map<?, ?> wasted = (Map<?, ?>) service.getStats().get("wastedByProvider");
+        assertTrue(wasted.containsKey("openai") && wasted.containsKey("replicate"));
+    }
+
+    @Test
+    void abortActionRegisteredAfterCancellationRunsImmediately() {
+        AtomicBoolean abortActionRan = new AtomicBoolean();
+
+        service.runFor("p1", () -> {
+            try (ProcessCancellationService.InFlightCall call = service.track("openai", "tokens")) {
+                service.cancel("p1");
+                call.onAbort(() -> abortActionRan.set(true));
+            }
+        });
+
+        assertTrue(abortActionRan.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void expiredProcessIsCountedSeparately() {
+        service.runFor("p1", () -> {
+        });
+
+        service.expire("p1");
+
+        assertTrue(service.isCancelled("p1"));
+        assertEquals(1L, service.getStats().get("timedOutProcesses"));
+        assertEquals(0L, service.getStats().get("cancelledProcesses"));
+
+        service.forget("p1");
+        assertFalse(service.isCancelled("p1"));
+    }
+}
@@ -0,0 +1,50 @@
+package dev.luisoliveira.roteiro.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessStatisticsTest {
+
+    private final ProcessStatistics statistics = new ProcessStatistics(ProcessTrackingService::statisticsStage);
+
+    @Test
+    void stageKeysDoNotGrowWithPerProcessText() {
+        for (int i = 0; i < 100; i++) {
+            statistics.processStarted("Iniciado");
+            statistics.stageChanged("Iniciado", "Título selecionado: Oração da manhã " + i);
+            statistics.stageChanged("Título selecionado: Oração da manhã " + i, "Gerando oração (" + i + ")");
+            statistics.stageChanged("Gerando oração (" + i + ")", "Erro ao gerar áudio: timeout " + i);
+        }
+
+        assertEquals(Map.of("erro", 100L), distribution());
+    }
+
+    @Test
+    void stagesAreCountedByTimelineStage() {
+        statistics.processStarted("Iniciado");
+        statistics.processStarted("Iniciado");
+        statistics.stageChanged("Iniciado", "Gerando títulos para o tema Fé");
+        statistics.stageChanged("Iniciado", "Usando título fornecido: Salmo 23");
+
+        assertEquals(Map.of("titles", 1L, "Usando título fornecido", 1L), distribution());
+
+        statistics.processRemoved("Usando título fornecido: Salmo 23", false);
+        assertEquals(Map.of("titles", 1L), distribution());
+    }
+
+    @Test
+    void normalizesStatusText() {
+        assertEquals("audio", ProcessTrackingService.statisticsStage("Gerando áudio..."));
+        assertEquals("erro", ProcessTrackingService.statisticsStage("Erro: tempo esgotado (oracao)"));
+        assertEquals("Título selecionado", ProcessTrackingService.statisticsStage("Título selecionado: Paz"));
+        assertEquals("Concluído", ProcessTrackingService.statisticsStage("Concluído"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> distribution() {
+        return (Map<String, Long>) statistics.snapshot().get("statusDistribution");
+    }
+}
@@ -0,0 +1,163 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.ProcessStatusDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProcessStatusWriterTest {
+
+    private MongoTemplate mongoTemplate;
+    private ProcessStatusWriter writer;
+    // Progresso gravado por processo, na ordem dos execute() bem-sucedidos
+    private final Map<String, List<Integer>> written = new ConcurrentHashMap<>();
+    private final AtomicInteger executes = new AtomicInteger();
+    private volatile Runnable beforeExecute = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(ProcessStatusDocument.class)))
+                .thenAnswer(invocation -> recordingBulk());
+        writer = new ProcessStatusWriter(mongoTemplate);
+        ReflectionTestUtils.setField(writer, "batchSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    void queuedUpdatesOfAProcessAreCoalesced() throws InterruptedException {
+        writer.enqueue(snapshot("p1", "Gerando oração", 10), false);
+        writer.enqueue(snapshot("p1", "Gerando oração", 20), false);
+        writer.enqueue(snapshot("p1", "Gerando oração", 30), false);
+        writer.enqueue(snapshot("p2", "Gerando títulos", 5), false);
+        assertEquals(0, executes.get());
+
+        writer.scheduledFlush();
+        awaitWriter();
+
+        assertEquals(1, executes.get()); // Um único lote
+        assertEquals(List.of(30), written.get("p1"));
+        assertEquals(List.of(5), written.get("p2"));
+    }
+
+    @Test
+    void stageChangeIsFlushedImmediately() throws InterruptedException {
+        writer.enqueue(snapshot("p1", "Gerando títulos", 10), false);
+        writer.enqueue(snapshot("p1", "Gerando oração", 25), true);
+        awaitWriter();
+
+        // Sem scheduledFlush: a mudança de estágio já foi gravada, junto com o que estava pendente
+        assertEquals(List.of(25), written.get("p1"));
+        assertEquals(1, executes.get());
+    }
+
+    @Test
+    void failedWriteDoesNotOverwriteNewerSnapshot() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch newerQueued = new CountDownLatch(1);
+        beforeExecute = () -> {
+            writing.countDown();
+            try {
+                newerQueued.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("MongoDB indisponível");
+        };
+
+        writer.enqueue(snapshot("p1", "Gerando oração", 40), true);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.enqueue(snapshot("p1", "Gerando oração", 60), false);
+        newerQueued.countDown();
+        awaitWriter();
+
+        // O 40 que falhou não volta por cima do 60
+        assertEquals(60, writer.find("p1").getProgressPercentage());
+
+        beforeExecute = () -> { };
+        writer.scheduledFlush();
+        awaitWriter();
+        assertEquals(List.of(60), written.get("p1"));
+    }
+
+    @Test
+    void failedWriteIsRetriedOnNextFlush() throws InterruptedException {
+        beforeExecute = () -> {
+            throw new IllegalStateException("MongoDB indisponível");
+        };
+        writer.enqueue(snapshot("p1", "Gerando áudio", 70), true);
+        awaitWriter();
+        assertEquals(70, writer.find("p1").getProgressPercentage());
+
+        beforeExecute = () -> { };
+        writer.scheduledFlush();
+        awaitWriter();
+
+        assertEquals(List.of(70), written.get("p1"));
+    }
+
+    private BulkOperations recordingBulk() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        List<Map.Entry<String, Integer>> upserts = new CopyOnWriteArrayList<>();
+        when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Update update = invocation.getArgument(1);
+            Document set = (Document) update.getUpdateObject().get("$set");
+            upserts.add(Map.entry(query.getQueryObject().getString("_id"), set.getInteger("progressPercentage")));
+            return bulk;
+        });
+        when(bulk.execute()).thenAnswer(invocation -> {
+            beforeExecute.run();
+            executes.incrementAndGet();
+            upserts.forEach(upsert -> written
+                    .computeIfAbsent(upsert.getKey(), key -> new CopyOnWriteArrayList<>())
+                    .add(upsert.getValue()));
+            return null;
+        });
+        return bulk;
+    }
+
+    private static ProcessStatusDocument snapshot(String processId, String stage, int progress) {
+        ProcessStatusDocument snapshot = new ProcessStatusDocument();
+        snapshot.setProcessId(processId);
+        snapshot.setCurrentStage(stage);
+        snapshot.setProgressPercentage(progress);
+        snapshot.setLastUpdated(LocalDateTime.now());
+        return snapshot;
+    }
+
+    // A thread de escrita é única: uma tarefa vazia concluída indica que as anteriores terminaram
+    private void awaitWriter() throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(writer, "writer");
+        executor.execute(idle::countDown);
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+    }
+}
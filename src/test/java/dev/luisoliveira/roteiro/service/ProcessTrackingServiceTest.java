@@ -0,0 +1,211 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PrayerContent;
+import dev.luisoliveira.roteiro.model.StageTiming;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessTrackingServiceTest {
+
+    private NotificationService notificationService;
+    private MongoTemplate mongoTemplate;
+    private GenerationAdmissionService generationAdmissionService;
+    private ProcessCancellationService processCancellationService;
+    private ProcessTrackingService service;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = mock(NotificationService.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        generationAdmissionService = mock(GenerationAdmissionService.class);
+        processCancellationService = mock(ProcessCancellationService.class);
+        service = new ProcessTrackingService(notificationService, mongoTemplate, mock(ProcessStatusWriter.class),
+                generationAdmissionService, mock(PipelineScheduler.class), processCancellationService);
+        ReflectionTestUtils.setField(service, "maxEntries", 5000);
+        ReflectionTestUtils.setField(service, "completedTtlMinutes", 30L);
+        ReflectionTestUtils.setField(service, "staleTtlHours", 6L);
+        ReflectionTestUtils.setField(service, "processDeadlineSeconds", 0L);
+        service.setStageDeadlineSeconds("titles=0");
+    }
+
+    @Test
+    void finishedProcessesAreEvictedAfterTtlAndRunningOnesAreKept() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "completedTtlMinutes", 0L);
+        service.initializeProcess("finished");
+        service.initializeProcess("running");
+        service.storeResult("finished", "content-1");
+        Thread.sleep(5);
+
+        service.evictExpired();
+
+        assertFalse(registry().containsKey("finished"));
+        assertTrue(registry().containsKey("running"));
+        verify(notificationService).evictProcess("finished");
+        verify(generationAdmissionService).release("finished");
+        verify(notificationService, never()).evictProcess("running");
+        assertEquals(1L, service.getEventStatistics().get("totalProcesses"));
+    }
+
+    @Test
+    void staleRunningProcessesAreEvicted() {
+        service.initializeProcess("stale");
+        service.initializeProcess("recent");
+        service.getStatus("stale").setLastUpdated(LocalDateTime.now().minusHours(7));
+
+        service.evictExpired();
+
+        assertFalse(registry().containsKey("stale"));
+        assertTrue(registry().containsKey("recent"));
+    }
+
+    @Test
+    void fullRegistryOfRunningProcessesRefusesNewProcess() {
+        ReflectionTestUtils.setField(service, "maxEntries", 2);
+        assertTrue(service.initializeProcess("p1"));
+        assertTrue(service.initializeProcess("p2"));
+
+        // Só há processos em andamento: nenhum é removido e o novo é recusado (503 no controller)
+        assertFalse(service.initializeProcess("p3"));
+        assertEquals(2, registry().size());
+        assertFalse(registry().containsKey("p3"));
+
+        // Com um finalizado, ele dá lugar ao novo
+        service.storeResult("p1", "content-1");
+        assertTrue(service.initializeProcess("p3"));
+        assertFalse(registry().containsKey("p1"));
+        assertTrue(registry().containsKey("p2"));
+        assertTrue(registry().containsKey("p3"));
+    }
+
+    @Test
+    void reinitializingExistingProcessIsAllowedWhenFull() {
+        ReflectionTestUtils.setField(service, "maxEntries", 1);
+        assertTrue(service.initializeProcess("p1"));
+        service.setUserId("p1", "user-1");
+
+        assertTrue(service.initializeProcess("p1"));
+        assertEquals("user-1", service.getUserId("p1"));
+    }
+
+    @Test
+    void timelineStageIsClosedWhenNextStageStarts() {
+        service.initializeProcess("p1");
+        service.updateStatus("p1", "Gerando títulos para o tema", 10);
+        service.updateStatus("p1", "Título selecionado: Paz", 20);
+        service.updateStatus("p1", "Gerando oração", 30);
+        service.recordModel("p1", "oracao", "gpt-4o");
+        service.updateStatus("p1", "Concluído", 100);
+
+        List<StageTiming> timeline = savedTimeline();
+        assertEquals(List.of("titles", "oracao"), timeline.stream().map(StageTiming::getStage).toList());
+        timeline.forEach(timing -> {
+            assertNotNull(timing.getDurationMs());
+            assertNull(timing.getFailed());
+        });
+        assertEquals("gpt-4o", timeline.get(1).getModel());
+    }
+
+    @Test
+    void openStageIsClosedAsFailedOnError() {
+        service.initializeProcess("p1");
+        service.updateStatus("p1", "Gerando títulos", 10);
+        service.updateStatus("p1", "Gerando oração", 30);
+        service.updateStatus("p1", "Erro ao gerar oração: timeout", 0);
+
+        List<StageTiming> timeline = savedTimeline();
+        assertEquals(2, timeline.size());
+        assertNull(timeline.get(0).getFailed());
+        assertEquals(Boolean.TRUE, timeline.get(1).getFailed());
+        assertNotNull(timeline.get(1).getDurationMs());
+    }
+
+    @Test
+    void processDeadlineExpiresProcess() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "processDeadlineSeconds", 1L);
+        service.initializeProcess("p1");
+        service.setUserId("p1", "user-1");
+        service.startDeadline("p1");
+
+        service.expireOverdue();
+        assertEquals("Iniciado", service.getStatus("p1").getCurrentStage());
+
+        Thread.sleep(1100);
+        service.expireOverdue();
+
+        assertEquals("Erro: tempo esgotado (processo)", service.getStatus("p1").getCurrentStage());
+        verify(processCancellationService).expire("p1");
+        verify(generationAdmissionService).release("p1");
+        assertEquals(1L, service.getEventStatistics().get("timedOutLastHour"));
+
+        // Etapas que ainda terminarem depois do prazo são ignoradas
+        service.updateStatus("p1", "Gerando oração", 40);
+        assertEquals("Erro: tempo esgotado (processo)", service.getStatus("p1").getCurrentStage());
+    }
+
+    @Test
+    void stageDeadlineExpiresProcessWithStageName() throws InterruptedException {
+        service.setStageDeadlineSeconds("titles=1");
+        when(processCancellationService.expire("p1"))
+                .thenReturn(new ProcessCancellationService.CancellationReport("p1", 0, Map.of()));
+        service.initializeProcess("p1");
+        service.updateStatus("p1", "Gerando títulos", 10);
+
+        Thread.sleep(1100);
+        service.expireOverdue();
+
+        assertEquals("Erro: tempo esgotado (titles)", service.getStatus("p1").getCurrentStage());
+        verify(processCancellationService).expire("p1");
+        verify(notificationService).sendProgressNotification(eq("p1"), any(), eq("Erro: tempo esgotado (titles)"),
+                anyInt());
+        assertEquals(Boolean.TRUE, savedTimeline().get(0).getFailed());
+    }
+
+    @Test
+    void finishedProcessIsNotExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "processDeadlineSeconds", 1L);
+        service.initializeProcess("p1");
+        service.startDeadline("p1");
+        service.storeResult("p1", "content-1");
+
+        Thread.sleep(1100);
+        service.expireOverdue();
+
+        assertEquals("Concluído", service.getStatus("p1").getCurrentStage());
+        verify(processCancellationService, never()).expire(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> registry() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(service, "registry");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StageTiming> savedTimeline() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(PrayerContent.class));
+        return (List<StageTiming>) update.getValue().getUpdateObject().get("$set", Map.class).get("timeline");
+    }
+}
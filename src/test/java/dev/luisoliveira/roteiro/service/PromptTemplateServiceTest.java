@@ -0,0 +1,132 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.model.PromptTemplateDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PromptTemplateServiceTest {
+
+    private static final String OVERRIDE = "Instruções da coleção\n=== entrada ===\nTema: {{tema}}\n";
+
+    private MongoTemplate mongoTemplate;
+    private PromptTemplateService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new PromptTemplateService(mongoTemplate);
+        ReflectionTestUtils.setField(service, "mongoOverrides", true);
+    }
+
+    @Test
+    void languageFallsBackToBaseLanguageAndThenSpanish() {
+        service.init();
+
+        assertEquals("es-MX", service.get(ModelRouter.TITLES, "es-MX").language());
+        assertEquals("es", service.get(ModelRouter.CORRECTION, "es-MX").language());
+        assertEquals("pt", service.get(ModelRouter.TITLES, "pt-BR").language());
+        assertEquals("es", service.get(ModelRouter.TITLES, "fr").language());
+        assertEquals("es", service.get(ModelRouter.TITLES, null).language());
+        assertEquals("en", service.get(ModelRouter.ORACAO, "EN").language());
+    }
+
+    @Test
+    void classpathTemplatesCompileWithoutErrors() {
+        service.init();
+
+        assertEquals(List.of(), service.describe().get("errors"));
+        assertFalse(service.get(ModelRouter.ORACAO, "es").instructions().contains("{{"));
+    }
+
+    @Test
+    void mongoDocumentOverridesClasspathTemplate() {
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", OVERRIDE)));
+        service.init();
+
+        PromptTemplateService.CompiledPrompt prompt = service.get(ModelRouter.TITLES, "pt");
+        assertEquals("mongodb", prompt.source());
+        assertEquals("Tema: Fé", prompt.input().render("Fé", "Calmo", null));
+    }
+
+    @Test
+    void failedReloadKeepsPreviousTemplate() {
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", OVERRIDE)));
+        service.init();
+
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", "Instruções\n=== entrada ===\n{{titulo}}")));
+        service.reload();
+
+        PromptTemplateService.CompiledPrompt prompt = service.get(ModelRouter.TITLES, "pt");
+        assertEquals("mongodb", prompt.source());
+        assertEquals("Tema: Fé", prompt.input().render("Fé", "Calmo", null));
+        assertEquals(1, ((List<?>) service.describe().get("errors")).size());
+    }
+
+    @Test
+    void templateWithoutSeparatorKeepsPreviousTemplate() {
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", OVERRIDE)));
+        service.init();
+
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", "Só instruções, sem entrada")));
+        service.reload();
+
+        assertEquals("mongodb", service.get(ModelRouter.TITLES, "pt").source());
+    }
+
+    @Test
+    void unreadableCollectionKeepsPreviousOverrides() {
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", OVERRIDE)));
+        service.init();
+
+        when(mongoTemplate.findAll(PromptTemplateDocument.class)).thenThrow(new IllegalStateException("sem conexão"));
+        service.reload();
+
+        assertEquals("mongodb", service.get(ModelRouter.TITLES, "pt").source());
+        assertEquals("classpath", service.get(ModelRouter.TITLES, "es").source());
+    }
+
+    @Test
+    void failedTemplateWithoutPreviousVersionUsesClasspathDefault() {
+        when(mongoTemplate.findAll(PromptTemplateDocument.class))
+                .thenReturn(List.of(document(ModelRouter.TITLES, "pt", "Instruções {{tema}}\n=== entrada ===\n")));
+        service.init();
+
+        assertEquals("classpath", service.get(ModelRouter.TITLES, "pt").source());
+        assertTrue(((List<?>) service.describe().get("errors")).get(0).toString().contains("titles:pt"));
+    }
+
+    @Test
+    void unknownStageIsRejected() {
+        service.init();
+
+        assertThrows(IllegalStateException.class, () -> service.get("desconhecido", "es"));
+    }
+
+    private static PromptTemplateDocument document(String stage, String language, String content) {
+        PromptTemplateDocument document = new PromptTemplateDocument();
+        document.setId(stage + ":" + language);
+        document.setStage(stage);
+        document.setLanguage(language);
+        document.setContent(content);
+        document.setUpdatedAt(LocalDateTime.now());
+        return document;
+    }
+}
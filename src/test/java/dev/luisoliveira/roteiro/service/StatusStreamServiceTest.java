@@ -0,0 +1,165 @@
+package dev.luisoliveira.roteiro.service;
+
+import dev.luisoliveira.roteiro.dto.NotificationMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Os emitters não são inicializados por um servlet: os envios ficam na lista
+ * de envios antecipados do ResponseBodyEmitter, lida aqui na ordem de chegada
+ */
+class StatusStreamServiceTest {
+
+    private StatusStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StatusStreamService();
+        ReflectionTestUtils.setField(service, "timeoutMinutes", 30L);
+        ReflectionTestUtils.setField(service, "dispatchThreads", 1);
+        ReflectionTestUtils.setField(service, "maxPending", 4);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void snapshotProgressAndResultAreSentInOrder() throws InterruptedException {
+        SseEmitter emitter = service.subscribe("p1");
+        service.sendSnapshot(emitter, Map.of("stage", "Iniciado"), false);
+        service.publishProgress("p1", progress("p1", "Gerando títulos"));
+        service.publishProgress("p1", progress("p1", "Gerando oração"));
+        service.publishResult("p1", new NotificationMessage("p1", "PROCESS_COMPLETED", "Concluído", null));
+        awaitCompleted(emitter);
+
+        assertEquals(List.of("status", "progress", "progress", "result"), eventNames(emitter));
+        assertEquals(List.of("Gerando títulos", "Gerando oração"), messages(emitter, "PROGRESS_UPDATE"));
+    }
+
+    @Test
+    void streamIsClosedAfterResult() throws InterruptedException {
+        SseEmitter emitter = service.subscribe("p1");
+        service.publishResult("p1", new NotificationMessage("p1", "ERROR", "Erro ao gerar oração", null));
+        awaitCompleted(emitter);
+
+        assertEquals(0, service.getSubscriberCount());
+        service.publishProgress("p1", progress("p1", "Gerando áudio"));
+        drainDispatcher();
+        assertEquals(List.of("result"), eventNames(emitter));
+    }
+
+    @Test
+    void snapshotOfFinishedProcessIsSentAsResult() throws InterruptedException {
+        SseEmitter emitter = service.subscribe("p1");
+        service.sendSnapshot(emitter, Map.of("stage", "Concluído"), true);
+        awaitCompleted(emitter);
+
+        assertEquals(List.of("result"), eventNames(emitter));
+    }
+
+    @Test
+    void slowSubscriberIsDroppedPastMaxPending() throws InterruptedException {
+        // A única thread de envio fica presa, como num envio a um cliente que não lê
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher().execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        SseEmitter slow = service.subscribe("p1");
+        SseEmitter other = service.subscribe("p2");
+
+        for (int i = 0; i < 4; i++) {
+            service.publishProgress("p1", progress("p1", "Estágio " + i));
+        }
+        assertFalse(isCompleted(slow));
+        service.publishProgress("p1", progress("p1", "Estágio 4"));
+        assertTrue(isCompleted(slow));
+        assertEquals(1, service.getDroppedSubscribers());
+
+        service.publishProgress("p2", progress("p2", "Gerando oração"));
+        service.publishResult("p2", new NotificationMessage("p2", "PROCESS_COMPLETED", "Concluído", null));
+        release.countDown();
+        awaitCompleted(other);
+
+        assertEquals(List.of(), eventNames(slow));
+        assertEquals(List.of("progress", "result"), eventNames(other));
+    }
+
+    private static NotificationMessage progress(String processId, String stage) {
+        return new NotificationMessage(processId, "PROGRESS_UPDATE", stage, Map.of("stage", stage));
+    }
+
+    private ExecutorService dispatcher() {
+        return (ExecutorService) ReflectionTestUtils.getField(service, "dispatcher");
+    }
+
+    // Com uma thread de envio, uma tarefa vazia concluída indica que os envios anteriores terminaram
+    private void drainDispatcher() throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        dispatcher().execute(idle::countDown);
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean isCompleted(SseEmitter emitter) {
+        return ((AtomicBoolean) ReflectionTestUtils.getField(emitter, "complete")).get();
+    }
+
+    private static void awaitCompleted(SseEmitter emitter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!isCompleted(emitter) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(isCompleted(emitter), "Stream não foi encerrado");
+    }
+
+    private static List<Object> sentParts(SseEmitter emitter) {
+        synchronized (emitter) {
+            List<Object> parts = new ArrayList<>();
+            Set<?> early = (Set<?>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+            early.forEach(part -> parts.add(((ResponseBodyEmitter.DataWithMediaType) part).getData()));
+            return parts;
+        }
+    }
+
+    private static List<String> eventNames(SseEmitter emitter) {
+        List<String> names = new ArrayList<>();
+        for (Object part : sentParts(emitter)) {
+            if (part instanceof String text && text.startsWith("event:")) {
+                names.add(text.substring("event:".length(), text.indexOf('\n')));
+            }
+        }
+        return names;
+    }
+
+    private static List<String> messages(SseEmitter emitter, String type) {
+        return sentParts(emitter).stream()
+                .filter(NotificationMessage.class::isInstance)
+                .map(NotificationMessage.class::cast)
+                .filter(message -> type.equals(message.getType()))
+                .map(NotificationMessage::getMessage)
+                .toList();
+    }
+}
@@ -0,0 +1,112 @@
+package dev.luisoliveira.roteiro.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderização da entrada dos prompts com PromptTemplate comparada à
+ * montagem anterior com StringBuilder (build*Prompt antes dos templates).
+ *
+ * Roda com o GCProfiler: compare gc.alloc.rate.norm (bytes alocados por
+ * operação) além do tempo. Execução: mvn test-compile e depois a classe main
+ * deste benchmark com o classpath de teste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    // Campos não constantes: evitam que o JIT dobre as concatenações
+    private String tema = "protección familiar";
+    private String estilo = "Reflexiva";
+    private String observacoes = "Mencionar a los abuelos y a los nietos";
+    private String titulo = "PODEROSA ORACIÓN por la PROTECCIÓN de tu FAMILIA #oración #salmo91";
+    private String duracao = "Padrão (5 minutos)";
+    private String tamanho = "1.800-2.200 caracteres (5 minutos)";
+
+    private PromptTemplate titles;
+    private PromptTemplate oracao;
+    private PromptTemplate description;
+    private String oracaoContent;
+
+    @Setup
+    public void setUp() {
+        titles = PromptTemplate.compile("Tema: \"{{tema}}\"\nEstilo: \"{{estilo}}\"{{#observacoes}}\n\n"
+                + "Observações adicionais para considerar: {{observacoes}}{{/observacoes}}",
+                List.of("tema", "estilo", "observacoes"));
+        oracao = PromptTemplate.compile("Título: \"{{titulo}}\"\nTema: {{tema}}\nEstilo: {{estilo}}\n"
+                + "Duração: {{duracao}}\nTamanho total: {{tamanho}}",
+                List.of("titulo", "tema", "estilo", "duracao", "tamanho"));
+        description = PromptTemplate.compile("Título: \"{{titulo}}\"\n\nConteúdo da oração:\n{{oracao}}",
+                List.of("titulo", "oracao"));
+        oracaoContent = "Señor, en este día ponemos en tus manos a nuestra familia. ".repeat(40);
+    }
+
+    @Benchmark
+    public String titlesTemplate() {
+        return titles.render(tema, estilo, observacoes);
+    }
+
+    @Benchmark
+    public String titlesLegacy() {
+        StringBuilder input = new StringBuilder();
+        input.append("Tema: \"").append(tema).append("\"\n");
+        input.append("Estilo: \"").append(estilo).append("\"");
+        if (observacoes != null && !observacoes.isEmpty()) {
+            input.append("\n\nObservações adicionais para considerar: ").append(observacoes);
+        }
+        return input.toString();
+    }
+
+    @Benchmark
+    public String oracaoTemplate() {
+        return oracao.render(titulo, tema, estilo, duracao, tamanho);
+    }
+
+    @Benchmark
+    public String oracaoLegacy() {
+        StringBuilder input = new StringBuilder();
+        input.append("Título: \"").append(titulo).append("\"\n");
+        input.append("Tema: ").append(tema).append("\n");
+        input.append("Estilo: ").append(estilo).append("\n");
+        input.append("Duração: ").append(duracao).append("\n");
+        input.append("Tamanho total: ").append(tamanho);
+        return input.toString();
+    }
+
+    @Benchmark
+    public String descriptionTemplate() {
+        return description.render(titulo, oracaoContent);
+    }
+
+    @Benchmark
+    public String descriptionLegacy() {
+        return "Título: \"" + titulo + "\"\n\n" +
+                "Conteúdo da oração:\n" + oracaoContent;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromptTemplateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.luisoliveira.roteiro.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptTemplateTest {
+
+    private static final List<String> SLOTS = List.of("tema", "estilo", "observacoes");
+
+    @Test
+    void rendersSlotsInDeclaredOrder() {
+        PromptTemplate template = PromptTemplate.compile("Tema: \"{{tema}}\"\nEstilo: \"{{ estilo }}\"", SLOTS);
+
+        assertEquals("Tema: \"Fé\"\nEstilo: \"Calmo\"", template.render("Fé", "Calmo", null));
+    }
+
+    @Test
+    void sectionIsRenderedOnlyWhenValueIsPresent() {
+        PromptTemplate template = PromptTemplate.compile(
+                "{{tema}}{{#observacoes}}\n\nObservações: {{observacoes}}{{/observacoes}}", SLOTS);
+
+        assertEquals("Fé\n\nObservações: curta", template.render("Fé", "Calmo", "curta"));
+        assertEquals("Fé", template.render("Fé", "Calmo", ""));
+        assertEquals("Fé", template.render("Fé", "Calmo", null));
+    }
+
+    @Test
+    void nullSlotRendersEmpty() {
+        PromptTemplate template = PromptTemplate.compile("[{{tema}}]", SLOTS);
+
+        assertEquals("[]", template.render(null, null, null));
+    }
+
+    @Test
+    void unknownSlotIsRejectedOnCompile() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("Tema: {{tema}} {{titulo}}", SLOTS));
+
+        assertTrue(e.getMessage().contains("titulo"));
+    }
+
+    @Test
+    void unclosedSectionIsRejectedOnCompile() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("{{#observacoes}}Observações: {{observacoes}}", SLOTS));
+
+        assertTrue(e.getMessage().contains("observacoes"));
+    }
+
+    @Test
+    void mismatchedOrStrayClosingIsRejectedOnCompile() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("{{#tema}}x{{/estilo}}", SLOTS));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("x{{/tema}}", SLOTS));
+    }
+
+    @Test
+    void unclosedMarkupIsRejectedOnCompile() {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Tema: {{tema", SLOTS));
+    }
+
+    @Test
+    void templateWithoutSlotsAcceptsNoValues() {
+        PromptTemplate template = PromptTemplate.compile("Instruções fixas", List.of());
+
+        assertEquals("Instruções fixas", template.render());
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("{{tema}}", List.of()));
+    }
+
+    @Test
+    void renderRejectsWrongNumberOfValues() {
+        PromptTemplate template = PromptTemplate.compile("{{tema}}", SLOTS);
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("Fé"));
+    }
+}